@@ -0,0 +1,81 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessFiles;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessBackend;
+import com.katzstudio.kreativity.ui.component.KrButton;
+import com.katzstudio.kreativity.ui.component.KrLabel;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.layout.KrBorderLayout;
+import com.katzstudio.kreativity.ui.layout.KrGridLayout;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Functions shared by the benchmarks: the initialization of a headless toolkit, and the creation of widget trees.
+ */
+final class KrBenchmarks {
+
+    static final int SCREEN_WIDTH = 1920;
+
+    static final int SCREEN_HEIGHT = 1080;
+
+    private static boolean isGdxInitialized;
+
+    enum LayoutType {
+        BORDER, GRID
+    }
+
+    private KrBenchmarks() {
+    }
+
+    /**
+     * Initializes a toolkit with a headless backend, and the default skin. The skin textures are decoded, but
+     * never uploaded: GL calls go to a mock.
+     */
+    static KrHeadlessBackend initializeToolkit() {
+        if (!isGdxInitialized) {
+            GdxNativesLoader.load();
+            Gdx.files = new HeadlessFiles();
+            Gdx.gl = Gdx.gl20 = mock(GL20.class);
+            isGdxInitialized = true;
+        }
+
+        KrHeadlessBackend backend = new KrHeadlessBackend(SCREEN_WIDTH, SCREEN_HEIGHT, true);
+        KrToolkit.initialize(backend);
+        return backend;
+    }
+
+    /**
+     * Creates a tree of panels. Each panel has {@code breadth} children, and the leaves are labels and buttons.
+     * Panels with a border layout have at most 5 children, one for each constraint.
+     *
+     * @param depth the number of panel levels
+     */
+    static KrPanel createTree(LayoutType layoutType, int depth, int breadth) {
+        boolean isGrid = layoutType == LayoutType.GRID;
+        KrPanel panel = new KrPanel(isGrid ? new KrGridLayout(breadth, 2, 2) : new KrBorderLayout(2, 2));
+        int childCount = isGrid ? breadth : Math.min(breadth, KrBorderLayout.Constraint.values().length);
+        for (int i = 0; i < childCount; ++i) {
+            KrWidget child;
+            if (depth > 1) {
+                child = createTree(layoutType, depth - 1, breadth);
+            } else {
+                child = i % 2 == 0 ? new KrLabel("Label " + i) : new KrButton("Button " + i);
+            }
+            panel.add(child, getConstraint(layoutType, i));
+        }
+        return panel;
+    }
+
+    private static Object getConstraint(LayoutType layoutType, int index) {
+        if (layoutType == LayoutType.GRID) {
+            return KrGridLayout.Constraint.DEFAULT;
+        }
+        return KrBorderLayout.Constraint.values()[index];
+    }
+}
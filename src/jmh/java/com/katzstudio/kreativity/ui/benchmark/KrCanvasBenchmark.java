@@ -0,0 +1,61 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.layout.KrBorderLayout;
+import com.katzstudio.kreativity.ui.render.KrRecordingRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a frame of a canvas: the update of the toolkit, and the drawing of the whole widget tree through a
+ * recording renderer.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KrCanvasBenchmark {
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    @Param({"4", "8"})
+    public int breadth;
+
+    private KrCanvas canvas;
+
+    private KrRecordingRenderer renderer;
+
+    @Setup
+    public void setUp() {
+        KrBenchmarks.initializeToolkit();
+        canvas = KrToolkit.getDefaultToolkit().getCanvas();
+        renderer = (KrRecordingRenderer) KrToolkit.getDefaultToolkit().getRenderer();
+
+        KrPanel rootPanel = canvas.getRootPanel();
+        rootPanel.setLayout(new KrBorderLayout());
+        rootPanel.add(KrBenchmarks.createTree(KrBenchmarks.LayoutType.GRID, depth, breadth), KrBorderLayout.Constraint.CENTER);
+        KrToolkit.getDefaultToolkit().update(0);
+    }
+
+    @Benchmark
+    public boolean update() {
+        return KrToolkit.getDefaultToolkit().update(1 / 60f);
+    }
+
+    @Benchmark
+    public int draw() {
+        canvas.repaint();
+        canvas.draw();
+        return renderer.getLastFrame().getDrawCount();
+    }
+}
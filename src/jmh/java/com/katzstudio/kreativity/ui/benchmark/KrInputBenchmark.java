@@ -0,0 +1,91 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessBackend;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessInputSource;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.layout.KrBorderLayout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hit testing and the dispatch of mouse events through a canvas. The pointer visits a fixed sequence of
+ * random positions, so consecutive events usually hit different widgets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KrInputBenchmark {
+
+    private static final int POSITION_COUNT = 1024;
+
+    @Param({"2", "3", "4"})
+    public int depth;
+
+    @Param({"4", "8"})
+    public int breadth;
+
+    private final float[] positions = new float[POSITION_COUNT * 2];
+
+    private int positionIndex;
+
+    private KrCanvas canvas;
+
+    private KrHeadlessInputSource inputSource;
+
+    @Setup
+    public void setUp() {
+        KrHeadlessBackend backend = KrBenchmarks.initializeToolkit();
+        inputSource = backend.getInputSource();
+        canvas = KrToolkit.getDefaultToolkit().getCanvas();
+
+        KrPanel rootPanel = canvas.getRootPanel();
+        rootPanel.setLayout(new KrBorderLayout());
+        rootPanel.add(KrBenchmarks.createTree(KrBenchmarks.LayoutType.GRID, depth, breadth), KrBorderLayout.Constraint.CENTER);
+        KrToolkit.getDefaultToolkit().update(0);
+
+        MathUtils.random.setSeed(0);
+        for (int i = 0; i < POSITION_COUNT; ++i) {
+            positions[i * 2] = MathUtils.random(KrBenchmarks.SCREEN_WIDTH);
+            positions[i * 2 + 1] = MathUtils.random(KrBenchmarks.SCREEN_HEIGHT);
+        }
+    }
+
+    @Benchmark
+    public KrWidget findWidgetAt() {
+        int index = nextPositionIndex();
+        return canvas.findWidgetAt(positions[index], positions[index + 1]);
+    }
+
+    @Benchmark
+    public void dispatchMouseMove() {
+        int index = nextPositionIndex();
+        inputSource.moveMouse(positions[index], positions[index + 1]);
+        canvas.update(1 / 60f);
+    }
+
+    @Benchmark
+    public void dispatchClick() {
+        int index = nextPositionIndex();
+        inputSource.moveMouse(positions[index], positions[index + 1]);
+        inputSource.clickMouse(KrMouseEvent.Button.LEFT);
+        canvas.update(1 / 60f);
+    }
+
+    private int nextPositionIndex() {
+        positionIndex = (positionIndex + 1) % POSITION_COUNT;
+        return positionIndex * 2;
+    }
+}
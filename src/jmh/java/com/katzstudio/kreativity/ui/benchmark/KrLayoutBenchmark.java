@@ -0,0 +1,52 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a whole widget tree. The root is resized before every validation, so every panel of
+ * the tree is laid out again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KrLayoutBenchmark {
+
+    @Param({"BORDER", "GRID"})
+    public KrBenchmarks.LayoutType layoutType;
+
+    @Param({"2", "4", "6"})
+    public int depth;
+
+    @Param({"4"})
+    public int breadth;
+
+    private KrPanel root;
+
+    private boolean isWide;
+
+    @Setup
+    public void setUp() {
+        KrBenchmarks.initializeToolkit();
+        root = KrBenchmarks.createTree(layoutType, depth, breadth);
+        root.setSize(KrBenchmarks.SCREEN_WIDTH, KrBenchmarks.SCREEN_HEIGHT);
+        root.validate();
+    }
+
+    @Benchmark
+    public KrPanel validate() {
+        isWide = !isWide;
+        root.setSize(isWide ? KrBenchmarks.SCREEN_WIDTH : KrBenchmarks.SCREEN_WIDTH - 100, KrBenchmarks.SCREEN_HEIGHT);
+        root.validate();
+        return root;
+    }
+}
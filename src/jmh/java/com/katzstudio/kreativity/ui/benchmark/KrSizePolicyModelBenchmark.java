@@ -0,0 +1,45 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.katzstudio.kreativity.ui.KrSizePolicyModel;
+import com.katzstudio.kreativity.ui.KrUnifiedSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the distribution of space between the columns of a grid layout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KrSizePolicyModelBenchmark {
+
+    @Param({"4", "16", "64"})
+    public int count;
+
+    private KrSizePolicyModel model;
+
+    private int[] intSizes;
+
+    @Setup
+    public void setUp() {
+        KrUnifiedSize[] sizes = new KrUnifiedSize[count];
+        for (int i = 0; i < count; ++i) {
+            sizes[i] = i % 2 == 0 ? KrUnifiedSize.absolute(20) : KrUnifiedSize.relative(1);
+        }
+        model = new KrSizePolicyModel(sizes);
+        intSizes = new int[count];
+    }
+
+    @Benchmark
+    public int[] getIntSizes() {
+        return model.getIntSizes(1000, intSizes);
+    }
+}
@@ -0,0 +1,54 @@
+package com.katzstudio.kreativity.ui.benchmark;
+
+import com.katzstudio.kreativity.ui.component.KrTextDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the edits made while typing in a text document: inserting a character in the middle of the text, and
+ * deleting it, so the length of the document stays the same.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class KrTextDocumentBenchmark {
+
+    @Param({"16", "256", "4096"})
+    public int length;
+
+    private KrTextDocument document;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            text.append((char) ('a' + i % 26));
+        }
+
+        document = new KrTextDocument();
+        document.setText(text.toString());
+        document.setCaretPosition(length / 2);
+    }
+
+    @Benchmark
+    public String insertAndDelete() {
+        document.insertText("x");
+        document.deleteCharBeforeCaret();
+        return document.getText();
+    }
+
+    @Benchmark
+    public String replaceSelection() {
+        document.setSelection(length / 2 - 1, length / 2);
+        document.insertText("x");
+        return document.getText();
+    }
+}
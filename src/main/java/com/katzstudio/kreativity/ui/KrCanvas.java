@@ -1,12 +1,12 @@
 package com.katzstudio.kreativity.ui;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
 import com.katzstudio.kreativity.ui.component.KrPanel;
 import com.katzstudio.kreativity.ui.component.KrWidget;
 import com.katzstudio.kreativity.ui.event.*;
+import com.katzstudio.kreativity.ui.profiler.KrProfiler;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 import lombok.Getter;
 
@@ -15,6 +15,7 @@ import java.util.List;
 
 import static com.badlogic.gdx.Input.Keys.TAB;
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Phase.*;
 
 /**
  * Top level container for UI elements. Delegates input events to top level components.
@@ -49,7 +50,15 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     private KrInputSource input;
 
-    private ArrayList<KrWidget> widgets = new ArrayList<>();
+    @Getter private final KrUpdateScheduler updateScheduler = new KrUpdateScheduler();
+
+    @Getter private final KrDirtyRegions dirtyRegions = new KrDirtyRegions();
+
+    @Getter private boolean isPartialRepaintEnabled;
+
+    private KrWidget lastHitWidget;
+
+    private boolean isLastHitCacheValid;
 
     KrCanvas(KrInputSource input, KrRenderer renderer, float width, float height) {
 
@@ -78,13 +87,6 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
         cursorManager = new KrCursorManager(this);
 
-        rootPanel.addWidgetListener(new KrWidget.KrWidgetListener.KrAbstractWidgetListener() {
-            @Override
-            public void invalidated() {
-                focusManager.refresh();
-            }
-        });
-
         setSize(width, height);
 
         input.addEventListener(this);
@@ -102,44 +104,122 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         rootPanel.setSize(width, height);
         overlayPanel.setSize(width, height);
         renderer.setViewportSize(width, height);
+        dirtyRegions.setBounds(width, height);
+        dirtyRegions.addAll();
+    }
+
+    /**
+     * Enables or disables partial repainting. When enabled, the UI is rendered into a back buffer
+     * that persists between frames, and only the regions of the canvas that changed since the
+     * last frame are repainted. Partial repainting is only enabled if the renderer supports it.
+     *
+     * @param enabled whether or not partial repainting should be enabled
+     * @return true if partial repainting is enabled after the call
+     */
+    public boolean setPartialRepaintEnabled(boolean enabled) {
+        isPartialRepaintEnabled = renderer.setBackBufferEnabled(enabled);
+        dirtyRegions.addAll();
+        return isPartialRepaintEnabled;
     }
 
     /**
-     * Call every frame to allow components to update themselves.
+     * Marks a region of the canvas as dirty, requesting it to be repainted on the next frame.
+     *
+     * @param x      the x coordinate of the region, in screen space
+     * @param y      the y coordinate of the region, in screen space
+     * @param width  the width of the region
+     * @param height the height of the region
+     */
+    public void repaint(float x, float y, float width, float height) {
+        dirtyRegions.add(x, y, width, height);
+    }
+
+    /**
+     * Requests the whole canvas to be repainted on the next frame.
+     */
+    public void repaint() {
+        dirtyRegions.addAll();
+    }
+
+    /**
+     * Returns true if parts of the canvas changed since the last frame was drawn.
+     */
+    public boolean isRepaintRequested() {
+        return !dirtyRegions.isEmpty();
+    }
+
+    /**
+     * Returns true if the canvas needs to be updated on the next frame: input is waiting to be
+     * dispatched, widgets are waiting to be validated, or parts of the canvas need repainting.
+     * Widgets that enabled per-frame updates don't keep the canvas busy: they are updated whenever
+     * the canvas is, and must request a repaint when their appearance changes.
+     */
+    public boolean isUpdateRequested() {
+        return input.hasQueuedEvents() || updateScheduler.getPendingValidationCount() > 0 || isRepaintRequested();
+    }
+
+    /**
+     * Call every frame to allow components to update themselves. The input received since the last
+     * frame is dispatched first. Only the widgets that enabled per-frame updates are updated, and only
+     * the invalid widgets are validated.
      *
      * @param deltaSeconds the time, in seconds, since the last update
+     * @see KrWidget#setUpdatesEnabled(boolean)
      */
     public void update(float deltaSeconds) {
-        widgets.clear();
-        widgets.add(rootPanel);
-        widgets.add(overlayPanel);
-        widgets.add(tooltipPanel);
-        int index = 0;
-        while (index < widgets.size()) {
-            KrWidget widget = widgets.get(index);
-            widget.update(deltaSeconds);
-            for (int i = 0; i < widget.getChildCount(); ++i) {
-                widgets.add(widget.getChild(i));
-            }
-            index += 1;
-        }
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+
+        profiler.beginPhase(INPUT);
+        input.dispatchQueuedEvents();
+        profiler.endPhase(INPUT);
+
+        profiler.beginPhase(UPDATE);
+        updateScheduler.updateTickingWidgets(deltaSeconds);
+        profiler.endPhase(UPDATE);
+
+        profiler.beginPhase(VALIDATION);
+        updateScheduler.validate();
+        profiler.endPhase(VALIDATION);
 
+        profiler.beginPhase(UPDATE);
         tooltipManager.update(deltaSeconds);
+        profiler.endPhase(UPDATE);
     }
 
     /**
-     * Draws the UI.
+     * Draws the UI. If partial repainting is enabled, only the dirty regions of the canvas are repainted.
      */
     public void draw() {
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+        profiler.beginPhase(DRAW);
+
         renderer.beginFrame();
         renderer.setFont(getDefaultToolkit().getSkin().getDefaultFont());
         renderer.setPen(1, getDefaultToolkit().getSkin().getColor(KrSkin.ColorKey.FOREGROUND));
 
+        if (isPartialRepaintEnabled) {
+            for (int i = 0; i < dirtyRegions.getSize(); ++i) {
+                Rectangle region = dirtyRegions.get(i);
+                if (renderer.beginClip(region)) {
+                    renderer.clearRect(region.x, region.y, region.width, region.height);
+                    drawPanels();
+                    renderer.endClip();
+                }
+            }
+        } else {
+            drawPanels();
+        }
+
+        dirtyRegions.clear();
+        renderer.endFrame();
+
+        profiler.endPhase(DRAW);
+    }
+
+    private void drawPanels() {
         rootPanel.draw(renderer);
         overlayPanel.draw(renderer);
         tooltipPanel.draw(renderer);
-
-        renderer.endFrame();
     }
 
 
@@ -149,13 +229,24 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
         if (!input.isDragging() && hoveredWidget != currentlyHoveredWidget) {
             if (currentlyHoveredWidget != null) {
-                dispatchEventWithoutBubbling(currentlyHoveredWidget, new KrExitEvent());
-                dispatchEventWithoutBubbling(hoveredWidget, new KrEnterEvent());
+                KrExitEvent exitEvent = KrExitEvent.obtain();
+                dispatchEventWithoutBubbling(currentlyHoveredWidget, exitEvent);
+                exitEvent.release();
+
+                KrEnterEvent enterEvent = KrEnterEvent.obtain();
+                dispatchEventWithoutBubbling(hoveredWidget, enterEvent);
+                enterEvent.release();
+
+                repaintWidget(currentlyHoveredWidget);
+                repaintWidget(hoveredWidget);
             }
 
             currentlyHoveredWidget = hoveredWidget;
         } else {
             dispatchEvent(currentlyHoveredWidget, event);
+            if (input.isDragging()) {
+                repaintWidget(currentlyHoveredWidget);
+            }
         }
     }
 
@@ -167,16 +258,19 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         }
 
         dispatchEvent(mouseFocusHolder, event);
+        repaintWidget(mouseFocusHolder);
     }
 
     @Override
     public void mouseReleased(KrMouseEvent event) {
         dispatchEvent(mouseFocusHolder, event);
+        repaintWidget(mouseFocusHolder);
     }
 
     @Override
     public void mouseDoubleClicked(KrMouseEvent event) {
         dispatchEvent(mouseFocusHolder, event);
+        repaintWidget(mouseFocusHolder);
     }
 
     @Override
@@ -186,7 +280,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         }
 
         if (event.getKeycode() == TAB && !keyboardFocusHolder.acceptsTabInput()) {
-            if (input.isShiftDown()) {
+            if (event.isShiftDown()) {
                 focusPrevious();
             } else {
                 focusNext();
@@ -196,17 +290,46 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         }
 
         dispatchEvent(keyboardFocusHolder, event);
+        repaintWidget(keyboardFocusHolder);
     }
 
     @Override
     public void keyReleased(KrKeyEvent event) {
         dispatchEvent(keyboardFocusHolder, event);
+        repaintWidget(keyboardFocusHolder);
     }
 
     @Override
     public void scrolledEvent(KrScrollEvent event) {
-        KrWidget destinationWidget = findWidgetAt(Gdx.input.getX(), Gdx.input.getY());
+        KrWidget destinationWidget = findWidgetAt(input.getMousePosition());
         dispatchEvent(destinationWidget, event);
+        repaintWidget(destinationWidget);
+    }
+
+    /**
+     * Mouse events are consumed over any widget but the root panel.
+     */
+    @Override
+    public boolean isConsumingMouseEventAt(float x, float y) {
+        KrWidget widget = findWidgetAt(x, y);
+        return widget != null && widget != rootPanel;
+    }
+
+    /**
+     * Key events are consumed while a widget has the keyboard focus.
+     */
+    @Override
+    public boolean isConsumingKeyEvents() {
+        return keyboardFocusHolder != null;
+    }
+
+    /**
+     * Repaints the target of an input event, as most widgets change their appearance in response to input.
+     */
+    private static void repaintWidget(KrWidget widget) {
+        if (widget != null) {
+            widget.repaint();
+        }
     }
 
     public interface KrInputListener {
@@ -249,12 +372,57 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
     }
 
     public KrWidget findWidgetAt(float x, float y) {
+        if (isLastHitCacheValid && isExclusiveHit(lastHitWidget, x, y)) {
+            return lastHitWidget;
+        }
+
         KrWidget widget = findWidgetAt(overlayPanel, x, y);
-        if (widget != overlayPanel) {
-            return widget;
+        if (widget == overlayPanel) {
+            widget = findWidgetAt(rootPanel, x, y);
         }
 
-        return findWidgetAt(rootPanel, x, y);
+        lastHitWidget = widget;
+        isLastHitCacheValid = true;
+        return widget;
+    }
+
+    /**
+     * Clears the cached result of the last hit test. Widgets call this method whenever they are moved,
+     * resized, shown, hidden, added or removed.
+     */
+    public void invalidateHitTestCache() {
+        isLastHitCacheValid = false;
+        lastHitWidget = null;
+    }
+
+    /**
+     * Checks if the previously hit widget is guaranteed to be the result of a full hit test for the
+     * requested position: the widget is a leaf, every widget on the path from the root panel contains
+     * the position, no sibling along the path overlaps it, and the overlay panel is empty.
+     */
+    private boolean isExclusiveHit(KrWidget widget, float x, float y) {
+        if (widget == null || widget.getChildCount() > 0 || overlayPanel.getChildCount() > 0) {
+            return false;
+        }
+
+        float localX = x - widget.getScreenX();
+        float localY = y - widget.getScreenY();
+
+        KrWidget current = widget;
+        while (current.getParent() != null) {
+            if (!current.isVisible() || localX < 0 || localY < 0 || localX > current.getWidth() || localY > current.getHeight()) {
+                return false;
+            }
+
+            localX += current.getX();
+            localY += current.getY();
+            current = current.getParent();
+            if (current.getChildIndex().hasOverlappingChildren()) {
+                return false;
+            }
+        }
+
+        return current == rootPanel;
     }
 
     public static KrWidget findWidgetAt(KrWidget root, Vector2 screenPosition) {
@@ -263,22 +431,27 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     /**
      * Finds the topmost widget (a leaf in the hierarchy) whose geometry contains the requested screen coordinates.
+     * The hierarchy is descended in local coordinates, using the child index of each widget.
      *
      * @param root the root of the widget hierarchy
-     * @param x    the requested x position relative to the root widget
-     * @param y    the requested y position relative to the root widget
+     * @param x    the requested x position, in screen space
+     * @param y    the requested y position, in screen space
      * @return the topmost widget that contains the requested coordinates
      */
     public static KrWidget findWidgetAt(KrWidget root, float x, float y) {
-        ArrayList<KrWidget> childList = root.getChildren();
-        for (int i = childList.size() - 1; i >= 0; --i) {
-            KrWidget child = childList.get(i);
-            if (getScreenGeometry(child).contains(x, y) && child.isVisible()) {
-                return findWidgetAt(child, x, y);
-            }
+        float localX = x - root.getScreenX();
+        float localY = y - root.getScreenY();
+
+        KrWidget widget = root;
+        KrWidget child = widget.getChildIndex().findChildAt(localX, localY);
+        while (child != null) {
+            localX -= child.getX();
+            localY -= child.getY();
+            widget = child;
+            child = widget.getChildIndex().findChildAt(localX, localY);
         }
 
-        return root;
+        return widget;
     }
 
     public static boolean isAncestor(KrWidget child, KrWidget ancestor) {
@@ -310,15 +483,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
      * @return the screen-space geometry of the queried widget
      */
     public static Rectangle getScreenGeometry(KrWidget widget) {
-        Rectangle widgetGeometry = new Rectangle(widget.getX(), widget.getY(), widget.getWidth(), widget.getHeight());
-
-        while (widget.getParent() != null) {
-            widget = widget.getParent();
-            widgetGeometry.setX(widget.getX() + widgetGeometry.x);
-            widgetGeometry.setY(widget.getY() + widgetGeometry.y);
-        }
-
-        return widgetGeometry;
+        return widget.getScreenGeometry(new Rectangle());
     }
 
     /**
@@ -329,8 +494,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
      * @return the point's position in screen space
      */
     public static Vector2 convertPointToScreen(Vector2 point, KrWidget widget) {
-        Rectangle widgetGeometry = getScreenGeometry(widget);
-        return widgetGeometry.getPosition(new Vector2()).add(point);
+        return widget.localToScreen(point.x, point.y, new Vector2());
     }
 
     public boolean clearFocus() {
@@ -354,6 +518,8 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
                 dispatchEventWithoutBubbling(widget, new KrFocusEvent(KrFocusEvent.Type.FOCUS_GAINED, oldFocusHolder, newFocusHolder));
             }
             keyboardFocusHolder = widget;
+            repaintWidget(oldFocusHolder);
+            repaintWidget(newFocusHolder);
             return true;
         }
 
@@ -376,7 +542,10 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         listeners.remove(listener);
     }
 
+    @SuppressWarnings("ForLoopReplaceableByForEach")
     protected void notifyEventDispatched(KrWidget widget, KrEvent event) {
-        listeners.forEach(l -> l.eventDispatched(widget, event));
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).eventDispatched(widget, event);
+        }
     }
 }
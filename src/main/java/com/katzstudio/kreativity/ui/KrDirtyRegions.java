@@ -0,0 +1,162 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.math.Rectangle;
+import lombok.Getter;
+
+/**
+ * Keeps track of the screen space regions that need to be repainted.
+ * <p>
+ * Regions are snapped to whole pixels and clamped to the bounds of the canvas. Overlapping
+ * and touching regions are merged as they are added, and the number of distinct regions is
+ * capped at {@link #MAX_REGIONS}: once the cap is reached, new regions are merged into the
+ * region that grows the least.
+ */
+public class KrDirtyRegions {
+
+    public static final int MAX_REGIONS = 8;
+
+    private final Rectangle[] regions = new Rectangle[MAX_REGIONS];
+
+    @Getter private int size;
+
+    private float boundsWidth;
+
+    private float boundsHeight;
+
+    public KrDirtyRegions() {
+        for (int i = 0; i < MAX_REGIONS; ++i) {
+            regions[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Sets the size of the area covered by the dirty regions. Regions are clamped to these bounds.
+     */
+    public void setBounds(float width, float height) {
+        this.boundsWidth = width;
+        this.boundsHeight = height;
+    }
+
+    /**
+     * Marks the whole area as dirty.
+     */
+    public void addAll() {
+        size = 1;
+        regions[0].set(0, 0, boundsWidth, boundsHeight);
+    }
+
+    /**
+     * Marks a region as dirty.
+     *
+     * @param x      the x coordinate of the region, in screen space
+     * @param y      the y coordinate of the region, in screen space
+     * @param width  the width of the region
+     * @param height the height of the region
+     */
+    public void add(float x, float y, float width, float height) {
+        float x1 = Math.max(0, (float) Math.floor(x));
+        float y1 = Math.max(0, (float) Math.floor(y));
+        float x2 = Math.min(boundsWidth, (float) Math.ceil(x + width));
+        float y2 = Math.min(boundsHeight, (float) Math.ceil(y + height));
+
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+
+        // merge with any region that touches the new one, or that can be merged without repainting
+        // extra pixels, repeating until the merged region no longer grows
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < size; ++i) {
+                Rectangle region = regions[i];
+                if (touches(region, x1, y1, x2, y2) || unionArea(region, x1, y1, x2, y2) <= area(region) + (x2 - x1) * (y2 - y1)) {
+                    x1 = Math.min(x1, region.x);
+                    y1 = Math.min(y1, region.y);
+                    x2 = Math.max(x2, region.x + region.width);
+                    y2 = Math.max(y2, region.y + region.height);
+                    removeRegion(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+
+        if (size < MAX_REGIONS) {
+            regions[size++].set(x1, y1, x2 - x1, y2 - y1);
+            return;
+        }
+
+        int bestIndex = 0;
+        float bestGrowth = Float.MAX_VALUE;
+        for (int i = 0; i < size; ++i) {
+            float growth = unionArea(regions[i], x1, y1, x2, y2) - area(regions[i]);
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                bestIndex = i;
+            }
+        }
+
+        Rectangle region = regions[bestIndex];
+        removeRegion(bestIndex);
+        add(Math.min(x1, region.x), Math.min(y1, region.y),
+                Math.max(x2, region.x + region.width) - Math.min(x1, region.x),
+                Math.max(y2, region.y + region.height) - Math.min(y1, region.y));
+    }
+
+    /**
+     * Returns the dirty region at the specified index.
+     */
+    public Rectangle get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return regions[index];
+    }
+
+    /**
+     * Returns true if there are no dirty regions.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the total area covered by the dirty regions, in pixels.
+     */
+    public float getArea() {
+        float area = 0;
+        for (int i = 0; i < size; ++i) {
+            area += area(regions[i]);
+        }
+        return area;
+    }
+
+    /**
+     * Removes all dirty regions.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    private void removeRegion(int index) {
+        Rectangle removed = regions[index];
+        regions[index] = regions[size - 1];
+        regions[size - 1] = removed;
+        size -= 1;
+    }
+
+    private static float area(Rectangle rectangle) {
+        return rectangle.width * rectangle.height;
+    }
+
+    private static boolean touches(Rectangle rectangle, float x1, float y1, float x2, float y2) {
+        return x1 <= rectangle.x + rectangle.width && x2 >= rectangle.x && y1 <= rectangle.y + rectangle.height && y2 >= rectangle.y;
+    }
+
+    private static float unionArea(Rectangle rectangle, float x1, float y1, float x2, float y2) {
+        float width = Math.max(x2, rectangle.x + rectangle.width) - Math.min(x1, rectangle.x);
+        float height = Math.max(y2, rectangle.y + rectangle.height) - Math.min(y1, rectangle.y);
+        return width * height;
+    }
+}
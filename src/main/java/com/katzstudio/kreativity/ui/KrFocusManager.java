@@ -2,47 +2,272 @@ package com.katzstudio.kreativity.ui;
 
 import com.katzstudio.kreativity.ui.component.KrWidget;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * The {@link KrFocusManager} class takes care of switching the focus between widgets.
+ * <p>
+ * The focusable widgets of the tree are kept in a circular linked list, in the order in which they
+ * appear in a depth-first traversal of the tree. The list is updated incrementally as widgets are
+ * added, removed or change their focusable property, so moving the focus to the next or previous
+ * widget takes constant time.
+ * <p>
+ * The number of focusable widgets of each subtree is kept as well, so finding the place of an added
+ * widget skips the subtrees without focusable widgets instead of walking them.
  */
 public class KrFocusManager {
 
     private final KrWidget rootWidget;
 
-    private final List<KrWidget> orderedFocusableWidgets = new LinkedList<>();
+    private final Map<KrWidget, Node> nodes = new IdentityHashMap<>();
+
+    /**
+     * The number of focusable widgets in the subtree of each widget. Widgets without any are left out.
+     */
+    private final Map<KrWidget, Integer> subtreeCounts = new IdentityHashMap<>();
+
+    private Node head;
 
     public KrFocusManager(KrWidget rootWidget) {
         this.rootWidget = rootWidget;
         refresh();
     }
 
+    /**
+     * Rebuilds the focus order from scratch.
+     */
     public void refresh() {
-        orderedFocusableWidgets.clear();
-        Queue<KrWidget> toProcess = new LinkedList<>();
-        toProcess.add(rootWidget);
-
-        while (!toProcess.isEmpty()) {
-            KrWidget widget = toProcess.poll();
-            if (widget.isFocusable()) {
-                orderedFocusableWidgets.add(widget);
+        nodes.clear();
+        subtreeCounts.clear();
+        head = null;
+        insertSubtree(rootWidget, null);
+    }
+
+    /**
+     * Adds the focusable widgets of a subtree that was attached to the tree.
+     *
+     * @param widget the root of the attached subtree
+     */
+    public void widgetAdded(KrWidget widget) {
+        if (isManaged(widget)) {
+            insertSubtree(widget, findPredecessor(widget));
+        }
+    }
+
+    /**
+     * Removes the focusable widgets of a subtree that is about to be detached from the tree.
+     *
+     * @param widget the root of the detached subtree
+     */
+    public void widgetRemoved(KrWidget widget) {
+        int count = getSubtreeCount(widget);
+        if (count > 0) {
+            updateSubtreeCounts(widget.getParent(), -count);
+            removeSubtree(widget);
+        }
+    }
+
+    private void removeSubtree(KrWidget widget) {
+        if (subtreeCounts.remove(widget) == null) {
+            return;
+        }
+
+        unlink(nodes.remove(widget));
+
+        ArrayList<KrWidget> children = widget.getChildren();
+        for (int i = 0; i < children.size(); ++i) {
+            removeSubtree(children.get(i));
+        }
+    }
+
+    /**
+     * Adds or removes a widget from the focus order, after its focusable property changed.
+     */
+    public void focusableChanged(KrWidget widget) {
+        if (!widget.isFocusable()) {
+            Node node = nodes.remove(widget);
+            if (node != null) {
+                unlink(node);
+                updateSubtreeCounts(widget, -1);
             }
-            toProcess.addAll(widget.getChildren());
+        } else if (!nodes.containsKey(widget) && isManaged(widget)) {
+            insertAfter(findPredecessor(widget), widget);
         }
     }
 
+    /**
+     * Returns the number of focusable widgets.
+     */
+    public int getFocusableCount() {
+        return nodes.size();
+    }
+
     public KrWidget nextFocusable(KrWidget currentlyFocused) {
-        int focusHolderIndex = orderedFocusableWidgets.indexOf(currentlyFocused);
-        int nextFocusHolderIndex = (focusHolderIndex + 1) % orderedFocusableWidgets.size();
-        return orderedFocusableWidgets.get(nextFocusHolderIndex);
+        if (head == null) {
+            return currentlyFocused;
+        }
+
+        Node node = nodes.get(currentlyFocused);
+        return node != null ? node.next.widget : head.widget;
     }
 
     public KrWidget previousFocusable(KrWidget currentlyFocused) {
-        int focusHolderIndex = orderedFocusableWidgets.indexOf(currentlyFocused);
-        int previousIndex = (orderedFocusableWidgets.size() + focusHolderIndex - 1) % orderedFocusableWidgets.size();
-        return orderedFocusableWidgets.get(previousIndex);
+        if (head == null) {
+            return currentlyFocused;
+        }
+
+        Node node = nodes.get(currentlyFocused);
+        return node != null ? node.previous.widget : head.previous.widget;
+    }
+
+    private boolean isManaged(KrWidget widget) {
+        KrWidget ancestor = widget;
+        while (ancestor != null && ancestor != rootWidget) {
+            ancestor = ancestor.getParent();
+        }
+        return ancestor != null;
+    }
+
+    /**
+     * Inserts the focusable widgets of a subtree, in depth-first order, after the specified node.
+     *
+     * @return the last inserted node, or {@code predecessor} if the subtree has no focusable widgets
+     */
+    private Node insertSubtree(KrWidget widget, Node predecessor) {
+        Node last = predecessor;
+        if (widget.isFocusable()) {
+            last = insertAfter(last, widget);
+        }
+
+        ArrayList<KrWidget> children = widget.getChildren();
+        for (int i = 0; i < children.size(); ++i) {
+            last = insertSubtree(children.get(i), last);
+        }
+        return last;
+    }
+
+    /**
+     * Finds the node of the focusable widget that precedes a widget in depth-first order, or returns
+     * {@code null} if there is none.
+     */
+    private Node findPredecessor(KrWidget widget) {
+        for (KrWidget child = widget; child != rootWidget && child.getParent() != null; child = child.getParent()) {
+            KrWidget parent = child.getParent();
+            if (getSubtreeCount(parent) == 0) {
+                continue;
+            }
+
+            ArrayList<KrWidget> siblings = parent.getChildren();
+            for (int i = siblings.indexOf(child) - 1; i >= 0; --i) {
+                Node node = findLastNode(siblings.get(i));
+                if (node != null) {
+                    return node;
+                }
+            }
+
+            Node parentNode = nodes.get(parent);
+            if (parentNode != null) {
+                return parentNode;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node of the last focusable widget of a subtree, in depth-first order. Only the
+     * subtrees that contain focusable widgets are descended.
+     */
+    private Node findLastNode(KrWidget widget) {
+        if (getSubtreeCount(widget) == 0) {
+            return null;
+        }
+
+        ArrayList<KrWidget> children = widget.getChildren();
+        for (int i = children.size() - 1; i >= 0; --i) {
+            Node node = findLastNode(children.get(i));
+            if (node != null) {
+                return node;
+            }
+        }
+        return nodes.get(widget);
+    }
+
+    /**
+     * Inserts a widget after the specified node. A {@code null} predecessor inserts the widget
+     * at the start of the focus order.
+     */
+    private Node insertAfter(Node predecessor, KrWidget widget) {
+        Node node = new Node(widget);
+        nodes.put(widget, node);
+        updateSubtreeCounts(widget, 1);
+
+        if (head == null) {
+            node.previous = node;
+            node.next = node;
+            head = node;
+            return node;
+        }
+
+        Node previous = predecessor != null ? predecessor : head.previous;
+        node.previous = previous;
+        node.next = previous.next;
+        previous.next.previous = node;
+        previous.next = node;
+
+        if (predecessor == null) {
+            head = node;
+        }
+        return node;
+    }
+
+    private int getSubtreeCount(KrWidget widget) {
+        Integer count = subtreeCounts.get(widget);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Adds a number of focusable widgets to the counts of a widget and its ancestors, up to the root widget.
+     */
+    private void updateSubtreeCounts(KrWidget widget, int delta) {
+        for (KrWidget ancestor = widget; ancestor != null; ancestor = ancestor != rootWidget ? ancestor.getParent() : null) {
+            int count = getSubtreeCount(ancestor) + delta;
+            if (count > 0) {
+                subtreeCounts.put(ancestor, count);
+            } else {
+                subtreeCounts.remove(ancestor);
+            }
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node == null) {
+            return;
+        }
+
+        if (node.next == node) {
+            head = null;
+            return;
+        }
+
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        if (head == node) {
+            head = node.next;
+        }
+    }
+
+    private static class Node {
+
+        private final KrWidget widget;
+
+        private Node previous;
+
+        private Node next;
+
+        Node(KrWidget widget) {
+            this.widget = widget;
+        }
     }
 }
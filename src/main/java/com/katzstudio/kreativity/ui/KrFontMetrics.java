@@ -21,5 +21,5 @@ public abstract class KrFontMetrics {
         return bounds(font, text, 0, text.length(), bounds);
     }
 
-    public abstract Rectangle bounds(BitmapFont font, String text, int from, int to, Rectangle bounds);
+    public abstract Rectangle bounds(BitmapFont font, String text, int from, int count, Rectangle bounds);
 }
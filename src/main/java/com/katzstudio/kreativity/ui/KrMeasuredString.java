@@ -1,6 +1,7 @@
 package com.katzstudio.kreativity.ui;
 
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.math.Rectangle;
 import lombok.Getter;
 
@@ -8,6 +9,9 @@ import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 
 /**
  * {@link String} wrapper that caches font metrics.
+ * <p>
+ * It also caches the glyph vertices of the string, laid out at the origin, so renderers can draw the string
+ * without laying it out again every frame.
  */
 public class KrMeasuredString {
 
@@ -15,7 +19,11 @@ public class KrMeasuredString {
 
     @Getter private BitmapFont font;
 
-    private Rectangle bounds;
+    private final Rectangle bounds = new Rectangle();
+
+    private BitmapFontCache glyphCache;
+
+    private boolean isGlyphCacheValid;
 
     public KrMeasuredString() {
         this("", getDefaultToolkit().getSkin().getDefaultFont());
@@ -34,6 +42,7 @@ public class KrMeasuredString {
     public void setString(String string) {
         if (!this.string.equals(string)) {
             this.string = string;
+            isGlyphCacheValid = false;
             updateBounds();
         }
     }
@@ -41,6 +50,7 @@ public class KrMeasuredString {
     public void setFont(BitmapFont font) {
         if (!this.font.equals(font)) {
             this.font = font;
+            isGlyphCacheValid = false;
             updateBounds();
         }
     }
@@ -54,9 +64,26 @@ public class KrMeasuredString {
         return bounds;
     }
 
+    /**
+     * Returns the glyph vertices of the string, with the baseline of the first line at the origin. The vertices
+     * are laid out again only after the string or the font changed.
+     */
+    public BitmapFontCache getGlyphCache() {
+        if (glyphCache == null || glyphCache.getFont() != font) {
+            glyphCache = new BitmapFontCache(font, font.usesIntegerPositions());
+            isGlyphCacheValid = false;
+        }
+
+        if (!isGlyphCacheValid) {
+            glyphCache.setText(string, 0, 0);
+            isGlyphCacheValid = true;
+        }
+        return glyphCache;
+    }
+
     private void updateBounds() {
         if (string.isEmpty()) {
-            bounds = new Rectangle(0, 0, 0, 0);
+            bounds.set(0, 0, 0, 0);
             return;
         }
         getDefaultToolkit().fontMetrics().bounds(font, string, bounds);
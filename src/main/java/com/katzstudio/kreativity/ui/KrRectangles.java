@@ -154,15 +154,20 @@ public class KrRectangles {
         } else {
             value.set(x, y, w, h);
         }
+        Pools.free(this);
         return value;
     }
 
     public Vector2 size() {
-        return new Vector2(w, h);
+        Vector2 size = new Vector2(w, h);
+        Pools.free(this);
+        return size;
     }
 
     public Vector2 size(Vector2 size) {
-        return size.set(w, h);
+        size.set(w, h);
+        Pools.free(this);
+        return size;
     }
 
     private static class Segment extends KrPair<Float, Float> {
@@ -3,7 +3,6 @@ package com.katzstudio.kreativity.ui;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -13,6 +12,11 @@ public class KrSizePolicyModel {
 
     private final List<KrUnifiedSize> sizePolicies = new ArrayList<>();
 
+    /**
+     * The sizes computed by {@link #computeSizes(float)}, reused so computing the sizes doesn't allocate.
+     */
+    private float[] sizes = new float[0];
+
     public KrSizePolicyModel(int count) {
         for (int i = 0; i < count; ++i) {
             sizePolicies.add(new KrUnifiedSize(0, 1));
@@ -36,38 +40,66 @@ public class KrSizePolicyModel {
     }
 
     public List<Float> getSizes(float availableSpace) {
-        float absoluteRequested = stream()
-                .map(KrUnifiedSize::getAbsolute)
-                .map(KrSizePolicyModel::nonNegative)
-                .reduce(0.0f, (a, b) -> a + b);
-
-        float relativeRequested = stream()
-                .map(KrUnifiedSize::getRelative)
-                .map(KrSizePolicyModel::nonNegative)
-                .reduce(0.0f, Float::sum);
-
-        final float totalSpaceAvailable = (availableSpace < absoluteRequested) ? (relativeRequested > 0 ? absoluteRequested * 2 : absoluteRequested) : availableSpace;
-        float totalRelativeAvailable = totalSpaceAvailable - absoluteRequested;
-        final float relativeUnit = relativeRequested != 0 ? totalRelativeAvailable / relativeRequested : 0;
-
-        return stream()
-                .map(size -> (nonNegative(size.getAbsolute()) + nonNegative(size.getRelative()) * relativeUnit) * availableSpace / totalSpaceAvailable)
-                .collect(Collectors.toList());
+        float[] sizes = computeSizes(availableSpace);
+        List<Float> boxedSizes = new ArrayList<>(getCount());
+        for (int i = 0; i < getCount(); ++i) {
+            boxedSizes.add(sizes[i]);
+        }
+        return boxedSizes;
     }
 
     public List<Integer> getIntSizes(float availableSpace) {
-        List<Float> accurateSizes = getSizes(availableSpace);
+        int[] sizes = getIntSizes(availableSpace, new int[getCount()]);
+        List<Integer> intSizes = new ArrayList<>(sizes.length);
+        for (int size : sizes) {
+            intSizes.add(size);
+        }
+        return intSizes;
+    }
+
+    /**
+     * Computes the sizes rounded down to integers into the given array, which must hold at least {@link #getCount()}
+     * elements. The last size takes the remaining space, so the sizes add up to the available space. Doesn't
+     * allocate, so it can be called every frame.
+     */
+    public int[] getIntSizes(float availableSpace, int[] intSizes) {
+        float[] sizes = computeSizes(availableSpace);
 
         int totalUsedSize = 0;
-        for (int i = 0; i < accurateSizes.size(); ++i) {
-            double value = accurateSizes.get(i);
-            int floor = (int) Math.floor(value);
-            totalUsedSize += floor;
-            accurateSizes.set(i, (float) floor);
+        for (int i = 0; i < getCount(); ++i) {
+            intSizes[i] = (int) Math.floor(sizes[i]);
+            totalUsedSize += intSizes[i];
+        }
+
+        int lastElementIndex = getCount() - 1;
+        intSizes[lastElementIndex] = (int) (intSizes[lastElementIndex] + availableSpace - totalUsedSize);
+        return intSizes;
+    }
+
+    /**
+     * Computes the sizes into {@link #sizes}, and returns it. Only the first {@link #getCount()} elements are set.
+     */
+    private float[] computeSizes(float availableSpace) {
+        int count = sizePolicies.size();
+        if (sizes.length < count) {
+            sizes = new float[count];
+        }
+
+        float absoluteRequested = 0;
+        float relativeRequested = 0;
+        for (int i = 0; i < count; ++i) {
+            absoluteRequested += nonNegative(sizePolicies.get(i).getAbsolute());
+            relativeRequested += nonNegative(sizePolicies.get(i).getRelative());
+        }
+
+        float totalSpaceAvailable = (availableSpace < absoluteRequested) ? (relativeRequested > 0 ? absoluteRequested * 2 : absoluteRequested) : availableSpace;
+        float relativeUnit = relativeRequested != 0 ? (totalSpaceAvailable - absoluteRequested) / relativeRequested : 0;
+
+        for (int i = 0; i < count; ++i) {
+            KrUnifiedSize size = sizePolicies.get(i);
+            sizes[i] = (nonNegative(size.getAbsolute()) + nonNegative(size.getRelative()) * relativeUnit) * availableSpace / totalSpaceAvailable;
         }
-        int lastElementIndex = accurateSizes.size() - 1;
-        accurateSizes.set(lastElementIndex, accurateSizes.get(lastElementIndex) + availableSpace - totalUsedSize);
-        return accurateSizes.stream().map(Float::intValue).collect(Collectors.toList());
+        return sizes;
     }
 
     private static float nonNegative(float value) {
@@ -67,10 +67,23 @@ public class KrSkin {
 
     @Getter private Texture skinTexture;
 
+    /**
+     * A region that samples a single opaque white texel of the skin texture. Tinted quads drawn with this
+     * region render solid colors without switching away from the skin texture.
+     */
+    @Getter private TextureRegion whiteTexel;
+
     KrSkin(KrToolkit toolkit) {
         loadDefault(toolkit);
     }
 
+    /**
+     * Creates a skin with the default colors, without loading the skin texture, the fonts and the styles. Used
+     * where there's no GL context, e.g. with the headless backend.
+     */
+    KrSkin() {
+    }
+
     public Drawable getDrawable(String name) {
         return drawablePatches.get(name);
     }
@@ -82,6 +95,12 @@ public class KrSkin {
         String textureName = jsonSkin.get("texture").asString();
         skinTexture = new Texture(Gdx.files.classpath("ui/" + textureName));
 
+        // sample the center of the texel, so stretched quads never bleed into the neighbouring texels
+        JsonValue whiteTexelPosition = jsonSkin.get("white_texel");
+        float texelU = (whiteTexelPosition.get(0).asInt() + 0.5f) / skinTexture.getWidth();
+        float texelV = (whiteTexelPosition.get(1).asInt() + 0.5f) / skinTexture.getHeight();
+        whiteTexel = new TextureRegion(skinTexture, texelU, texelV, texelU, texelV);
+
         String defaultFontPath = jsonSkin.get("fonts").get("default").asString();
         defaultFont = new BitmapFont(Gdx.files.classpath("ui/" + defaultFontPath));
 
@@ -5,13 +5,18 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.katzstudio.kreativity.ui.animation.KrAnimations;
 import com.katzstudio.kreativity.ui.backend.KrBackend;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.profiler.KrProfiler;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
+import com.katzstudio.kreativity.ui.util.KrTimer;
 import com.katzstudio.kreativity.ui.util.KrUpdateListener;
 import lombok.Getter;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Phase.ANIMATIONS;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Phase.TIMERS;
+
 /**
  * The {@link KrToolkit} offers functionality that is global to the UI framework
  * such as changing the cursor, or creating drawables.
@@ -26,10 +31,17 @@ public class KrToolkit {
 
     private final KrAnimations animations;
 
+    /**
+     * Records the timings of the frames, when enabled.
+     */
+    @Getter private final KrProfiler profiler = new KrProfiler();
+
     private KrCanvas canvas;
 
     @Getter private KrSkin skin;
 
+    private boolean isUpdateRequested = true;
+
     public static KrToolkit getDefaultToolkit() {
         return INSTANCE;
     }
@@ -105,14 +117,80 @@ public class KrToolkit {
         updateListeners.remove(updateListener);
     }
 
-    public void update(float deltaSeconds) {
+    /**
+     * Updates the canvas, the update listeners and the animations.
+     * <p>
+     * Applications that don't want to render continuously can disable continuous rendering in libgdx:
+     * this method requests a new frame from the backend as long as the UI is busy, and input events
+     * request frames on their own. Timers need to be updated once {@link #getTimeUntilNextUpdate()} elapses,
+     * and changes made to models from outside the UI must be followed by a call to {@link #requestUpdate()}.
+     *
+     * @param deltaSeconds the time, in seconds, since the last update
+     * @return true if the canvas needs to be drawn
+     */
+    public boolean update(float deltaSeconds) {
+        // requested updates and invalid widgets may change what is drawn without repainting anything
+        boolean isDrawRequested = isUpdateRequested
+                || (canvas != null && canvas.getUpdateScheduler().getPendingValidationCount() > 0);
+        isUpdateRequested = false;
+        profiler.beginFrame();
+
         if (canvas != null) {
             canvas.update(deltaSeconds);
         }
+
+        profiler.beginPhase(TIMERS);
         //noinspection ForLoopReplaceableByForEach
         for (int i = 0; i < updateListeners.size(); ++i) {
             updateListeners.get(i).update(deltaSeconds);
         }
+        profiler.endPhase(TIMERS);
+
+        profiler.beginPhase(ANIMATIONS);
         animations.update(deltaSeconds);
+        profiler.endPhase(ANIMATIONS);
+
+        if (getTimeUntilNextUpdate() == 0) {
+            backend.requestRendering();
+        }
+
+        return isDrawRequested || (canvas != null && canvas.isRepaintRequested()) || animations.isRunning();
+    }
+
+    /**
+     * Requests the UI to be updated and drawn on the next frame.
+     */
+    public void requestUpdate() {
+        isUpdateRequested = true;
+        backend.requestRendering();
+    }
+
+    /**
+     * Returns true if nothing is going on in the UI: there is no pending input, no running animation,
+     * no invalid widget and nothing to repaint. An idle UI doesn't need to be updated until the next
+     * input event, or until the next timer runs.
+     */
+    public boolean isIdle() {
+        return getTimeUntilNextUpdate() > 0;
+    }
+
+    /**
+     * Returns the time, in seconds, until the UI needs to be updated again. Returns 0 if it needs to
+     * be updated on the next frame, and {@link Float#POSITIVE_INFINITY} if it only needs to be updated
+     * when input is received.
+     */
+    public float getTimeUntilNextUpdate() {
+        if (isUpdateRequested || animations.isRunning() || (canvas != null && canvas.isUpdateRequested())) {
+            return 0;
+        }
+
+        float timeUntilNextUpdate = Float.POSITIVE_INFINITY;
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < updateListeners.size(); ++i) {
+            KrUpdateListener listener = updateListeners.get(i);
+            float time = listener instanceof KrTimer ? ((KrTimer) listener).getTimeUntilNextRun() : 0;
+            timeUntilNextUpdate = Math.min(timeUntilNextUpdate, time);
+        }
+        return timeUntilNextUpdate;
     }
 }
@@ -146,6 +146,10 @@ public class KrTooltipManager implements KrUpdateListener {
 
         @Override
         public void setText(String text) {
+            if (getChild(0) == textLabel && text.equals(textLabel.getText())) {
+                return;
+            }
+
             super.setText(text);
             if (!(getChild(0) == textLabel)) {
                 removeAll();
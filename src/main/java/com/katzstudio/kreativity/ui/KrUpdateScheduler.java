@@ -0,0 +1,136 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.profiler.KrProfiler;
+
+import java.util.Arrays;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Sample.VALIDATE;
+
+/**
+ * Schedules the per-frame work of the widgets hosted by a {@link KrCanvas}.
+ * <p>
+ * Widgets that need to be updated every frame (to animate, or to poll a model) opt in via
+ * {@link KrWidget#setUpdatesEnabled(boolean)}. Invalidated widgets are queued for validation
+ * and validated top-down, so parents are laid out before their children. Widgets that are
+ * neither ticking nor invalid cost nothing per frame.
+ */
+public class KrUpdateScheduler {
+
+    /**
+     * Validating a widget can invalidate its children. The queue is drained in passes, and the
+     * number of passes per frame is limited so a widget that keeps invalidating itself can't
+     * stall the frame.
+     */
+    private static final int MAX_VALIDATION_PASSES = 16;
+
+    private final SnapshotArray<KrWidget> tickingWidgets = new SnapshotArray<>(true, 16, KrWidget.class);
+
+    private Array<KrWidget> validationQueue = new Array<>(false, 16, KrWidget.class);
+
+    private Array<KrWidget> validationPass = new Array<>(false, 16, KrWidget.class);
+
+    /**
+     * The sort keys of a validation pass: the depth of each widget in the high bits, and its index in
+     * the pass in the low bits. The depths are computed once per pass, instead of once per comparison.
+     */
+    private long[] depthKeys = new long[16];
+
+    /**
+     * Registers a widget to be updated every frame.
+     */
+    public void addTickingWidget(KrWidget widget) {
+        tickingWidgets.add(widget);
+    }
+
+    /**
+     * Stops updating a widget every frame.
+     */
+    public void removeTickingWidget(KrWidget widget) {
+        tickingWidgets.removeValue(widget, true);
+    }
+
+    /**
+     * Queues a widget to be validated during the next update.
+     */
+    public void scheduleValidation(KrWidget widget) {
+        validationQueue.add(widget);
+    }
+
+    /**
+     * Returns the number of widgets updated every frame.
+     */
+    public int getTickingWidgetCount() {
+        return tickingWidgets.size;
+    }
+
+    /**
+     * Returns the number of widgets waiting to be validated.
+     */
+    public int getPendingValidationCount() {
+        return validationQueue.size;
+    }
+
+    /**
+     * Updates the ticking widgets, then validates the invalid ones.
+     *
+     * @param deltaSeconds the time, in seconds, since the last update
+     */
+    public void update(float deltaSeconds) {
+        updateTickingWidgets(deltaSeconds);
+        validate();
+    }
+
+    /**
+     * Updates the widgets that enabled per-frame updates.
+     *
+     * @param deltaSeconds the time, in seconds, since the last update
+     */
+    public void updateTickingWidgets(float deltaSeconds) {
+        KrWidget[] widgets = tickingWidgets.begin();
+        for (int i = 0, n = tickingWidgets.size; i < n; ++i) {
+            widgets[i].update(deltaSeconds);
+        }
+        tickingWidgets.end();
+    }
+
+    /**
+     * Validates the queued widgets, parents first.
+     */
+    public void validate() {
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+        for (int pass = 0; pass < MAX_VALIDATION_PASSES && validationQueue.size > 0; ++pass) {
+            Array<KrWidget> widgets = validationQueue;
+            validationQueue = validationPass;
+            validationPass = widgets;
+
+            int count = widgets.size;
+            if (depthKeys.length < count) {
+                depthKeys = new long[Math.max(count, depthKeys.length * 2)];
+            }
+            for (int i = 0; i < count; ++i) {
+                depthKeys[i] = (long) getDepth(widgets.get(i)) << 32 | i;
+            }
+            Arrays.sort(depthKeys, 0, count);
+
+            for (int i = 0; i < count; ++i) {
+                KrWidget widget = widgets.get((int) depthKeys[i]);
+                profiler.beginSample();
+                widget.validate();
+                profiler.endSample(widget, VALIDATE);
+            }
+            widgets.clear();
+        }
+    }
+
+    private static int getDepth(KrWidget widget) {
+        int depth = 0;
+        for (KrWidget parent = widget.getParent(); parent != null; parent = parent.getParent()) {
+            depth += 1;
+        }
+        return depth;
+    }
+}
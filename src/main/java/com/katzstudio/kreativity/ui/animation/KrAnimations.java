@@ -25,6 +25,13 @@ public class KrAnimations implements KrUpdateListener {
         runStartCallback(animation);
     }
 
+    /**
+     * Returns true if there are animations that haven't finished yet.
+     */
+    public boolean isRunning() {
+        return !animations.isEmpty();
+    }
+
     @Override
     public void update(float deltaSeconds) {
         if (animations.isEmpty()) {
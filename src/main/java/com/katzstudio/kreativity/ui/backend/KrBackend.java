@@ -31,4 +31,10 @@ public interface KrBackend {
     int getScreenWidth();
 
     int getScreenHeight();
+
+    /**
+     * Requests the host application to render another frame. Backends that always render
+     * continuously can ignore the request.
+     */
+    void requestRendering();
 }
@@ -26,6 +26,17 @@ public interface KrInputSource {
 
     void removeEventListener(KrInputEventListener listener);
 
+    /**
+     * Dispatches the input events received since the last call to the registered listeners.
+     * Called once per frame, from the UI thread, before the widgets are updated.
+     */
+    void dispatchQueuedEvents();
+
+    /**
+     * Returns true if there are input events waiting to be dispatched.
+     */
+    boolean hasQueuedEvents();
+
     interface KrInputEventListener {
         void mouseMoved(KrMouseEvent event);
 
@@ -40,5 +51,20 @@ public interface KrInputSource {
         void keyReleased(KrKeyEvent event);
 
         void scrolledEvent(KrScrollEvent event);
+
+        /**
+         * Returns true if a mouse event at the screen position would be consumed once dispatched. Input sources
+         * that queue events use it to tell the backend right away whether the event is consumed.
+         */
+        default boolean isConsumingMouseEventAt(float x, float y) {
+            return false;
+        }
+
+        /**
+         * Returns true if a key event would be consumed once dispatched.
+         */
+        default boolean isConsumingKeyEvents() {
+            return false;
+        }
     }
 }
@@ -0,0 +1,101 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrCursor;
+import com.katzstudio.kreativity.ui.KrFontMetrics;
+import com.katzstudio.kreativity.ui.backend.KrBackend;
+import com.katzstudio.kreativity.ui.render.KrRecordingRenderer;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A backend that doesn't need a window or a GL context.
+ * <p>
+ * Text is measured from the glyph metrics of the fonts, input is scripted through {@link KrHeadlessInputSource},
+ * the clipboard is kept in memory and the renderer tracks its state without drawing anything. It's meant for
+ * measuring the update, layout and event dispatch cost of widget trees on machines without a GPU.
+ */
+public class KrHeadlessBackend implements KrBackend {
+
+    private static final Drawable EMPTY_DRAWABLE = new BaseDrawable();
+
+    private final KrRenderer renderer;
+
+    private final KrHeadlessFontMetrics fontMetrics;
+
+    private final KrHeadlessInputSource inputSource;
+
+    @Getter @Setter private int screenWidth;
+
+    @Getter @Setter private int screenHeight;
+
+    @Getter private KrCursor cursor;
+
+    private String clipboard = "";
+
+    /**
+     * The number of calls to {@link #requestRendering()}.
+     */
+    @Getter private int renderingRequestCount;
+
+    public KrHeadlessBackend(int screenWidth, int screenHeight) {
+        this(screenWidth, screenHeight, false);
+    }
+
+    /**
+     * @param isRecordingEnabled if true, the renderer is wrapped in a {@link KrRecordingRenderer}, which collects
+     *                           statistics about each frame
+     */
+    public KrHeadlessBackend(int screenWidth, int screenHeight, boolean isRecordingEnabled) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        renderer = isRecordingEnabled ? new KrRecordingRenderer(new KrHeadlessRenderer()) : new KrHeadlessRenderer();
+        fontMetrics = new KrHeadlessFontMetrics();
+        inputSource = new KrHeadlessInputSource();
+        cursor = KrCursor.ARROW;
+    }
+
+    @Override
+    public KrRenderer getRenderer() {
+        return renderer;
+    }
+
+    @Override
+    public KrHeadlessInputSource getInputSource() {
+        return inputSource;
+    }
+
+    @Override
+    public KrFontMetrics getFontMetrics() {
+        return fontMetrics;
+    }
+
+    @Override
+    public void setCursor(KrCursor cursor) {
+        this.cursor = cursor != null ? cursor : KrCursor.ARROW;
+    }
+
+    @Override
+    public void writeToClipboard(String value) {
+        clipboard = value;
+    }
+
+    @Override
+    public String readFromClipboard() {
+        return clipboard;
+    }
+
+    @Override
+    public Drawable createColorDrawable(Color color) {
+        // nothing is ever drawn, so every color can share the same drawable
+        return EMPTY_DRAWABLE;
+    }
+
+    @Override
+    public void requestRendering() {
+        renderingRequestCount += 1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.KrFontMetrics;
+
+/**
+ * {@link KrFontMetrics} implementation that measures text from the glyph advances of the font data, so it doesn't
+ * need the font textures nor a GL context.
+ * <p>
+ * The bounds match the ones of a {@link com.badlogic.gdx.graphics.g2d.GlyphLayout} without wrapping nor markup:
+ * the width is the one of the longest line, from the left edge of its first glyph to the right edge of its last
+ * glyph, and the height spans from the cap height of the first line to the baseline of the last one.
+ */
+public class KrHeadlessFontMetrics extends KrFontMetrics {
+
+    @Override
+    public Rectangle bounds(BitmapFont font, String text, int from, int count, Rectangle bounds) {
+        return bounds(font.getData(), text, from, count, bounds);
+    }
+
+    public Rectangle bounds(BitmapFont.BitmapFontData data, String text, int from, int count, Rectangle bounds) {
+        float width = 0;
+        float lineWidth = 0;
+        int lineCount = 1;
+        BitmapFont.Glyph lastGlyph = null;
+
+        int end = Math.min(text.length(), from + count);
+        for (int i = from; i < end; ++i) {
+            char character = text.charAt(i);
+            if (character == '\n') {
+                width = Math.max(width, lineWidth + lastGlyphWidth(data, lastGlyph));
+                lineWidth = 0;
+                lineCount += 1;
+                lastGlyph = null;
+                continue;
+            }
+
+            BitmapFont.Glyph glyph = data.getGlyph(character);
+            if (glyph == null) {
+                glyph = data.missingGlyph;
+                if (glyph == null) {
+                    continue;
+                }
+            }
+
+            if (lastGlyph == null) {
+                lineWidth = glyph.fixedWidth ? 0 : -glyph.xoffset * data.scaleX - data.padLeft;
+            } else {
+                lineWidth += (lastGlyph.xadvance + lastGlyph.getKerning(character)) * data.scaleX;
+            }
+            lastGlyph = glyph;
+        }
+        width = Math.max(width, lineWidth + lastGlyphWidth(data, lastGlyph));
+
+        bounds.setWidth(width);
+        bounds.setHeight(data.capHeight + (lineCount - 1) * data.lineHeight);
+        return bounds;
+    }
+
+    private static float lastGlyphWidth(BitmapFont.BitmapFontData data, BitmapFont.Glyph glyph) {
+        if (glyph == null) {
+            return 0;
+        }
+        return glyph.fixedWidth ? glyph.xadvance * data.scaleX : (glyph.xoffset + glyph.width) * data.scaleX - data.padRight;
+    }
+}
@@ -0,0 +1,273 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.event.KrEvent;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+
+import java.util.ArrayList;
+
+/**
+ * {@link KrInputSource} implementation driven by a script instead of a device.
+ * <p>
+ * The scripting methods ({@link #moveMouse(float, float)}, {@link #pressKey(int)}, etc.) queue events, which are
+ * dispatched to the listeners by {@link #dispatchQueuedEvents()}, like the events of a real input source. The
+ * modifier keys are tracked from the scripted key presses and releases.
+ */
+@SuppressWarnings("ForLoopReplaceableByForEach")
+public class KrHeadlessInputSource implements KrInputSource {
+
+    private final ArrayList<KrInputEventListener> listeners = new ArrayList<>();
+
+    private Array<KrEvent> eventQueue = new Array<>(true, 16, KrEvent.class);
+
+    private Array<KrEvent> dispatchedEvents = new Array<>(true, 16, KrEvent.class);
+
+    // state of the input, as scripted
+
+    private boolean isAltPressed;
+
+    private boolean isCtrlPressed;
+
+    private boolean isShiftPressed;
+
+    private final Vector2 pointerPosition = new Vector2();
+
+    // state of the input, as of the last dispatched event
+
+    private boolean isAltDown;
+
+    private boolean isCtrlDown;
+
+    private boolean isShiftDown;
+
+    private boolean isDragging;
+
+    private final Vector2 mousePosition = new Vector2();
+
+    /**
+     * Queues a mouse move to the specified screen position.
+     */
+    public void moveMouse(float x, float y) {
+        enqueueMouseEvent(KrMouseEvent.Type.MOVED, KrMouseEvent.Button.NONE, x, y);
+    }
+
+    /**
+     * Queues a press of a mouse button, at the current pointer position.
+     */
+    public void pressMouse(KrMouseEvent.Button button) {
+        enqueueMouseEvent(KrMouseEvent.Type.PRESSED, button, pointerPosition.x, pointerPosition.y);
+    }
+
+    /**
+     * Queues a release of a mouse button, at the current pointer position.
+     */
+    public void releaseMouse(KrMouseEvent.Button button) {
+        enqueueMouseEvent(KrMouseEvent.Type.RELEASED, button, pointerPosition.x, pointerPosition.y);
+    }
+
+    /**
+     * Queues a press and a release of a mouse button, at the current pointer position.
+     */
+    public void clickMouse(KrMouseEvent.Button button) {
+        pressMouse(button);
+        releaseMouse(button);
+    }
+
+    /**
+     * Queues a double click of a mouse button, at the current pointer position. Like real input sources, the
+     * second press of the double click is reported as a {@link KrMouseEvent.Type#DOUBLE_CLICK} event.
+     */
+    public void doubleClickMouse(KrMouseEvent.Button button) {
+        clickMouse(button);
+        enqueueMouseEvent(KrMouseEvent.Type.DOUBLE_CLICK, button, pointerPosition.x, pointerPosition.y);
+        releaseMouse(button);
+    }
+
+    /**
+     * Queues a key press. Pressing a modifier key (alt, ctrl or shift) sets the modifier on the following events.
+     *
+     * @param keycode the key code, one of {@link Input.Keys}
+     */
+    public void pressKey(int keycode) {
+        isAltPressed = isAltPressed || isAlt(keycode);
+        isCtrlPressed = isCtrlPressed || isCtrl(keycode);
+        isShiftPressed = isShiftPressed || isShift(keycode);
+        enqueueKeyEvent(KrKeyEvent.Type.PRESSED, keycode, "");
+    }
+
+    /**
+     * Queues a key release. Releasing a modifier key clears the modifier on the following events.
+     *
+     * @param keycode the key code, one of {@link Input.Keys}
+     */
+    public void releaseKey(int keycode) {
+        isAltPressed = isAltPressed && !isAlt(keycode);
+        isCtrlPressed = isCtrlPressed && !isCtrl(keycode);
+        isShiftPressed = isShiftPressed && !isShift(keycode);
+        enqueueKeyEvent(KrKeyEvent.Type.RELEASED, keycode, "");
+    }
+
+    /**
+     * Queues a key press carrying a character for each character of the text, like typing it on a keyboard.
+     */
+    public void typeText(String text) {
+        for (int i = 0; i < text.length(); ++i) {
+            char character = text.charAt(i);
+            enqueueKeyEvent(KrKeyEvent.Type.PRESSED, Input.Keys.UNKNOWN, String.valueOf(character));
+        }
+    }
+
+    /**
+     * Queues a scroll event.
+     */
+    public void scroll(float amount) {
+        KrScrollEvent event = KrScrollEvent.obtain(amount);
+        event.setTimestamp(System.nanoTime());
+        eventQueue.add(event);
+    }
+
+    @Override
+    public void dispatchQueuedEvents() {
+        // events queued while dispatching are kept for the next call
+        Array<KrEvent> events = eventQueue;
+        eventQueue = dispatchedEvents;
+        dispatchedEvents = events;
+
+        for (int i = 0; i < events.size; ++i) {
+            KrEvent event = events.get(i);
+            if (event instanceof KrMouseEvent) {
+                dispatchMouseEvent((KrMouseEvent) event);
+            } else if (event instanceof KrKeyEvent) {
+                dispatchKeyEvent((KrKeyEvent) event);
+            } else if (event instanceof KrScrollEvent) {
+                for (int j = 0; j < listeners.size(); ++j) {
+                    listeners.get(j).scrolledEvent((KrScrollEvent) event);
+                }
+            }
+            event.release();
+        }
+        events.clear();
+    }
+
+    @Override
+    public boolean hasQueuedEvents() {
+        return eventQueue.size > 0;
+    }
+
+    /**
+     * Returns the number of events waiting to be dispatched.
+     */
+    public int getQueuedEventCount() {
+        return eventQueue.size;
+    }
+
+    private void dispatchMouseEvent(KrMouseEvent event) {
+        isAltDown = event.isAltDown();
+        isCtrlDown = event.isCtrlDown();
+        isShiftDown = event.isShiftDown();
+        mousePosition.set(event.getScreenPosition());
+        if (event.getType() != KrMouseEvent.Type.MOVED) {
+            isDragging = event.getType() != KrMouseEvent.Type.RELEASED;
+        }
+
+        for (int i = 0; i < listeners.size(); ++i) {
+            KrInputEventListener listener = listeners.get(i);
+            switch (event.getType()) {
+                case MOVED:
+                    listener.mouseMoved(event);
+                    break;
+                case PRESSED:
+                    listener.mousePressed(event);
+                    break;
+                case DOUBLE_CLICK:
+                    listener.mouseDoubleClicked(event);
+                    break;
+                case RELEASED:
+                    listener.mouseReleased(event);
+                    break;
+            }
+        }
+    }
+
+    private void dispatchKeyEvent(KrKeyEvent event) {
+        isAltDown = event.isAltDown();
+        isCtrlDown = event.isCtrlDown();
+        isShiftDown = event.isShiftDown();
+
+        for (int i = 0; i < listeners.size(); ++i) {
+            if (event.getType() == KrKeyEvent.Type.PRESSED) {
+                listeners.get(i).keyPressed(event);
+            } else {
+                listeners.get(i).keyReleased(event);
+            }
+        }
+    }
+
+    private void enqueueMouseEvent(KrMouseEvent.Type type, KrMouseEvent.Button button, float x, float y) {
+        float deltaX = x - pointerPosition.x;
+        float deltaY = y - pointerPosition.y;
+        pointerPosition.set(x, y);
+
+        KrMouseEvent event = KrMouseEvent.obtain(type, button, x, y, deltaX, deltaY, isAltPressed, isCtrlPressed, isShiftPressed);
+        event.setTimestamp(System.nanoTime());
+        eventQueue.add(event);
+    }
+
+    private void enqueueKeyEvent(KrKeyEvent.Type type, int keycode, String value) {
+        KrKeyEvent event = KrKeyEvent.obtain(type, keycode, value, isAltPressed, isCtrlPressed, isShiftPressed);
+        event.setTimestamp(System.nanoTime());
+        eventQueue.add(event);
+    }
+
+    @Override
+    public boolean isAltDown() {
+        return isAltDown;
+    }
+
+    @Override
+    public boolean isCtrlDown() {
+        return isCtrlDown;
+    }
+
+    @Override
+    public boolean isShiftDown() {
+        return isShiftDown;
+    }
+
+    @Override
+    public boolean isDragging() {
+        return isDragging;
+    }
+
+    @Override
+    public Vector2 getMousePosition() {
+        return mousePosition;
+    }
+
+    @Override
+    public void addEventListener(KrInputEventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeEventListener(KrInputEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    private static boolean isAlt(int keycode) {
+        return keycode == Input.Keys.ALT_LEFT || keycode == Input.Keys.ALT_RIGHT;
+    }
+
+    private static boolean isCtrl(int keycode) {
+        return keycode == Input.Keys.CONTROL_LEFT || keycode == Input.Keys.CONTROL_RIGHT;
+    }
+
+    private static boolean isShift(int keycode) {
+        return keycode == Input.Keys.SHIFT_LEFT || keycode == Input.Keys.SHIFT_RIGHT;
+    }
+}
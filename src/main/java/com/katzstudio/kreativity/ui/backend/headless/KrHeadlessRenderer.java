@@ -0,0 +1,279 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.render.KrBrush;
+import com.katzstudio.kreativity.ui.render.KrColorBrush;
+import com.katzstudio.kreativity.ui.render.KrDrawableBrush;
+import com.katzstudio.kreativity.ui.render.KrPen;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Arrays;
+
+/**
+ * A renderer that doesn't draw anything.
+ * <p>
+ * It keeps track of its state (pen, brush, font, opacity, translation and clip) like a real renderer, so widgets
+ * that are clipped are culled, and widgets that query the renderer state behave as they would on screen.
+ */
+public class KrHeadlessRenderer extends KrRenderer {
+
+    private static final int STATE_FLOATS = 3;
+
+    private static final int STATE_INTS = 4;
+
+    private static final int STATE_OBJECTS = 2;
+
+    @Setter @Getter private BitmapFont font;
+
+    @Getter private final Vector2 viewportSize = new Vector2(0, 0);
+
+    @Getter private float opacity = 1;
+
+    private final Vector2 translation = new Vector2(0, 0);
+
+    /**
+     * The clip rectangles (x1, y1, x2, y2), in viewport coordinates.
+     */
+    private float[] clipStack = new float[32];
+
+    private int clipStackSize;
+
+    /**
+     * The pen color, packed as an RGBA8888 int.
+     */
+    private int penColor = 0x000000ff;
+
+    /**
+     * The brush color, packed as an RGBA8888 int.
+     */
+    private int colorBrush;
+
+    private Drawable drawableBrush;
+
+    private boolean isDrawableBrush;
+
+    /**
+     * The states saved by {@link #pushState()}, stored like the ones of the lwjgl3 renderer: {@link #STATE_FLOATS}
+     * floats (opacity, translation), {@link #STATE_INTS} ints (pen, brush color, brush type, clip stack size)
+     * and {@link #STATE_OBJECTS} objects (font, drawable brush).
+     */
+    private float[] stateFloats = new float[16 * STATE_FLOATS];
+
+    private int[] stateInts = new int[16 * STATE_INTS];
+
+    private Object[] stateObjects = new Object[16 * STATE_OBJECTS];
+
+    private int stateStackSize;
+
+    @Override
+    public void beginFrame() {
+        translation.set(0, 0);
+        clipStackSize = 0;
+        stateStackSize = 0;
+    }
+
+    @Override
+    public void endFrame() {
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+    }
+
+    @Override
+    public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h) {
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+    }
+
+    @Override
+    public void fillRect(float x, float y, float w, float h) {
+    }
+
+    @Override
+    public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        translation.add(x, y);
+    }
+
+    @Override
+    public boolean beginClip(float x, float y, float width, float height) {
+        // like the lwjgl3 renderer, empty clips are not applied
+        if (width < 1 || height < 1) {
+            return false;
+        }
+
+        if ((clipStackSize + 1) * 4 > clipStack.length) {
+            clipStack = Arrays.copyOf(clipStack, clipStack.length * 2);
+        }
+
+        float x1 = Math.max(x + translation.x, getCurrentClip(0));
+        float y1 = Math.max(y + translation.y, getCurrentClip(1));
+        int index = clipStackSize * 4;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = Math.max(x1, Math.min(x + translation.x + width, getCurrentClip(2)));
+        clipStack[index + 3] = Math.max(y1, Math.min(y + translation.y + height, getCurrentClip(3)));
+        clipStackSize += 1;
+        return true;
+    }
+
+    @Override
+    public void endClip() {
+        clipStackSize -= 1;
+    }
+
+    /**
+     * Returns a component (x1, y1, x2, y2) of the current clip rectangle. Without any clip, the current clip
+     * rectangle is the viewport.
+     */
+    private float getCurrentClip(int component) {
+        if (clipStackSize == 0) {
+            return component < 2 ? 0 : (component == 2 ? viewportSize.x : viewportSize.y);
+        }
+        return clipStack[(clipStackSize - 1) * 4 + component];
+    }
+
+    @Override
+    public boolean isClipped(float x, float y, float width, float height) {
+        float x1 = x + translation.x;
+        float y1 = y + translation.y;
+        return x1 >= getCurrentClip(2) || x1 + width <= getCurrentClip(0)
+                || y1 >= getCurrentClip(3) || y1 + height <= getCurrentClip(1);
+    }
+
+    /**
+     * Nothing is drawn, so a back buffer is always available. Enabling it lets the canvas repaint only its dirty
+     * regions, which widgets outside of them are culled from.
+     */
+    @Override
+    public boolean setBackBufferEnabled(boolean enabled) {
+        return enabled;
+    }
+
+    @Override
+    public void setViewportSize(float width, float height) {
+        viewportSize.set(width, height);
+    }
+
+    @Override
+    public float setOpacity(float opacity) {
+        float oldOpacity = this.opacity;
+        this.opacity = opacity;
+        return oldOpacity;
+    }
+
+    @Override
+    public void popState() {
+        if (stateStackSize == 0) {
+            throw new IllegalStateException("popState() called without a matching pushState()");
+        }
+
+        stateStackSize -= 1;
+        int floats = stateStackSize * STATE_FLOATS;
+        int ints = stateStackSize * STATE_INTS;
+        int objects = stateStackSize * STATE_OBJECTS;
+
+        opacity = stateFloats[floats];
+        translation.set(stateFloats[floats + 1], stateFloats[floats + 2]);
+        penColor = stateInts[ints];
+        colorBrush = stateInts[ints + 1];
+        isDrawableBrush = stateInts[ints + 2] != 0;
+        clipStackSize = Math.min(clipStackSize, stateInts[ints + 3]);
+        font = (BitmapFont) stateObjects[objects];
+        drawableBrush = (Drawable) stateObjects[objects + 1];
+        stateObjects[objects] = null;
+        stateObjects[objects + 1] = null;
+    }
+
+    @Override
+    public void pushState() {
+        if ((stateStackSize + 1) * STATE_FLOATS > stateFloats.length) {
+            stateFloats = Arrays.copyOf(stateFloats, stateFloats.length * 2);
+            stateInts = Arrays.copyOf(stateInts, stateInts.length * 2);
+            stateObjects = Arrays.copyOf(stateObjects, stateObjects.length * 2);
+        }
+
+        int floats = stateStackSize * STATE_FLOATS;
+        int ints = stateStackSize * STATE_INTS;
+        int objects = stateStackSize * STATE_OBJECTS;
+        stateStackSize += 1;
+
+        stateFloats[floats] = opacity;
+        stateFloats[floats + 1] = translation.x;
+        stateFloats[floats + 2] = translation.y;
+        stateInts[ints] = penColor;
+        stateInts[ints + 1] = colorBrush;
+        stateInts[ints + 2] = isDrawableBrush ? 1 : 0;
+        stateInts[ints + 3] = clipStackSize;
+        stateObjects[objects] = font;
+        stateObjects[objects + 1] = drawableBrush;
+    }
+
+    @Override
+    public KrBrush getBrush() {
+        return isDrawableBrush ? new KrDrawableBrush(drawableBrush) : new KrColorBrush(new Color(colorBrush));
+    }
+
+    @Override
+    public KrPen getPen() {
+        return new KrPen(1, new Color(penColor));
+    }
+
+    @Override
+    public void setBrush(KrBrush brush) {
+        if (brush instanceof KrDrawableBrush) {
+            setBrush(((KrDrawableBrush) brush).getDrawable());
+        }
+
+        if (brush instanceof KrColorBrush) {
+            setBrush(((KrColorBrush) brush).getColor());
+        }
+    }
+
+    @Override
+    public void setBrush(Drawable drawable) {
+        isDrawableBrush = true;
+        drawableBrush = drawable;
+    }
+
+    @Override
+    public void setBrush(Color color) {
+        setBrush(color != null ? Color.rgba8888(color) : 0);
+    }
+
+    @Override
+    public void setBrush(int rgba) {
+        isDrawableBrush = false;
+        colorBrush = rgba;
+    }
+
+    @Override
+    public void setPen(KrPen pen) {
+        setPen(Color.rgba8888(pen.getColor()));
+    }
+
+    @Override
+    public void setPen(int size, Color color) {
+        setPen(color != null ? Color.rgba8888(color) : 0);
+    }
+
+    @Override
+    public void setPen(int rgba) {
+        penColor = rgba;
+    }
+}
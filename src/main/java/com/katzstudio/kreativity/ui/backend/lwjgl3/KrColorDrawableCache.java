@@ -0,0 +1,102 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.utils.IntMap;
+import lombok.Getter;
+
+/**
+ * Caches the solid color drawables, keyed by their RGBA8888 color.
+ * <p>
+ * The cache holds at most {@code capacity} drawables. When it is full, the least recently used drawable
+ * is evicted. Color drawables don't own any resource, so an evicted drawable keeps working for the widgets
+ * that still use it: it is only created again the next time its color is requested.
+ */
+public class KrColorDrawableCache {
+
+    @Getter private final int capacity;
+
+    private final IntMap<Entry> entries;
+
+    /**
+     * The most recently used entry. Entries form a circular list, ordered from the most to the least
+     * recently used one.
+     */
+    private Entry head;
+
+    public KrColorDrawableCache(int capacity) {
+        this.capacity = capacity;
+        entries = new IntMap<>(capacity);
+    }
+
+    /**
+     * Returns the drawable of a color, creating it if needed.
+     *
+     * @param rgba the color, packed as an RGBA8888 int
+     */
+    public KrLwjgl3ColorDrawable get(int rgba) {
+        Entry entry = entries.get(rgba);
+        if (entry != null) {
+            if (entry != head) {
+                unlink(entry);
+                linkFirst(entry);
+            }
+            return entry.drawable;
+        }
+
+        if (entries.size == capacity) {
+            Entry leastRecentlyUsed = head.previous;
+            unlink(leastRecentlyUsed);
+            entries.remove(leastRecentlyUsed.drawable.getRgba());
+        }
+
+        entry = new Entry(new KrLwjgl3ColorDrawable(rgba));
+        entries.put(rgba, entry);
+        linkFirst(entry);
+        return entry.drawable;
+    }
+
+    /**
+     * Returns the number of cached drawables.
+     */
+    public int getSize() {
+        return entries.size;
+    }
+
+    private void linkFirst(Entry entry) {
+        if (head == null) {
+            entry.previous = entry;
+            entry.next = entry;
+        } else {
+            entry.previous = head.previous;
+            entry.next = head;
+            head.previous.next = entry;
+            head.previous = entry;
+        }
+        head = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.next == entry) {
+            head = null;
+            return;
+        }
+
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+        if (head == entry) {
+            head = entry.next;
+        }
+    }
+
+    private static class Entry {
+
+        private final KrLwjgl3ColorDrawable drawable;
+
+        private Entry previous;
+
+        private Entry next;
+
+        Entry(KrLwjgl3ColorDrawable drawable) {
+            this.drawable = drawable;
+        }
+    }
+}
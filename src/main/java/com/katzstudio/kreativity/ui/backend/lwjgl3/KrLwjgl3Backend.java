@@ -3,29 +3,29 @@ package com.katzstudio.kreativity.ui.backend.lwjgl3;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Cursor;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Clipboard;
 import com.katzstudio.kreativity.ui.KrCursor;
 import com.katzstudio.kreativity.ui.KrFontMetrics;
 import com.katzstudio.kreativity.ui.backend.KrBackend;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.render.KrRecordingRenderer;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * This backed works with the libgdx Lwjgl3 backend.
  */
 public class KrLwjgl3Backend implements KrBackend {
 
-    private final Map<Color, Drawable> drawableCache = new HashMap<>();
+    /**
+     * The maximum number of cached color drawables. Applications that generate colors on the fly (e.g. heat maps)
+     * only keep the most recently used ones.
+     */
+    private static final int MAX_CACHED_COLORS = 256;
+
+    private final KrColorDrawableCache drawableCache = new KrColorDrawableCache(MAX_CACHED_COLORS);
 
-    private final KrLwjgl3Renderer renderer;
+    private final KrRenderer renderer;
 
     private final KrLwjgl3FontMetrics fontMetrics;
 
@@ -36,7 +36,15 @@ public class KrLwjgl3Backend implements KrBackend {
     private KrCursor currentCursor;
 
     public KrLwjgl3Backend() {
-        renderer = new KrLwjgl3Renderer();
+        this(false);
+    }
+
+    /**
+     * @param isRecordingEnabled if true, the renderer is wrapped in a {@link KrRecordingRenderer}, which collects
+     *                           statistics about each frame
+     */
+    public KrLwjgl3Backend(boolean isRecordingEnabled) {
+        renderer = isRecordingEnabled ? new KrRecordingRenderer(new KrLwjgl3Renderer()) : new KrLwjgl3Renderer();
         fontMetrics = new KrLwjgl3FontMetrics();
         inputSource = new KrLwjgl3InputSource();
         clipboard = Gdx.app.getClipboard();
@@ -91,16 +99,14 @@ public class KrLwjgl3Backend implements KrBackend {
         return Gdx.graphics.getHeight();
     }
 
+    @Override
+    public void requestRendering() {
+        Gdx.graphics.requestRendering();
+    }
+
     @Override
     public Drawable createColorDrawable(Color color) {
-        if (!drawableCache.containsKey(color)) {
-            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-            pixmap.setColor(color);
-            pixmap.fill();
-            Drawable colorDrawable = new TextureRegionDrawable(new TextureRegion(new Texture(pixmap)));
-            drawableCache.put(color, colorDrawable);
-        }
-        return drawableCache.get(color);
+        return drawableCache.get(Color.rgba8888(color));
     }
 
     private static Cursor.SystemCursor systemCursor(KrCursor cursor) {
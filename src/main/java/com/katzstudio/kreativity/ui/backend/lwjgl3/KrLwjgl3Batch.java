@@ -0,0 +1,818 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.NumberUtils;
+
+import java.util.Arrays;
+
+/**
+ * The single vertex batch used by the {@link KrLwjgl3Renderer}.
+ * <p>
+ * Every draw call, whether it comes from the renderer itself (rectangles and lines drawn with a white
+ * texel), from a {@link com.badlogic.gdx.scenes.scene2d.utils.Drawable} or from a
+ * {@link com.badlogic.gdx.graphics.g2d.BitmapFont}, is converted to textured quads that go through
+ * {@link #drawQuads(Texture, float[], int, int)}. The quads are appended to a {@link SpriteBatch}, which
+ * only flushes when the texture changes or when the batch is full.
+ * <p>
+ * Translation is applied on the CPU, to the vertices as they are emitted, so changing it never
+ * ends the batch. The transform matrix of the batch is left untouched.
+ * <p>
+ * Clipping is applied on the CPU as well: quads outside of the clip rectangle are dropped, and axis aligned
+ * quads that cross its edges are trimmed, along with their texture coordinates. Only quads that can't be
+ * trimmed (rotated quads, or quads with per-vertex colors) switch to a scissor test, which flushes the batch.
+ * <p>
+ * Finally, quads are buffered and grouped by texture before being drawn. A quad joins the earliest group with
+ * the same texture it can be moved to: it may be moved before the quads of other textures only when its bounds
+ * don't intersect theirs, so the result looks the same as if the quads were drawn in order. The buffer is drawn
+ * when the batch is flushed, or when the state of the batch changes.
+ */
+public class KrLwjgl3Batch implements Batch {
+
+    private static final int QUAD_SIZE = 20;
+
+    /**
+     * The quad is inside the clip rectangle.
+     */
+    static final int QUAD_INSIDE = 0;
+
+    /**
+     * The quad is outside of the clip rectangle.
+     */
+    static final int QUAD_OUTSIDE = 1;
+
+    /**
+     * The quad crosses the edges of the clip rectangle.
+     */
+    static final int QUAD_CROSSING = 2;
+
+    private final SpriteBatch spriteBatch;
+
+    private final float[] quad = new float[QUAD_SIZE];
+
+    private final float[] translatedVertices = new float[QUAD_SIZE * 64];
+
+    private float offsetX;
+
+    private float offsetY;
+
+    private final float[] clippedQuad = new float[QUAD_SIZE];
+
+    private boolean isClipEnabled;
+
+    private float clipX1, clipY1, clipX2, clipY2;
+
+    private boolean isScissorEnabled;
+
+    private int scissorFlushCount;
+
+    private static final int MAX_BUFFERED_QUADS = 4096;
+
+    /**
+     * The number of groups a quad is compared with, at most, before starting a new group.
+     */
+    static final int MAX_LOOKBACK = 32;
+
+    private boolean isReorderingEnabled = true;
+
+    private float[] bufferedVertices = new float[QUAD_SIZE * 256];
+
+    private int[] nextBufferedQuad = new int[256];
+
+    private int bufferedQuadCount;
+
+    private Texture[] groupTextures = new Texture[16];
+
+    private float[] groupBounds = new float[16 * 4];
+
+    private int[] groupFirstQuad = new int[16];
+
+    private int[] groupLastQuad = new int[16];
+
+    private int groupCount;
+
+    private final float[] sortedVertices = new float[QUAD_SIZE * 64];
+
+    private final Color color = new Color(1, 1, 1, 1);
+
+    private float packedColor = Color.WHITE.toFloatBits();
+
+    public KrLwjgl3Batch(int size) {
+        this(new SpriteBatch(size));
+    }
+
+    KrLwjgl3Batch(SpriteBatch spriteBatch) {
+        this.spriteBatch = spriteBatch;
+    }
+
+    /**
+     * Appends quads to the batch. All the drawing methods end up here.
+     *
+     * @param texture  the texture of the quads
+     * @param vertices the vertices of the quads, in the {@link SpriteBatch} vertex format
+     * @param offset   the index of the first vertex component
+     * @param count    the number of vertex components, a multiple of 20
+     */
+    protected void drawQuads(Texture texture, float[] vertices, int offset, int count) {
+        if (!isClipEnabled || isScissorEnabled) {
+            appendQuads(texture, vertices, offset, count);
+            return;
+        }
+
+        // consecutive quads inside the clip rectangle are appended together
+        int end = offset + count;
+        int runStart = offset;
+        for (int i = offset; i < end; i += QUAD_SIZE) {
+            int position = classifyQuad(vertices, i, clipX1, clipY1, clipX2, clipY2);
+            if (position == QUAD_INSIDE) {
+                continue;
+            }
+
+            if (i > runStart) {
+                appendQuads(texture, vertices, runStart, i - runStart);
+            }
+            runStart = i + QUAD_SIZE;
+
+            if (position == QUAD_OUTSIDE) {
+                continue;
+            }
+
+            if (clipQuad(vertices, i, clipX1, clipY1, clipX2, clipY2, clippedQuad)) {
+                appendQuads(texture, clippedQuad, 0, QUAD_SIZE);
+            } else {
+                // the scissor test clips everything from now on, until the clip rectangle changes
+                enableScissor();
+                appendQuads(texture, vertices, i, end - i);
+                return;
+            }
+        }
+
+        if (end > runStart) {
+            appendQuads(texture, vertices, runStart, end - runStart);
+        }
+    }
+
+    /**
+     * Enables or disables the grouping of quads by texture. Without it, quads are drawn in order.
+     */
+    public void setReorderingEnabled(boolean enabled) {
+        flushBufferedQuads();
+        isReorderingEnabled = enabled;
+    }
+
+    private void appendQuads(Texture texture, float[] vertices, int offset, int count) {
+        if (!isReorderingEnabled) {
+            spriteBatch.draw(texture, vertices, offset, count);
+            return;
+        }
+
+        int end = offset + count;
+        for (int i = offset; i < end; i += QUAD_SIZE) {
+            bufferQuad(texture, vertices, i);
+        }
+    }
+
+    private void bufferQuad(Texture texture, float[] vertices, int offset) {
+        if (bufferedQuadCount == MAX_BUFFERED_QUADS) {
+            flushBufferedQuads();
+        }
+
+        float minX = Math.min(Math.min(vertices[offset], vertices[offset + 5]), Math.min(vertices[offset + 10], vertices[offset + 15]));
+        float maxX = Math.max(Math.max(vertices[offset], vertices[offset + 5]), Math.max(vertices[offset + 10], vertices[offset + 15]));
+        float minY = Math.min(Math.min(vertices[offset + 1], vertices[offset + 6]), Math.min(vertices[offset + 11], vertices[offset + 16]));
+        float maxY = Math.max(Math.max(vertices[offset + 1], vertices[offset + 6]), Math.max(vertices[offset + 11], vertices[offset + 16]));
+
+        int group = findGroup(texture, minX, minY, maxX, maxY, groupTextures, groupBounds, groupCount);
+
+        int quad = bufferedQuadCount++;
+        if (quad == nextBufferedQuad.length) {
+            nextBufferedQuad = Arrays.copyOf(nextBufferedQuad, quad * 2);
+            bufferedVertices = Arrays.copyOf(bufferedVertices, quad * 2 * QUAD_SIZE);
+        }
+        System.arraycopy(vertices, offset, bufferedVertices, quad * QUAD_SIZE, QUAD_SIZE);
+        nextBufferedQuad[quad] = -1;
+
+        if (group == -1) {
+            group = groupCount++;
+            if (group == groupTextures.length) {
+                groupTextures = Arrays.copyOf(groupTextures, group * 2);
+                groupBounds = Arrays.copyOf(groupBounds, group * 8);
+                groupFirstQuad = Arrays.copyOf(groupFirstQuad, group * 2);
+                groupLastQuad = Arrays.copyOf(groupLastQuad, group * 2);
+            }
+            groupTextures[group] = texture;
+            groupFirstQuad[group] = quad;
+            groupLastQuad[group] = quad;
+            int bounds = group * 4;
+            groupBounds[bounds] = minX;
+            groupBounds[bounds + 1] = minY;
+            groupBounds[bounds + 2] = maxX;
+            groupBounds[bounds + 3] = maxY;
+            return;
+        }
+
+        nextBufferedQuad[groupLastQuad[group]] = quad;
+        groupLastQuad[group] = quad;
+        int bounds = group * 4;
+        groupBounds[bounds] = Math.min(groupBounds[bounds], minX);
+        groupBounds[bounds + 1] = Math.min(groupBounds[bounds + 1], minY);
+        groupBounds[bounds + 2] = Math.max(groupBounds[bounds + 2], maxX);
+        groupBounds[bounds + 3] = Math.max(groupBounds[bounds + 3], maxY);
+    }
+
+    /**
+     * Returns the group a quad joins: the earliest group with the same texture among the groups the quad can be
+     * moved before, which are the groups after the last one it overlaps, looking back {@link #MAX_LOOKBACK} groups
+     * at most. The group it overlaps is included if it has the same texture.
+     *
+     * @param groupTextures the textures of the groups, in drawing order
+     * @param groupBounds   the bounds (min x, min y, max x, max y) of the groups
+     * @return the index of the group, or -1 if the quad starts a new group
+     */
+    static int findGroup(Texture texture, float minX, float minY, float maxX, float maxY,
+                         Texture[] groupTextures, float[] groupBounds, int groupCount) {
+        // walk back through the groups, until one of them is overlapped by the quad
+        int group = -1;
+        int firstGroup = Math.max(0, groupCount - MAX_LOOKBACK);
+        for (int i = groupCount - 1; i >= firstGroup; --i) {
+            if (groupTextures[i] == texture) {
+                group = i;
+            }
+
+            int bounds = i * 4;
+            if (minX < groupBounds[bounds + 2] && maxX > groupBounds[bounds]
+                    && minY < groupBounds[bounds + 3] && maxY > groupBounds[bounds + 1]) {
+                break;
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Draws the buffered quads, one group after the other.
+     */
+    private void flushBufferedQuads() {
+        for (int group = 0; group < groupCount; ++group) {
+            Texture texture = groupTextures[group];
+            int count = 0;
+            for (int quad = groupFirstQuad[group]; quad != -1; quad = nextBufferedQuad[quad]) {
+                System.arraycopy(bufferedVertices, quad * QUAD_SIZE, sortedVertices, count, QUAD_SIZE);
+                count += QUAD_SIZE;
+                if (count == sortedVertices.length) {
+                    spriteBatch.draw(texture, sortedVertices, 0, count);
+                    count = 0;
+                }
+            }
+
+            if (count > 0) {
+                spriteBatch.draw(texture, sortedVertices, 0, count);
+            }
+            groupTextures[group] = null;
+        }
+
+        groupCount = 0;
+        bufferedQuadCount = 0;
+    }
+
+    /**
+     * Returns where a quad is relative to a clip rectangle: {@link #QUAD_INSIDE}, {@link #QUAD_OUTSIDE} or
+     * {@link #QUAD_CROSSING}. Quads that only touch the edges of the rectangle are outside of it.
+     */
+    static int classifyQuad(float[] vertices, int offset, float clipX1, float clipY1, float clipX2, float clipY2) {
+        float minX = Math.min(Math.min(vertices[offset], vertices[offset + 5]), Math.min(vertices[offset + 10], vertices[offset + 15]));
+        float maxX = Math.max(Math.max(vertices[offset], vertices[offset + 5]), Math.max(vertices[offset + 10], vertices[offset + 15]));
+        float minY = Math.min(Math.min(vertices[offset + 1], vertices[offset + 6]), Math.min(vertices[offset + 11], vertices[offset + 16]));
+        float maxY = Math.max(Math.max(vertices[offset + 1], vertices[offset + 6]), Math.max(vertices[offset + 11], vertices[offset + 16]));
+        if (minX >= clipX1 && maxX <= clipX2 && minY >= clipY1 && maxY <= clipY2) {
+            return QUAD_INSIDE;
+        }
+        if (maxX <= clipX1 || minX >= clipX2 || maxY <= clipY1 || minY >= clipY2) {
+            return QUAD_OUTSIDE;
+        }
+        return QUAD_CROSSING;
+    }
+
+    /**
+     * Trims an axis aligned quad to a clip rectangle, along with its texture coordinates.
+     *
+     * @param result the array the trimmed quad is stored in
+     * @return false if the quad can't be trimmed on the CPU, because it isn't axis aligned or has per-vertex
+     * colors or texture coordinates
+     */
+    static boolean clipQuad(float[] vertices, int offset, float clipX1, float clipY1, float clipX2, float clipY2,
+                            float[] result) {
+        // vertex order: bottom left, top left, top right, bottom right
+        float x1 = vertices[offset + X1];
+        float y1 = vertices[offset + Y1];
+        float x2 = vertices[offset + X3];
+        float y2 = vertices[offset + Y3];
+        float color = vertices[offset + C1];
+        float u1 = vertices[offset + U1];
+        float v1 = vertices[offset + V1];
+        float u2 = vertices[offset + U3];
+        float v2 = vertices[offset + V3];
+
+        boolean isAxisAligned = vertices[offset + X2] == x1 && vertices[offset + X4] == x2
+                && vertices[offset + Y2] == y2 && vertices[offset + Y4] == y1 && x1 < x2 && y1 < y2;
+        boolean isUniform = vertices[offset + C2] == color && vertices[offset + C3] == color && vertices[offset + C4] == color
+                && vertices[offset + U2] == u1 && vertices[offset + U4] == u2 && vertices[offset + V2] == v2 && vertices[offset + V4] == v1;
+        if (!isAxisAligned || !isUniform) {
+            return false;
+        }
+
+        float clippedX1 = Math.max(x1, clipX1);
+        float clippedY1 = Math.max(y1, clipY1);
+        float clippedX2 = Math.min(x2, clipX2);
+        float clippedY2 = Math.min(y2, clipY2);
+
+        float uScale = (u2 - u1) / (x2 - x1);
+        float vScale = (v2 - v1) / (y2 - y1);
+        float clippedU1 = u1 + (clippedX1 - x1) * uScale;
+        float clippedU2 = u1 + (clippedX2 - x1) * uScale;
+        float clippedV1 = v1 + (clippedY1 - y1) * vScale;
+        float clippedV2 = v1 + (clippedY2 - y1) * vScale;
+
+        setVertex(result, 0, clippedX1, clippedY1, color, clippedU1, clippedV1);
+        setVertex(result, 1, clippedX1, clippedY2, color, clippedU1, clippedV2);
+        setVertex(result, 2, clippedX2, clippedY2, color, clippedU2, clippedV2);
+        setVertex(result, 3, clippedX2, clippedY1, color, clippedU2, clippedV1);
+        return true;
+    }
+
+    /**
+     * Sets the clip rectangle, in batch coordinates. Nothing is drawn outside of it. Setting the current clip
+     * rectangle again has no effect.
+     */
+    public void setClip(float x1, float y1, float x2, float y2) {
+        if (isClipEnabled && x1 == clipX1 && y1 == clipY1 && x2 == clipX2 && y2 == clipY2) {
+            return;
+        }
+
+        disableScissor();
+        isClipEnabled = true;
+        clipX1 = x1;
+        clipY1 = y1;
+        clipX2 = x2;
+        clipY2 = y2;
+    }
+
+    /**
+     * Disables clipping.
+     */
+    public void clearClip() {
+        if (!isClipEnabled) {
+            return;
+        }
+
+        disableScissor();
+        isClipEnabled = false;
+    }
+
+    /**
+     * Clears a rectangle, in batch coordinates, to transparent. The rectangle is clipped to the clip rectangle.
+     */
+    public void clear(float x1, float y1, float x2, float y2) {
+        if (isClipEnabled) {
+            x1 = Math.max(x1, clipX1);
+            y1 = Math.max(y1, clipY1);
+            x2 = Math.min(x2, clipX2);
+            y2 = Math.min(y2, clipY2);
+        }
+
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+
+        flush();
+        scissor(x1, y1, x2, y2);
+        Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+
+        if (isScissorEnabled) {
+            scissor(clipX1, clipY1, clipX2, clipY2);
+        } else {
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+        }
+    }
+
+    private void enableScissor() {
+        flush();
+        scissorFlushCount += 1;
+        scissor(clipX1, clipY1, clipX2, clipY2);
+        Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+        isScissorEnabled = true;
+    }
+
+    private void disableScissor() {
+        if (isScissorEnabled) {
+            flush();
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+            isScissorEnabled = false;
+        }
+    }
+
+    private static void scissor(float x1, float y1, float x2, float y2) {
+        int x = MathUtils.round(x1);
+        int y = MathUtils.round(y1);
+        HdpiUtils.glScissor(x, y, MathUtils.round(x2) - x, MathUtils.round(y2) - y);
+    }
+
+    /**
+     * Returns the number of times the batch was flushed to switch to a scissor test since it began.
+     */
+    public int getScissorFlushCount() {
+        return scissorFlushCount;
+    }
+
+    /**
+     * Sets the offset added to the vertices of the quads drawn from now on.
+     */
+    public void setOffset(float offsetX, float offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * Returns the number of draw calls issued since the batch began.
+     */
+    public int getRenderCalls() {
+        return spriteBatch.renderCalls;
+    }
+
+    /**
+     * Returns the sprite batch the quads are appended to.
+     */
+    SpriteBatch getSpriteBatch() {
+        return spriteBatch;
+    }
+
+    @Override
+    public void begin() {
+        scissorFlushCount = 0;
+        spriteBatch.begin();
+    }
+
+    @Override
+    public void end() {
+        flushBufferedQuads();
+        spriteBatch.end();
+        if (isScissorEnabled) {
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+            isScissorEnabled = false;
+        }
+        isClipEnabled = false;
+    }
+
+    @Override
+    public void setColor(Color tint) {
+        color.set(tint);
+        packedColor = tint.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float r, float g, float b, float a) {
+        color.set(r, g, b, a);
+        packedColor = color.toFloatBits();
+    }
+
+    @Override
+    public void setColor(float packedColor) {
+        int abgr = NumberUtils.floatToIntColor(packedColor);
+        color.set((abgr & 0xff) / 255f, ((abgr >>> 8) & 0xff) / 255f, ((abgr >>> 16) & 0xff) / 255f, ((abgr >>> 24) & 0xff) / 255f);
+        this.packedColor = packedColor;
+    }
+
+    @Override
+    public Color getColor() {
+        return color;
+    }
+
+    @Override
+    public float getPackedColor() {
+        return packedColor;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) {
+        float invTexWidth = 1f / texture.getWidth();
+        float invTexHeight = 1f / texture.getHeight();
+        float u = srcX * invTexWidth;
+        float v = (srcY + srcHeight) * invTexHeight;
+        float u2 = (srcX + srcWidth) * invTexWidth;
+        float v2 = srcY * invTexHeight;
+
+        if (flipX) {
+            float tmp = u;
+            u = u2;
+            u2 = tmp;
+        }
+
+        if (flipY) {
+            float tmp = v;
+            v = v2;
+            v2 = tmp;
+        }
+
+        drawTransformed(texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation, u, v, u2, v2, false);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth,
+                     int srcHeight, boolean flipX, boolean flipY) {
+        float invTexWidth = 1f / texture.getWidth();
+        float invTexHeight = 1f / texture.getHeight();
+        float u = srcX * invTexWidth;
+        float v = (srcY + srcHeight) * invTexHeight;
+        float u2 = (srcX + srcWidth) * invTexWidth;
+        float v2 = srcY * invTexHeight;
+
+        if (flipX) {
+            float tmp = u;
+            u = u2;
+            u2 = tmp;
+        }
+
+        if (flipY) {
+            float tmp = v;
+            v = v2;
+            v2 = tmp;
+        }
+
+        draw(texture, x, y, width, height, u, v, u2, v2);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        float invTexWidth = 1f / texture.getWidth();
+        float invTexHeight = 1f / texture.getHeight();
+        draw(texture, x, y, srcWidth, srcHeight, srcX * invTexWidth, (srcY + srcHeight) * invTexHeight,
+                (srcX + srcWidth) * invTexWidth, srcY * invTexHeight);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        float x2 = x + width;
+        float y2 = y + height;
+        setVertex(0, x, y, u, v);
+        setVertex(1, x, y2, u, v2);
+        setVertex(2, x2, y2, u2, v2);
+        setVertex(3, x2, y, u2, v);
+        drawQuads(texture, quad, 0, QUAD_SIZE);
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y) {
+        draw(texture, x, y, texture.getWidth(), texture.getHeight());
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        draw(texture, x, y, width, height, 0, 1, 1, 0);
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        if (offsetX == 0 && offsetY == 0) {
+            drawQuads(texture, spriteVertices, offset, count);
+            return;
+        }
+
+        // the vertices belong to the caller (e.g. a font cache), so the translated ones go to a scratch buffer
+        while (count > 0) {
+            int chunk = Math.min(count, translatedVertices.length);
+            System.arraycopy(spriteVertices, offset, translatedVertices, 0, chunk);
+            for (int i = 0; i < chunk; i += 5) {
+                translatedVertices[i] += offsetX;
+                translatedVertices[i + 1] += offsetY;
+            }
+            drawQuads(texture, translatedVertices, 0, chunk);
+            offset += chunk;
+            count -= chunk;
+        }
+    }
+
+    /**
+     * Draws quads at an offset, with the color of every vertex replaced by a tint. Used to draw cached glyphs
+     * without modifying the cache.
+     *
+     * @param x     the horizontal offset of the quads, added to the translation of the batch
+     * @param y     the vertical offset of the quads, added to the translation of the batch
+     * @param color the packed color of the quads
+     */
+    public void drawTinted(Texture texture, float[] vertices, int offset, int count, float x, float y, float color) {
+        float translationX = offsetX + x;
+        float translationY = offsetY + y;
+        while (count > 0) {
+            int chunk = Math.min(count, translatedVertices.length);
+            System.arraycopy(vertices, offset, translatedVertices, 0, chunk);
+            for (int i = 0; i < chunk; i += 5) {
+                translatedVertices[i] += translationX;
+                translatedVertices[i + 1] += translationY;
+                translatedVertices[i + 2] = color;
+            }
+            drawQuads(texture, translatedVertices, 0, chunk);
+            offset += chunk;
+            count -= chunk;
+        }
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y) {
+        draw(region, x, y, region.getRegionWidth(), region.getRegionHeight());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        draw(region.getTexture(), x, y, width, height, region.getU(), region.getV2(), region.getU2(), region.getV());
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation) {
+        drawTransformed(region.getTexture(), x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+                region.getU(), region.getV2(), region.getU2(), region.getV(), false);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, boolean clockwise) {
+        drawTransformed(region.getTexture(), x, y, originX, originY, width, height, scaleX, scaleY, rotation,
+                region.getU(), region.getV2(), region.getU2(), region.getV(), clockwise);
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        setVertex(0, transform.m02, transform.m12, region.getU(), region.getV2());
+        setVertex(1, transform.m01 * height + transform.m02, transform.m11 * height + transform.m12, region.getU(), region.getV());
+        setVertex(2, transform.m00 * width + transform.m01 * height + transform.m02,
+                transform.m10 * width + transform.m11 * height + transform.m12, region.getU2(), region.getV());
+        setVertex(3, transform.m00 * width + transform.m02, transform.m10 * width + transform.m12, region.getU2(), region.getV2());
+        drawQuads(region.getTexture(), quad, 0, QUAD_SIZE);
+    }
+
+    /**
+     * Draws a scaled and rotated quad. The {@code u, v} coordinates map to the bottom left corner,
+     * and {@code u2, v2} to the top right corner. A clockwise quad has its texture rotated by 90 degrees.
+     */
+    private void drawTransformed(Texture texture, float x, float y, float originX, float originY, float width,
+                                 float height, float scaleX, float scaleY, float rotation,
+                                 float u, float v, float u2, float v2, boolean clockwise) {
+        float worldOriginX = x + originX;
+        float worldOriginY = y + originY;
+        float fx = -originX;
+        float fy = -originY;
+        float fx2 = width - originX;
+        float fy2 = height - originY;
+
+        if (scaleX != 1 || scaleY != 1) {
+            fx *= scaleX;
+            fy *= scaleY;
+            fx2 *= scaleX;
+            fy2 *= scaleY;
+        }
+
+        float x1, y1, x2, y2, x3, y3, x4, y4;
+        if (rotation != 0) {
+            float cos = MathUtils.cosDeg(rotation);
+            float sin = MathUtils.sinDeg(rotation);
+            x1 = cos * fx - sin * fy;
+            y1 = sin * fx + cos * fy;
+            x2 = cos * fx - sin * fy2;
+            y2 = sin * fx + cos * fy2;
+            x3 = cos * fx2 - sin * fy2;
+            y3 = sin * fx2 + cos * fy2;
+            x4 = x1 + (x3 - x2);
+            y4 = y3 - (y2 - y1);
+        } else {
+            x1 = fx;
+            y1 = fy;
+            x2 = fx;
+            y2 = fy2;
+            x3 = fx2;
+            y3 = fy2;
+            x4 = fx2;
+            y4 = fy;
+        }
+
+        if (clockwise) {
+            setVertex(0, x1 + worldOriginX, y1 + worldOriginY, u2, v);
+            setVertex(1, x2 + worldOriginX, y2 + worldOriginY, u, v);
+            setVertex(2, x3 + worldOriginX, y3 + worldOriginY, u, v2);
+            setVertex(3, x4 + worldOriginX, y4 + worldOriginY, u2, v2);
+        } else {
+            setVertex(0, x1 + worldOriginX, y1 + worldOriginY, u, v);
+            setVertex(1, x2 + worldOriginX, y2 + worldOriginY, u, v2);
+            setVertex(2, x3 + worldOriginX, y3 + worldOriginY, u2, v2);
+            setVertex(3, x4 + worldOriginX, y4 + worldOriginY, u2, v);
+        }
+        drawQuads(texture, quad, 0, QUAD_SIZE);
+    }
+
+    private void setVertex(int index, float x, float y, float u, float v) {
+        setVertex(quad, index, x + offsetX, y + offsetY, packedColor, u, v);
+    }
+
+    private static void setVertex(float[] vertices, int index, float x, float y, float color, float u, float v) {
+        int offset = index * 5;
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = color;
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
+    }
+
+    @Override
+    public void flush() {
+        flushBufferedQuads();
+        spriteBatch.flush();
+    }
+
+    @Override
+    public void disableBlending() {
+        flushBufferedQuads();
+        spriteBatch.disableBlending();
+    }
+
+    @Override
+    public void enableBlending() {
+        flushBufferedQuads();
+        spriteBatch.enableBlending();
+    }
+
+    @Override
+    public void setBlendFunction(int srcFunc, int dstFunc) {
+        flushBufferedQuads();
+        spriteBatch.setBlendFunction(srcFunc, dstFunc);
+    }
+
+    @Override
+    public int getBlendSrcFunc() {
+        return spriteBatch.getBlendSrcFunc();
+    }
+
+    @Override
+    public int getBlendDstFunc() {
+        return spriteBatch.getBlendDstFunc();
+    }
+
+    @Override
+    public Matrix4 getProjectionMatrix() {
+        return spriteBatch.getProjectionMatrix();
+    }
+
+    @Override
+    public Matrix4 getTransformMatrix() {
+        return spriteBatch.getTransformMatrix();
+    }
+
+    @Override
+    public void setProjectionMatrix(Matrix4 projection) {
+        flushBufferedQuads();
+        spriteBatch.setProjectionMatrix(projection);
+    }
+
+    @Override
+    public void setTransformMatrix(Matrix4 transform) {
+        flushBufferedQuads();
+        spriteBatch.setTransformMatrix(transform);
+    }
+
+    @Override
+    public void setShader(ShaderProgram shader) {
+        flushBufferedQuads();
+        spriteBatch.setShader(shader);
+    }
+
+    @Override
+    public ShaderProgram getShader() {
+        return spriteBatch.getShader();
+    }
+
+    @Override
+    public boolean isBlendingEnabled() {
+        return spriteBatch.isBlendingEnabled();
+    }
+
+    @Override
+    public boolean isDrawing() {
+        return spriteBatch.isDrawing();
+    }
+
+    @Override
+    public void dispose() {
+        spriteBatch.dispose();
+    }
+}
@@ -0,0 +1,61 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+import lombok.Getter;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+
+/**
+ * A drawable that fills its area with a solid color.
+ * <p>
+ * The color is drawn by tinting the white texel of the skin texture, so solid colors share the texture of the
+ * skin, and don't break the batch.
+ */
+public class KrLwjgl3ColorDrawable extends BaseDrawable {
+
+    /**
+     * The color of the drawable, packed as an RGBA8888 int.
+     */
+    @Getter private final int rgba;
+
+    private final float red;
+
+    private final float green;
+
+    private final float blue;
+
+    private final float alpha;
+
+    private TextureRegion whiteTexel;
+
+    public KrLwjgl3ColorDrawable(int rgba) {
+        this.rgba = rgba;
+        red = ((rgba >>> 24) & 0xff) / 255f;
+        green = ((rgba >>> 16) & 0xff) / 255f;
+        blue = ((rgba >>> 8) & 0xff) / 255f;
+        alpha = (rgba & 0xff) / 255f;
+        setMinWidth(1);
+        setMinHeight(1);
+    }
+
+    @Override
+    public void draw(Batch batch, float x, float y, float width, float height) {
+        if (whiteTexel == null) {
+            whiteTexel = getDefaultToolkit().getSkin().getWhiteTexel();
+        }
+
+        float previousColor = batch.getPackedColor();
+        Color tint = batch.getColor();
+        batch.setColor(red * tint.r, green * tint.g, blue * tint.b, alpha * tint.a);
+        batch.draw(whiteTexel, x, y, width, height);
+        batch.setColor(previousColor);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("KrLwjgl3ColorDrawable(#%08x)", rgba);
+    }
+}
@@ -3,6 +3,7 @@ package com.katzstudio.kreativity.ui.backend.lwjgl3;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Align;
 import com.katzstudio.kreativity.ui.KrFontMetrics;
 
 /**
@@ -14,7 +15,7 @@ public class KrLwjgl3FontMetrics extends KrFontMetrics {
 
     @Override
     public Rectangle bounds(BitmapFont font, String text, int from, int count, Rectangle bounds) {
-        layout.setText(font, text);
+        layout.setText(font, text, from, from + count, font.getColor(), 0, Align.left, false, null);
         bounds.setWidth(layout.width);
         bounds.setHeight(layout.height);
         return bounds;
@@ -1,12 +1,12 @@
 package com.katzstudio.kreativity.ui.backend.lwjgl3
 
-import com.badlogic.gdx.Gdx
 import com.badlogic.gdx.Input
 import com.badlogic.gdx.InputAdapter
 import com.badlogic.gdx.math.Vector2
-import com.badlogic.gdx.utils.Timer
+import com.badlogic.gdx.utils.Array
 
 import com.katzstudio.kreativity.ui.backend.KrInputSource
+import com.katzstudio.kreativity.ui.event.KrEvent
 import com.katzstudio.kreativity.ui.event.KrKeyEvent
 import com.katzstudio.kreativity.ui.event.KrMouseEvent
 import com.katzstudio.kreativity.ui.event.KrScrollEvent
@@ -18,11 +18,39 @@ import com.badlogic.gdx.Input.Keys.*
 
 /**
  * [KrInputSource] implementation for libgdx lwjgl3 backend.
+ *
+ * Input callbacks don't dispatch events directly. Events are queued, together with the time at which the
+ * input happened, and are dispatched once per frame by [dispatchQueuedEvents]. Consecutive mouse moves
+ * are merged into a single event carrying the accumulated delta, so the cost of handling input doesn't
+ * depend on the polling rate of the mouse. The callbacks, as well as [dispatchQueuedEvents], are expected
+ * to be called from the UI thread.
+ *
+ * Since the events aren't dispatched yet, the callbacks ask the listeners whether they would consume them: mouse
+ * events are consumed over widgets, along with the drag and the release that follow a consumed press, and key
+ * events are consumed while a widget has the focus. This keeps the answer meaningful for an InputMultiplexer.
  */
 class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
 
     private val listeners = ArrayList<KrInputSource.KrInputEventListener>()
 
+    private var eventQueue = Array<KrEvent>(true, 16, KrEvent::class.java)
+
+    private var dispatchedEvents = Array<KrEvent>(true, 16, KrEvent::class.java)
+
+    // state of the input, as seen by the callbacks
+
+    private var isAltPressed: Boolean = false
+
+    private var isCtrlPressed: Boolean = false
+
+    private var isShiftPressed: Boolean = false
+
+    private val pointerPosition = Vector2()
+
+    private var isPressConsumed: Boolean = false
+
+    // state of the input, as of the last dispatched event
+
     private var isAltDown: Boolean = false
 
     private var isCtrlDown: Boolean = false
@@ -31,22 +59,24 @@ class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
 
     private var isDragging: Boolean = false
 
+    private val mousePosition = Vector2()
+
     private var pressedKeyCode: Int = 0
 
     private val keyRepeat = true
 
-    private var lastMousePressedTime = 0f
+    private var repeatedKeyCode = NO_KEY
 
-    private var lastMousePressedButton: KrMouseEvent.Button? = null
+    private var nextKeyRepeatTime = 0L
+
+    private var lastMousePressedTime = 0L
 
-    private var keyRepeatTask = KeyRepeatTask()
+    private var lastMousePressedButton: KrMouseEvent.Button? = null
 
     private var inputOffsetX = 0
 
     private var inputOffsetY = 0
 
-    private val mousePosition = Vector2()
-
     init {
         // TODO: investigate pointer offset on MAC OSX. Compensating here with a small hack
         if ((System.getProperties()["os.name"] as String).contains("Mac")) {
@@ -56,49 +86,44 @@ class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
     }
 
     override fun keyDown(keycode: Int): Boolean {
-        isAltDown = isAltDown || isAlt(keycode)
-        isCtrlDown = isCtrlDown || isCtrl(keycode)
-        isShiftDown = isShiftDown || isShift(keycode)
+        isAltPressed = isAltPressed || isAlt(keycode)
+        isCtrlPressed = isCtrlPressed || isCtrl(keycode)
+        isShiftPressed = isShiftPressed || isShift(keycode)
 
         pressedKeyCode = keycode
 
         if (pressedKeyCode == LEFT || pressedKeyCode == RIGHT) {
-            scheduleKeyRepeatTask(keycode)
+            scheduleKeyRepeat(keycode)
         }
 
-        val keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, pressedKeyCode)
-
-        notifyKeyPressed(keyEvent)
-
-        return keyEvent.handled()
+        enqueue(createKeyEvent(KrKeyEvent.Type.PRESSED, pressedKeyCode))
+        return isConsumingKeyEvents()
     }
 
     override fun keyTyped(character: Char): Boolean {
         if (hasStringRepresentation(pressedKeyCode)) {
-            val keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, character).copy(keycode = pressedKeyCode)
-            notifyKeyPressed(keyEvent)
-            return keyEvent.handled()
+            val keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, character)
+            keyEvent.keycode = pressedKeyCode
+            enqueue(keyEvent)
+            return isConsumingKeyEvents()
         }
         return false
     }
 
     override fun keyUp(keycode: Int): Boolean {
-        isAltDown = isAltDown && !isAlt(keycode)
-        isCtrlDown = isCtrlDown && !isCtrl(keycode)
-        isShiftDown = isShiftDown && !isShift(keycode)
+        isAltPressed = isAltPressed && !isAlt(keycode)
+        isCtrlPressed = isCtrlPressed && !isCtrl(keycode)
+        isShiftPressed = isShiftPressed && !isShift(keycode)
 
-        if (keyRepeat) {
-            getKeyRepeatTask().cancel()
-        }
+        repeatedKeyCode = NO_KEY
 
-        var keyEvent = createKeyEvent(KrKeyEvent.Type.RELEASED, keycode)
-        if (isShiftDown) {
-            keyEvent = keyEvent.copy(value = keyEvent.value!!.toUpperCase())
+        val keyEvent = createKeyEvent(KrKeyEvent.Type.RELEASED, keycode)
+        if (isShiftPressed) {
+            keyEvent.value = keyEvent.value!!.toUpperCase()
         }
 
-        notifyKeyReleased(keyEvent)
-
-        return keyEvent.handled()
+        enqueue(keyEvent)
+        return isConsumingKeyEvents()
     }
 
     override fun touchDown(screenX: Int, screenY: Int, pointer: Int, buttonIndex: Int): Boolean {
@@ -108,31 +133,26 @@ class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
         screenX += inputOffsetX
         screenY += inputOffsetY
 
-        isDragging = true
         val button = getButtonFor(buttonIndex)
 
-        var mouseEvent = createMouseEvent(KrMouseEvent.Type.PRESSED, screenX, screenY, buttonIndex)
+        val mouseEvent = createMouseEvent(KrMouseEvent.Type.PRESSED, screenX, screenY, buttonIndex)
 
-        val nanoTime = System.nanoTime()
-        if (lastMousePressedTime == 0f) {
-            lastMousePressedTime = nanoTime.toFloat()
+        val nanoTime = mouseEvent.timestamp
+        if (lastMousePressedTime == 0L) {
+            lastMousePressedTime = nanoTime
             lastMousePressedButton = button
         } else {
             val deltaTime = nanoTime - lastMousePressedTime
-            if (button == lastMousePressedButton && deltaTime < 200000000) {
-                mouseEvent = createMouseEvent(KrMouseEvent.Type.DOUBLE_CLICK, screenX, screenY, buttonIndex)
+            if (button == lastMousePressedButton && deltaTime < DOUBLE_CLICK_TIME) {
+                mouseEvent.type = KrMouseEvent.Type.DOUBLE_CLICK
             }
             lastMousePressedButton = button
-            lastMousePressedTime = nanoTime.toFloat()
+            lastMousePressedTime = nanoTime
         }
 
-        if (mouseEvent.type == KrMouseEvent.Type.PRESSED) {
-            notifyMousePressed(mouseEvent)
-        } else {
-            notifyMouseDoubleClicked(mouseEvent)
-        }
-
-        return mouseEvent.handled()
+        enqueue(mouseEvent)
+        isPressConsumed = isConsumingMouseEventAt(screenX.toFloat(), screenY.toFloat())
+        return isPressConsumed
     }
 
     override fun touchUp(screenX: Int, screenY: Int, pointer: Int, button: Int): Boolean {
@@ -142,105 +162,196 @@ class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
         screenX += inputOffsetX
         screenY += inputOffsetY
 
-        isDragging = false
-        val mouseEvent = createMouseEvent(KrMouseEvent.Type.RELEASED, screenX, screenY, button)
-
-        notifyMouseReleased(mouseEvent)
-
-        return mouseEvent.handled()
+        enqueue(createMouseEvent(KrMouseEvent.Type.RELEASED, screenX, screenY, button))
+        val isConsumed = isPressConsumed
+        isPressConsumed = false
+        return isConsumed
     }
 
     override fun touchDragged(screenX: Int, screenY: Int, pointer: Int): Boolean {
+        val isConsumed = mouseMoved(screenX, screenY)
+        return isPressConsumed || isConsumed
+    }
+
+    override fun mouseMoved(screenX: Int, screenY: Int): Boolean {
         var screenX = screenX
         var screenY = screenY
 
         screenX += inputOffsetX
         screenY += inputOffsetY
 
-        val mouseEvent = createMouseEvent(KrMouseEvent.Type.MOVED, screenX, screenY, -1)
-        mousePosition.set(screenX.toFloat(), screenY.toFloat())
+        val x = screenX.toFloat()
+        val y = screenY.toFloat()
+
+        // merge with the previous move, if nothing happened in between
+        val lastEvent = if (eventQueue.size > 0) eventQueue.peek() else null
+        if (lastEvent is KrMouseEvent && lastEvent.type == KrMouseEvent.Type.MOVED) {
+            lastEvent.deltaMove!!.add(x - pointerPosition.x, y - pointerPosition.y)
+            lastEvent.screenPosition!!.set(x, y)
+            lastEvent.isAltDown = isAltPressed
+            lastEvent.isCtrlDown = isCtrlPressed
+            lastEvent.isShiftDown = isShiftPressed
+            lastEvent.timestamp = System.nanoTime()
+            pointerPosition.set(x, y)
+            return isConsumingMouseEventAt(x, y)
+        }
 
-        notifyMouseMoved(mouseEvent)
+        enqueue(createMouseEvent(KrMouseEvent.Type.MOVED, screenX, screenY, -1))
+        return isConsumingMouseEventAt(x, y)
+    }
 
-        return mouseEvent.handled()
+    override fun scrolled(amount: Int): Boolean {
+        val scrollEvent = KrScrollEvent.obtain(amount.toFloat())
+        scrollEvent.timestamp = System.nanoTime()
+        enqueue(scrollEvent)
+        return isConsumingMouseEventAt(pointerPosition.x, pointerPosition.y)
     }
 
-    override fun mouseMoved(screenX: Int, screenY: Int): Boolean {
-        var screenX = screenX
-        var screenY = screenY
+    /**
+     * Dispatches the queued events to the listeners, in the order in which they were received, and
+     * releases them. Generates the key repeat events that are due. Must be called once per frame,
+     * from the UI thread.
+     */
+    override fun dispatchQueuedEvents() {
+        updateKeyRepeat(System.nanoTime())
+
+        // events queued while dispatching are kept for the next frame
+        val events = eventQueue
+        eventQueue = dispatchedEvents
+        dispatchedEvents = events
+
+        for (i in 0 until events.size) {
+            val event = events[i]
+            when (event) {
+                is KrMouseEvent -> dispatchMouseEvent(event)
+                is KrKeyEvent -> dispatchKeyEvent(event)
+                is KrScrollEvent -> notifyScrolledEvent(event)
+            }
+            event.release()
+        }
+        events.clear()
+    }
 
-        screenX += inputOffsetX
-        screenY += inputOffsetY
+    override fun hasQueuedEvents(): Boolean {
+        return eventQueue.size > 0 || repeatedKeyCode != NO_KEY
+    }
 
-        val mouseEvent = createMouseEvent(KrMouseEvent.Type.MOVED, screenX, screenY, -1)
-        mousePosition.set(screenX.toFloat(), screenY.toFloat())
+    /**
+     * Returns the number of events waiting to be dispatched.
+     */
+    fun getQueuedEventCount(): Int {
+        return eventQueue.size
+    }
 
-        notifyMouseMoved(mouseEvent)
+    private fun dispatchMouseEvent(event: KrMouseEvent) {
+        isAltDown = event.isAltDown
+        isCtrlDown = event.isCtrlDown
+        isShiftDown = event.isShiftDown
+        mousePosition.set(event.screenPosition)
+
+        when (event.type) {
+            KrMouseEvent.Type.MOVED -> notifyMouseMoved(event)
+            KrMouseEvent.Type.PRESSED -> {
+                isDragging = true
+                notifyMousePressed(event)
+            }
+            KrMouseEvent.Type.DOUBLE_CLICK -> {
+                isDragging = true
+                notifyMouseDoubleClicked(event)
+            }
+            KrMouseEvent.Type.RELEASED -> {
+                isDragging = false
+                notifyMouseReleased(event)
+            }
+        }
+    }
+
+    private fun dispatchKeyEvent(event: KrKeyEvent) {
+        isAltDown = event.isAltDown
+        isCtrlDown = event.isCtrlDown
+        isShiftDown = event.isShiftDown
 
-        return mouseEvent.handled()
+        when (event.type) {
+            KrKeyEvent.Type.PRESSED -> notifyKeyPressed(event)
+            KrKeyEvent.Type.RELEASED -> notifyKeyReleased(event)
+        }
     }
 
-    override fun scrolled(amount: Int): Boolean {
-        val scrollEvent = KrScrollEvent(amount.toFloat())
+    private fun isConsumingMouseEventAt(x: Float, y: Float): Boolean {
+        for (i in 0 until listeners.size) {
+            if (listeners[i].isConsumingMouseEventAt(x, y)) {
+                return true
+            }
+        }
+        return false
+    }
 
-        notifyScrolledEvent(scrollEvent)
+    private fun isConsumingKeyEvents(): Boolean {
+        for (i in 0 until listeners.size) {
+            if (listeners[i].isConsumingKeyEvents()) {
+                return true
+            }
+        }
+        return false
+    }
 
-        return scrollEvent.handled()
+    private fun enqueue(event: KrEvent) {
+        eventQueue.add(event)
     }
 
     private fun createKeyEvent(type: KrKeyEvent.Type, keycode: Int): KrKeyEvent {
-        return KrKeyEvent (
-                type        = type,
-                keycode     = keycode,
-                value       = "",
-                isAltDown   = isAltDown,
-                isCtrlDown  = isCtrlDown,
-                isShiftDown = isShiftDown
-        )
+        val event = KrKeyEvent.obtain(type, keycode, "", isAltPressed, isCtrlPressed, isShiftPressed)
+        event.timestamp = System.nanoTime()
+        return event
     }
 
     private fun createKeyEvent(type: KrKeyEvent.Type, character: Char): KrKeyEvent {
-        return KrKeyEvent (
-                type        = type,
-                keycode     = character.toInt(),
-                value       = character.toString(),
-                isAltDown   = isAltDown,
-                isCtrlDown  = isCtrlDown,
-                isShiftDown = isShiftDown
-        )
+        val event = KrKeyEvent.obtain(type, character.toInt(), character.toString(), isAltPressed, isCtrlPressed, isShiftPressed)
+        event.timestamp = System.nanoTime()
+        return event
     }
 
+    /**
+     * Obtains a pooled mouse event, and updates the tracked pointer position. The delta is computed from
+     * the previously tracked position.
+     */
     private fun createMouseEvent(type: KrMouseEvent.Type, screenX: Int, screenY: Int, button: Int): KrMouseEvent {
-        val eventButton = getButtonFor(button)
-        val mousePosition = Vector2(screenX.toFloat(), screenY.toFloat())
-        val mouseDelta = Vector2(Gdx.input.deltaX.toFloat(), Gdx.input.deltaY.toFloat())
-
-        return KrMouseEvent (
-                type           = type,
-                button         = eventButton,
-                screenPosition = mousePosition,
-                deltaMove      = mouseDelta,
-                isAltDown      = isAltDown,
-                isCtrlDown     = isCtrlDown,
-                isShiftDown    = isShiftDown
-        )
-    }
-
-    fun scheduleKeyRepeatTask(keycode: Int) {
+        val x = screenX.toFloat()
+        val y = screenY.toFloat()
+        val deltaX = x - pointerPosition.x
+        val deltaY = y - pointerPosition.y
+        pointerPosition.set(x, y)
+
+        val event = KrMouseEvent.obtain(type, getButtonFor(button), x, y, deltaX, deltaY, isAltPressed, isCtrlPressed, isShiftPressed)
+        event.timestamp = System.nanoTime()
+        return event
+    }
+
+    /**
+     * Starts repeating the key press of the specified key, until the key is released.
+     */
+    fun scheduleKeyRepeat(keycode: Int) {
         if (!keyRepeat) {
             return
         }
 
-        val keyRepeatTask = getKeyRepeatTask()
-        if (!keyRepeatTask.isScheduled || keyRepeatTask.keycode != keycode) {
-            keyRepeatTask.keycode = keycode
-            keyRepeatTask.cancel()
-            Timer.schedule(keyRepeatTask, KEY_REPEAT_INITIAL_TIME, KEY_REPEAT_TIME)
+        if (repeatedKeyCode != keycode) {
+            repeatedKeyCode = keycode
+            nextKeyRepeatTime = System.nanoTime() + KEY_REPEAT_INITIAL_TIME
         }
     }
 
-    private fun getKeyRepeatTask(): KeyRepeatTask {
-        return keyRepeatTask
+    /**
+     * Queues a key press for the repeated key if it's due. At most one repeat is generated per frame,
+     * so a long frame doesn't cause a burst of key presses.
+     */
+    private fun updateKeyRepeat(nanoTime: Long) {
+        if (repeatedKeyCode == NO_KEY || nanoTime < nextKeyRepeatTime) {
+            return
+        }
+
+        nextKeyRepeatTime = nanoTime + KEY_REPEAT_TIME
+        enqueue(createKeyEvent(KrKeyEvent.Type.PRESSED, repeatedKeyCode))
     }
 
     override fun isAltDown(): Boolean {
@@ -272,49 +383,56 @@ class KrLwjgl3InputSource : InputAdapter(), KrInputSource {
     }
 
     private fun notifyMouseMoved(event: KrMouseEvent) {
-        listeners.forEach { l -> l.mouseMoved(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].mouseMoved(event)
+        }
     }
 
     private fun notifyMousePressed(event: KrMouseEvent) {
-        listeners.forEach { l -> l.mousePressed(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].mousePressed(event)
+        }
     }
 
     private fun notifyMouseReleased(event: KrMouseEvent) {
-        listeners.forEach { l -> l.mouseReleased(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].mouseReleased(event)
+        }
     }
 
     private fun notifyMouseDoubleClicked(event: KrMouseEvent) {
-        listeners.forEach { l -> l.mouseDoubleClicked(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].mouseDoubleClicked(event)
+        }
     }
 
     private fun notifyKeyPressed(event: KrKeyEvent) {
-        listeners.forEach { l -> l.keyPressed(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].keyPressed(event)
+        }
     }
 
     private fun notifyKeyReleased(event: KrKeyEvent) {
-        listeners.forEach { l -> l.keyReleased(event) }
+        for (i in 0 until listeners.size) {
+            listeners[i].keyReleased(event)
+        }
     }
 
     private fun notifyScrolledEvent(event: KrScrollEvent) {
-        listeners.forEach { l -> l.scrolledEvent(event) }
-    }
-
-    /**
-     * Used to schedule repeated key presses for arrows
-     */
-    private inner class KeyRepeatTask : Timer.Task() {
-        var keycode: Int = 0
-
-        override fun run() {
-            keyDown(keycode)
+        for (i in 0 until listeners.size) {
+            listeners[i].scrolledEvent(event)
         }
     }
 
     companion object {
 
-        private const val KEY_REPEAT_INITIAL_TIME = 0.4f
+        private const val NO_KEY = -1
+
+        private const val KEY_REPEAT_INITIAL_TIME = 400000000L
+
+        private const val KEY_REPEAT_TIME = 100000000L
 
-        private const val KEY_REPEAT_TIME = 0.1f
+        private const val DOUBLE_CLICK_TIME = 200000000L
 
         private val metaKeys = Arrays.asList(
                 ALT_LEFT, ALT_RIGHT, CONTROL_LEFT, CONTROL_RIGHT, SHIFT_LEFT, SHIFT_RIGHT)
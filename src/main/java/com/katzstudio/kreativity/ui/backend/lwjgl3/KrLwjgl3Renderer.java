@@ -1,54 +1,108 @@
 package com.katzstudio.kreativity.ui.backend.lwjgl3;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
-import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.NumberUtils;
 import com.katzstudio.kreativity.ui.KrColor;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
 import com.katzstudio.kreativity.ui.render.KrBrush;
 import com.katzstudio.kreativity.ui.render.KrColorBrush;
 import com.katzstudio.kreativity.ui.render.KrDrawableBrush;
 import com.katzstudio.kreativity.ui.render.KrPen;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.util.Arrays;
+
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 
 /**
  * {@link KrRenderer} implementation for the libgdx lwjgl3 backend
+ * <p>
+ * Everything is drawn as textured quads through a single {@link KrLwjgl3Batch}, which stays open for the
+ * whole frame. Lines and solid rectangles are drawn by stretching the white texel of the skin texture,
+ * so they are batched together with the nine-patches of the skin.
+ * <p>
+ * Translations are kept on an offset stack and applied to the vertices by the batch, so translating
+ * never flushes it.
+ * <p>
+ * Clip rectangles are kept on a stack as well. A clip that contains the current clip rectangle has no
+ * effect and is skipped. The others are applied by the batch on the CPU.
  */
 public class KrLwjgl3Renderer extends KrRenderer {
 
-    private final RenderMode spriteBatchRenderMode;
+    private static final int STATE_FLOATS = 5;
 
-    private final RenderMode lineShapeRenderMode;
+    private static final int STATE_INTS = 4;
 
-    private final RenderMode filledShapeRenderMode;
+    private static final int STATE_OBJECTS = 2;
 
-    private final RenderMode nullRenderMode;
+    private final KrLwjgl3Batch batch;
 
     private final SpriteBatch spriteBatch;
 
-    private final ShapeRenderer shapeRenderer;
+    private TextureRegion whiteTexel;
+
+    /**
+     * The number of draw calls issued during the last frame.
+     */
+    @Getter private int renderCalls;
+
+    /**
+     * The number of clip rectangles applied during the last frame.
+     */
+    @Getter private int clipCount;
+
+    /**
+     * The number of clip rectangles skipped during the last frame, because they contained the current clip.
+     */
+    @Getter private int elidedClipCount;
 
-    private RenderMode currentRenderMode;
+    /**
+     * The number of times the batch was flushed during the last frame, to clip quads with a scissor test.
+     */
+    @Getter private int scissorFlushCount;
 
     @Setter @Getter private BitmapFont font;
 
+    private final Color savedFontColor = new Color();
+
     private Vector2 translation;
 
+    private float[] translationStack = new float[32];
+
+    private int translationStackSize;
+
+    private float[] clipStack = new float[32];
+
+    private boolean[] isClipElided = new boolean[8];
+
+    private int clipStackSize;
+
+    private int appliedClipCount;
+
     @Getter private Vector2 viewportSize = new Vector2(0, 0);
 
-    private Color penColor;
+    /**
+     * The pen color, packed as float bits (see {@link Color#toFloatBits()}), without the opacity.
+     */
+    private float penColor;
 
-    private Color colorBrush;
+    /**
+     * The brush color, packed as float bits, without the opacity.
+     */
+    private float colorBrush;
 
     private Drawable drawableBrush;
 
@@ -56,60 +110,189 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Getter private float opacity = 1;
 
-    public KrLwjgl3Renderer() {
-        spriteBatch = new SpriteBatch(100);
-        shapeRenderer = new ShapeRenderer(100);
-        shapeRenderer.setAutoShapeType(true);
-        translation = new Vector2(0, 0);
+    /**
+     * The states saved by {@link #pushState()}. Each state is stored as {@link #STATE_FLOATS} floats (pen, brush,
+     * opacity, translation), {@link #STATE_INTS} ints (brush type, translation stack size, clip stack size, applied
+     * clip count) and {@link #STATE_OBJECTS} objects (font, drawable brush).
+     */
+    private float[] stateFloats = new float[16 * STATE_FLOATS];
+
+    private int[] stateInts = new int[16 * STATE_INTS];
+
+    private Object[] stateObjects = new Object[16 * STATE_OBJECTS];
 
-        spriteBatchRenderMode = new SpriteBatchRenderMode();
-        lineShapeRenderMode = new ShapeRenderMode(ShapeRenderer.ShapeType.Line);
-        filledShapeRenderMode = new ShapeRenderMode(ShapeRenderer.ShapeType.Filled);
-        nullRenderMode = new NullRenderMode();
+    private int stateStackSize;
 
-        currentRenderMode = nullRenderMode;
+    private boolean backBufferEnabled;
 
-        penColor = Color.BLACK;
-        colorBrush = KrColor.TRANSPARENT;
+    private FrameBuffer backBuffer;
+
+    public KrLwjgl3Renderer() {
+        this(new KrLwjgl3Batch(1000));
+    }
+
+    KrLwjgl3Renderer(KrLwjgl3Batch batch) {
+        this.batch = batch;
+        spriteBatch = batch.getSpriteBatch();
+        translation = new Vector2(0, 0);
+
+        penColor = Color.BLACK.toFloatBits();
+        colorBrush = KrColor.TRANSPARENT.toFloatBits();
         brushType = BrushType.COLOR;
     }
 
     @Override
     public void beginFrame() {
-        currentRenderMode = nullRenderMode;
+        resetTranslation();
+        stateStackSize = 0;
+        clipStackSize = 0;
+        appliedClipCount = 0;
+        clipCount = 0;
+        elidedClipCount = 0;
+
+        if (backBufferEnabled) {
+            ensureBackBuffer();
+            backBuffer.begin();
+
+            // the back buffer stores premultiplied colors, so it can be blended correctly when presented
+            Gdx.gl.glBlendFuncSeparate(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+            batch.setBlendFunction(-1, -1);
+        }
+
+        batch.begin();
     }
 
     @Override
     public void endFrame() {
-        flush();
-        translate(-translation.x, -translation.y);
+        batch.end();
+        resetTranslation();
+        clipStackSize = 0;
+        appliedClipCount = 0;
+        renderCalls = batch.getRenderCalls();
+        scissorFlushCount = batch.getScissorFlushCount();
+
+        if (backBufferEnabled) {
+            backBuffer.end();
+            presentBackBuffer();
+        }
+    }
+
+    @Override
+    public boolean setBackBufferEnabled(boolean enabled) {
+        backBufferEnabled = enabled;
+        if (!enabled && backBuffer != null) {
+            backBuffer.dispose();
+            backBuffer = null;
+        }
+        return enabled;
+    }
+
+    private void ensureBackBuffer() {
+        // sized in physical pixels, as the scissor rectangles are scaled to those on hdpi displays
+        int width = (int) (viewportSize.x * Gdx.graphics.getBackBufferWidth() / Math.max(1, Gdx.graphics.getWidth()));
+        int height = (int) (viewportSize.y * Gdx.graphics.getBackBufferHeight() / Math.max(1, Gdx.graphics.getHeight()));
+        if (backBuffer != null && backBuffer.getWidth() == width && backBuffer.getHeight() == height) {
+            return;
+        }
+
+        if (backBuffer != null) {
+            backBuffer.dispose();
+        }
+        backBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, Math.max(1, width), Math.max(1, height), false);
+    }
+
+    private void presentBackBuffer() {
+        spriteBatch.setBlendFunction(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        spriteBatch.setColor(Color.WHITE);
+        spriteBatch.begin();
+        spriteBatch.draw(backBuffer.getColorBufferTexture(), 0, 0, viewportSize.x, viewportSize.y, 0, 0,
+                backBuffer.getWidth(), backBuffer.getHeight(), false, true);
+        spriteBatch.end();
+        spriteBatch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
     }
 
     @Override
     public void drawText(String text, float x, float y) {
-        Color color = getAlphaMultiplied(penColor);
+        savedFontColor.set(font.getColor());
+        setFontColor(getAlphaMultiplied(penColor));
+        font.draw(batch, text, x, viewportSize.y - y);
+        font.setColor(savedFontColor);
+    }
 
-        ensureSpriteBatchOpen();
+    @Override
+    public void drawText(KrMeasuredString text, float x, float y) {
+        if (text.getFont() != font || text.getString().isEmpty()) {
+            drawText(text.getString(), x, y);
+            return;
+        }
 
-        Color originalFontColor = font.getColor();
+        drawGlyphs(text.getGlyphCache(), x, viewportSize.y - y, getAlphaMultiplied(penColor));
+    }
 
-        font.setColor(color);
-        font.draw(spriteBatch, text, x, viewportSize.y - y);
+    @Override
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        if (text.getFont() != font || text.getString().isEmpty() || shadowOffset.equals(Vector2.Zero)) {
+            drawTextWithShadow(text.getString(), position, shadowOffset, shadowColor);
+            return;
+        }
 
-        font.setColor(originalFontColor);
+        BitmapFontCache glyphs = text.getGlyphCache();
+        float y = viewportSize.y - position.y;
+        drawGlyphs(glyphs, position.x + shadowOffset.x, y - shadowOffset.y, getAlphaMultiplied(shadowColor.toFloatBits()));
+        drawGlyphs(glyphs, position.x, y, getAlphaMultiplied(penColor));
+    }
+
+    /**
+     * Appends the cached glyphs of a string to the batch.
+     *
+     * @param x     the x coordinate of the string, in batch coordinates
+     * @param y     the y coordinate of the string, in batch coordinates
+     * @param color the packed color of the glyphs
+     */
+    private void drawGlyphs(BitmapFontCache glyphs, float x, float y, float color) {
+        // the glyphs were laid out at the origin, so moving them keeps them on whole pixels
+        if (glyphs.usesIntegerPositions()) {
+            x = Math.round(x);
+            y = Math.round(y);
+        }
 
-        Pools.get(Color.class).free(color);
+        Array<TextureRegion> regions = glyphs.getFont().getRegions();
+        for (int page = 0; page < regions.size; ++page) {
+            int count = glyphs.getVertexCount(page);
+            if (count > 0) {
+                batch.drawTinted(regions.get(page).getTexture(), glyphs.getVertices(page), 0, count, x, y, color);
+            }
+        }
     }
 
-    private Color getAlphaMultiplied(Color color) {
-        Color multipliedColor = Pools.get(Color.class).obtain();
-        multipliedColor.set(color);
-        multipliedColor.a *= getOpacity();
-        return multipliedColor;
+    /**
+     * Multiplies the alpha of a packed color with the opacity of the renderer.
+     */
+    private float getAlphaMultiplied(float color) {
+        if (opacity >= 1) {
+            return color;
+        }
+
+        int abgr = NumberUtils.floatToIntColor(color);
+        int alpha = (int) ((abgr >>> 24) * Math.max(0, opacity));
+        return NumberUtils.intToFloatColor((abgr & 0x00ffffff) | (alpha << 24));
     }
 
-    private void freeColor(Color color) {
-        Pools.get(Color.class).free(color);
+    /**
+     * Sets the color of the font. The font is shared with the rest of the application, so its color is saved in
+     * {@link #savedFontColor} first, and restored after drawing.
+     */
+    private void setFontColor(float color) {
+        int abgr = NumberUtils.floatToIntColor(color);
+        font.setColor((abgr & 0xff) / 255f, ((abgr >>> 8) & 0xff) / 255f, ((abgr >>> 16) & 0xff) / 255f, (abgr >>> 24) / 255f);
+    }
+
+    /**
+     * Converts an RGBA8888 color to packed float bits.
+     */
+    private static float toFloatBits(int rgba) {
+        int abgr = ((rgba & 0xff) << 24) | (((rgba >>> 8) & 0xff) << 16) | (((rgba >>> 16) & 0xff) << 8) | (rgba >>> 24);
+        return NumberUtils.intToFloatColor(abgr);
     }
 
     @Override
@@ -119,90 +302,99 @@ public class KrLwjgl3Renderer extends KrRenderer {
             return;
         }
 
-        Color originalFontColor = font.getColor();
-
-        ensureSpriteBatchOpen();
+        savedFontColor.set(font.getColor());
 
         // render shadow
-        Color color = getAlphaMultiplied(shadowColor);
-        font.setColor(color);
-        font.draw(spriteBatch, text, position.x + shadowOffset.x, viewportSize.y - position.y - shadowOffset.y);
-        freeColor(color);
+        setFontColor(getAlphaMultiplied(shadowColor.toFloatBits()));
+        font.draw(batch, text, position.x + shadowOffset.x, viewportSize.y - position.y - shadowOffset.y);
 
         // render text
-        color = getAlphaMultiplied(penColor);
-        font.setColor(color);
-        font.draw(spriteBatch, text, position.x, viewportSize.y - position.y);
-        freeColor(color);
+        setFontColor(getAlphaMultiplied(penColor));
+        font.draw(batch, text, position.x, viewportSize.y - position.y);
 
-        font.setColor(originalFontColor);
+        font.setColor(savedFontColor);
     }
 
     @Override
     public void drawRect(float x, float y, float w, float h) {
-        Color color = getAlphaMultiplied(penColor);
+        batch.setColor(getAlphaMultiplied(penColor));
 
-        ensureShapeRendererOpen(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(color);
-
-        drawLineInternal(x, y, x + w - 1, y);
-        drawLineInternal(x, y, x, y + h - 1);
-        drawLineInternal(x + w - 1, y, x + w - 1, y + h - 1);
-        drawLineInternal(x, y + h - 1, x + w - 1, y + h - 1);
+        if (w <= 2 || h <= 2) {
+            drawSolidRect(x, y, w, h);
+            return;
+        }
 
-        freeColor(color);
+        drawSolidRect(x, y, w, 1);
+        drawSolidRect(x, y + h - 1, w, 1);
+        drawSolidRect(x, y + 1, 1, h - 2);
+        drawSolidRect(x + w - 1, y + 1, 1, h - 2);
     }
 
     @Override
     public void drawLine(float x1, float y1, float x2, float y2) {
-        Color color = getAlphaMultiplied(penColor);
+        batch.setColor(getAlphaMultiplied(penColor));
+
+        // lines cover the pixels of both end points, like a rectangle outline does
+        if (y1 == y2) {
+            drawSolidRect(Math.min(x1, x2), y1, Math.abs(x2 - x1) + 1, 1);
+        } else if (x1 == x2) {
+            drawSolidRect(x1, Math.min(y1, y2), 1, Math.abs(y2 - y1) + 1);
+        } else {
+            drawDiagonalLine(x1 + 0.5f, y1 + 0.5f, x2 + 0.5f, y2 + 0.5f);
+        }
+    }
+
+    /**
+     * Draws a one pixel wide quad between the centers of two pixels.
+     */
+    private void drawDiagonalLine(float x1, float y1, float x2, float y2) {
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        float rotation = (float) Math.toDegrees(Math.atan2(y1 - y2, dx));
 
-        ensureShapeRendererOpen(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(color);
-        drawLineInternal(x1, y1, x2, y2);
+        TextureRegion texel = getWhiteTexel();
+        batch.draw(texel, x1, viewportSize.y - y1 - 0.5f, 0, 0.5f, length, 1, 1, 1, rotation);
+    }
 
-        freeColor(color);
+    /**
+     * Fills a rectangle with the current batch color.
+     */
+    private void drawSolidRect(float x, float y, float w, float h) {
+        batch.draw(getWhiteTexel(), x, viewportSize.y - y - h, w, h);
     }
 
-    private void drawLineInternal(float x1, float y1, float x2, float y2) {
-        shapeRenderer.line(x1, viewportSize.y - y1, x2 + 1, viewportSize.y - y2 - 1);
+    private TextureRegion getWhiteTexel() {
+        if (whiteTexel == null) {
+            whiteTexel = getDefaultToolkit().getSkin().getWhiteTexel();
+        }
+        return whiteTexel;
     }
 
     @Override
     public void fillRect(float x, float y, float w, float h) {
         if (brushType == BrushType.DRAWABLE) {
-            ensureSpriteBatchOpen();
-            spriteBatch.setColor(1, 1, 1, getOpacity());
-            drawableBrush.draw(spriteBatch, x, viewportSize.y - y - h, w, h);
+            batch.setColor(1, 1, 1, getOpacity());
+            drawableBrush.draw(batch, x, viewportSize.y - y - h, w, h);
         }
 
         if (brushType == BrushType.COLOR) {
-            Color color = getAlphaMultiplied(colorBrush);
-            ensureShapeRendererOpen(ShapeRenderer.ShapeType.Filled);
-            shapeRenderer.setColor(color);
-            shapeRenderer.rect(x, viewportSize.y - y - h, w, h);
-            freeColor(color);
+            batch.setColor(getAlphaMultiplied(colorBrush));
+            drawSolidRect(x, y, w, h);
         }
     }
 
     @Override
     public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
         Drawable drawable = getRoundedRectDrawable(cornerRadius);
-        Color originalColor = null;
 
-        ensureSpriteBatchOpen();
         if (brushType == BrushType.COLOR) {
-            originalColor = spriteBatch.getColor();
-            Color color = getAlphaMultiplied(colorBrush);
-            spriteBatch.setColor(color);
-            freeColor(color);
+            batch.setColor(getAlphaMultiplied(colorBrush));
+        } else {
+            batch.setColor(1, 1, 1, getOpacity());
         }
 
-        drawable.draw(spriteBatch, x, viewportSize.y - y - h, w, h);
-
-        if (originalColor != null) {
-            spriteBatch.setColor(originalColor);
-        }
+        drawable.draw(batch, x, viewportSize.y - y - h, w, h);
     }
 
     private Drawable getRoundedRectDrawable(int radius) {
@@ -225,35 +417,125 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public void translate(float x, float y) {
-        flush();
-        translation.add(x, y);
-        spriteBatch.getTransformMatrix().translate(x, -y, 0);
-        shapeRenderer.translate(x, -y, 0);
+        // widgets undo their translation with the opposite one, which pops the stack and restores the exact
+        // previous offset, instead of accumulating rounding errors
+        int top = translationStackSize - 4;
+        if (top >= 0 && x == -translationStack[top + 2] && y == -translationStack[top + 3]) {
+            translation.set(translationStack[top], translationStack[top + 1]);
+            translationStackSize = top;
+        } else {
+            if (translationStackSize == translationStack.length) {
+                translationStack = Arrays.copyOf(translationStack, translationStack.length * 2);
+            }
+            translationStack[translationStackSize++] = translation.x;
+            translationStack[translationStackSize++] = translation.y;
+            translationStack[translationStackSize++] = x;
+            translationStack[translationStackSize++] = y;
+            translation.add(x, y);
+        }
+
+        batch.setOffset(translation.x, -translation.y);
+    }
+
+    private void resetTranslation() {
+        translationStackSize = 0;
+        translation.set(0, 0);
+        batch.setOffset(0, 0);
     }
 
     @Override
     public boolean beginClip(float x, float y, float width, float height) {
-        flush();
-        Rectangle clipRectangle = Pools.obtain(Rectangle.class);
-        clipRectangle.set(x + translation.x, viewportSize.y - y - height - translation.y, width, height);
-        if (ScissorStack.pushScissors(clipRectangle)) {
+        // empty clips are not applied, so the children of empty widgets are rendered unclipped
+        if (width < 1 || height < 1) {
+            return false;
+        }
+
+        float x1 = x + translation.x;
+        float y1 = viewportSize.y - y - height - translation.y;
+        float x2 = x1 + width;
+        float y2 = y1 + height;
+
+        int level = clipStackSize;
+        if (level == isClipElided.length) {
+            isClipElided = Arrays.copyOf(isClipElided, level * 2);
+            clipStack = Arrays.copyOf(clipStack, level * 8);
+        }
+
+        float currentX1 = getCurrentClip(0);
+        float currentY1 = getCurrentClip(1);
+        float currentX2 = getCurrentClip(2);
+        float currentY2 = getCurrentClip(3);
+        int index = level * 4;
+        clipStackSize += 1;
+
+        if (x1 <= currentX1 && y1 <= currentY1 && x2 >= currentX2 && y2 >= currentY2) {
+            isClipElided[level] = true;
+            clipStack[index] = currentX1;
+            clipStack[index + 1] = currentY1;
+            clipStack[index + 2] = currentX2;
+            clipStack[index + 3] = currentY2;
+            elidedClipCount += 1;
             return true;
         }
-        Pools.free(clipRectangle);
-        return false;
+
+        x1 = Math.max(x1, currentX1);
+        y1 = Math.max(y1, currentY1);
+        isClipElided[level] = false;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = Math.max(x1, Math.min(x2, currentX2));
+        clipStack[index + 3] = Math.max(y1, Math.min(y2, currentY2));
+        appliedClipCount += 1;
+        clipCount += 1;
+        batch.setClip(clipStack[index], clipStack[index + 1], clipStack[index + 2], clipStack[index + 3]);
+        return true;
     }
 
     @Override
     public void endClip() {
-        flush();
-        Pools.free(ScissorStack.popScissors());
+        clipStackSize -= 1;
+        if (isClipElided[clipStackSize]) {
+            return;
+        }
+
+        appliedClipCount -= 1;
+        if (appliedClipCount == 0) {
+            batch.clearClip();
+        } else {
+            batch.setClip(getCurrentClip(0), getCurrentClip(1), getCurrentClip(2), getCurrentClip(3));
+        }
+    }
+
+    /**
+     * Returns a component (x1, y1, x2, y2) of the current clip rectangle, in batch coordinates. Without
+     * any clip, the current clip rectangle is the viewport.
+     */
+    private float getCurrentClip(int component) {
+        if (clipStackSize == 0) {
+            return component < 2 ? 0 : (component == 2 ? viewportSize.x : viewportSize.y);
+        }
+        return clipStack[(clipStackSize - 1) * 4 + component];
+    }
+
+    @Override
+    public boolean isClipped(float x, float y, float width, float height) {
+        float x1 = x + translation.x;
+        float y1 = viewportSize.y - y - height - translation.y;
+        return x1 >= getCurrentClip(2) || x1 + width <= getCurrentClip(0)
+                || y1 >= getCurrentClip(3) || y1 + height <= getCurrentClip(1);
+    }
+
+    @Override
+    public void clearRect(float x, float y, float width, float height) {
+        float x1 = x + translation.x;
+        float y1 = viewportSize.y - y - height - translation.y;
+        batch.clear(x1, y1, x1 + width, y1 + height);
     }
 
     @Override
     public void setViewportSize(float width, float height) {
         viewportSize.set(width, height);
-        spriteBatch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
-        shapeRenderer.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        batch.setProjectionMatrix(batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height));
     }
 
     @Override
@@ -265,19 +547,21 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public KrPen getPen() {
-        return new KrPen(1, penColor);
+        int abgr = NumberUtils.floatToIntColor(penColor);
+        return new KrPen(1, new Color((abgr & 0xff) / 255f, ((abgr >>> 8) & 0xff) / 255f,
+                ((abgr >>> 16) & 0xff) / 255f, (abgr >>> 24) / 255f));
     }
 
     @Override
     public void setBrush(KrBrush brush) {
         if (brush instanceof KrDrawableBrush) {
             brushType = BrushType.DRAWABLE;
-            drawableBrush = ((KrDrawableBrush) drawableBrush).getDrawable();
+            drawableBrush = ((KrDrawableBrush) brush).getDrawable();
         }
 
         if (brush instanceof KrColorBrush) {
             brushType = BrushType.COLOR;
-            colorBrush = ((KrColorBrush) brush).getColor();
+            colorBrush = ((KrColorBrush) brush).getColor().toFloatBits();
         }
     }
 
@@ -290,7 +574,13 @@ public class KrLwjgl3Renderer extends KrRenderer {
     @Override
     public void setBrush(Color color) {
         brushType = BrushType.COLOR;
-        colorBrush = color;
+        colorBrush = color != null ? color.toFloatBits() : 0;
+    }
+
+    @Override
+    public void setBrush(int rgba) {
+        brushType = BrushType.COLOR;
+        colorBrush = toFloatBits(rgba);
     }
 
     @Override
@@ -300,90 +590,100 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public void setPen(KrPen pen) {
-        penColor = pen.getColor();
+        penColor = pen.getColor().toFloatBits();
     }
 
     @Override
     public void setPen(int size, Color color) {
-        penColor = color;
+        penColor = color.toFloatBits();
     }
 
     @Override
-    public void popState() {
-        // TODO(alex): implement
+    public void setPen(int rgba) {
+        penColor = toFloatBits(rgba);
     }
 
+    /**
+     * Restores the state saved by the last call to {@link #pushState()}. The translation and the clips applied since
+     * then are undone, and the batch is only updated if its restored offset or clip rectangle actually differs.
+     */
     @Override
-    public void pushState() {
-        // TODO(alex): implement
-    }
-
-    private void ensureSpriteBatchOpen() {
-        if (currentRenderMode != spriteBatchRenderMode) {
-            currentRenderMode.end();
-            currentRenderMode = spriteBatchRenderMode;
-            currentRenderMode.begin();
+    public void popState() {
+        if (stateStackSize == 0) {
+            throw new IllegalStateException("popState() called without a matching pushState()");
         }
-    }
 
-    private void ensureShapeRendererOpen(ShapeRenderer.ShapeType shapeType) {
-        RenderMode requestedRenderMode = shapeType == ShapeRenderer.ShapeType.Line ? lineShapeRenderMode : filledShapeRenderMode;
-        if (currentRenderMode != requestedRenderMode) {
-            currentRenderMode.end();
-            currentRenderMode = requestedRenderMode;
-            currentRenderMode.begin();
+        stateStackSize -= 1;
+        int floats = stateStackSize * STATE_FLOATS;
+        int ints = stateStackSize * STATE_INTS;
+        int objects = stateStackSize * STATE_OBJECTS;
+
+        penColor = stateFloats[floats];
+        colorBrush = stateFloats[floats + 1];
+        opacity = stateFloats[floats + 2];
+        brushType = stateInts[ints] == 0 ? BrushType.COLOR : BrushType.DRAWABLE;
+        font = (BitmapFont) stateObjects[objects];
+        drawableBrush = (Drawable) stateObjects[objects + 1];
+
+        // don't keep references to fonts and drawables that are no longer used
+        stateObjects[objects] = null;
+        stateObjects[objects + 1] = null;
+
+        translationStackSize = stateInts[ints + 1];
+        float translationX = stateFloats[floats + 3];
+        float translationY = stateFloats[floats + 4];
+        if (translation.x != translationX || translation.y != translationY) {
+            translation.set(translationX, translationY);
+            batch.setOffset(translationX, -translationY);
         }
-    }
-
-    private void flush() {
-        currentRenderMode.end();
-        currentRenderMode = nullRenderMode;
-    }
-
-    private enum BrushType {
-        DRAWABLE, COLOR
-    }
-
-    private interface RenderMode {
-        void begin();
 
-        void end();
-    }
-
-    private class SpriteBatchRenderMode implements RenderMode {
-        @Override
-        public void begin() {
-            spriteBatch.begin();
-        }
-
-        @Override
-        public void end() {
-            spriteBatch.end();
+        // clips ended by hand since the push are left alone
+        int savedClipStackSize = stateInts[ints + 2];
+        if (clipStackSize > savedClipStackSize) {
+            clipStackSize = savedClipStackSize;
+            int savedAppliedClipCount = stateInts[ints + 3];
+            if (appliedClipCount != savedAppliedClipCount) {
+                appliedClipCount = savedAppliedClipCount;
+                if (appliedClipCount == 0) {
+                    batch.clearClip();
+                } else {
+                    batch.setClip(getCurrentClip(0), getCurrentClip(1), getCurrentClip(2), getCurrentClip(3));
+                }
+            }
         }
     }
 
-    @RequiredArgsConstructor
-    private class ShapeRenderMode implements RenderMode {
-        public final ShapeRenderer.ShapeType shapeType;
-
-        @Override
-        public void begin() {
-            shapeRenderer.begin(shapeType);
+    /**
+     * Saves the pen, brush, font, opacity, translation and clip of the renderer. The state stack is backed by
+     * arrays that only grow, so saving a state doesn't allocate once the stack is deep enough.
+     */
+    @Override
+    public void pushState() {
+        if ((stateStackSize + 1) * STATE_FLOATS > stateFloats.length) {
+            stateFloats = Arrays.copyOf(stateFloats, stateFloats.length * 2);
+            stateInts = Arrays.copyOf(stateInts, stateInts.length * 2);
+            stateObjects = Arrays.copyOf(stateObjects, stateObjects.length * 2);
         }
 
-        @Override
-        public void end() {
-            shapeRenderer.end();
-        }
-    }
+        int floats = stateStackSize * STATE_FLOATS;
+        int ints = stateStackSize * STATE_INTS;
+        int objects = stateStackSize * STATE_OBJECTS;
+        stateStackSize += 1;
 
-    private class NullRenderMode implements RenderMode {
-        @Override
-        public void begin() {
-        }
+        stateFloats[floats] = penColor;
+        stateFloats[floats + 1] = colorBrush;
+        stateFloats[floats + 2] = opacity;
+        stateFloats[floats + 3] = translation.x;
+        stateFloats[floats + 4] = translation.y;
+        stateInts[ints] = brushType == BrushType.COLOR ? 0 : 1;
+        stateInts[ints + 1] = translationStackSize;
+        stateInts[ints + 2] = clipStackSize;
+        stateInts[ints + 3] = appliedClipCount;
+        stateObjects[objects] = font;
+        stateObjects[objects + 1] = drawableBrush;
+    }
 
-        @Override
-        public void end() {
-        }
+    private enum BrushType {
+        DRAWABLE, COLOR
     }
 }
@@ -8,6 +8,7 @@ import com.katzstudio.kreativity.ui.component.renderer.KrDefaultCellRenderer;
 import com.katzstudio.kreativity.ui.event.KrMouseEvent;
 import com.katzstudio.kreativity.ui.event.KrScrollEvent;
 import com.katzstudio.kreativity.ui.layout.KrLayout.KrAbstractLayout;
+import com.katzstudio.kreativity.ui.math.KrFenwickTree;
 import com.katzstudio.kreativity.ui.model.KrItemModel;
 import com.katzstudio.kreativity.ui.model.KrSelection;
 import com.katzstudio.kreativity.ui.model.KrSelectionModel;
@@ -15,6 +16,7 @@ import lombok.Getter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntToDoubleFunction;
 
 import static com.katzstudio.kreativity.ui.KrOrientation.VERTICAL;
 
@@ -23,6 +25,9 @@ import static com.katzstudio.kreativity.ui.KrOrientation.VERTICAL;
  */
 public abstract class KrAbstractItemView extends KrWidget {
 
+    /**
+     * The height of the rows, when the view has no {@link KrRowHeightProvider}.
+     */
     protected final static int ROW_HEIGHT = 20;
 
     protected final KrItemModel model;
@@ -37,6 +42,20 @@ public abstract class KrAbstractItemView extends KrWidget {
 
     @Getter protected KrSelectionMode selectionMode = KrSelectionMode.EXTENDED;
 
+    private final Vector2 tmpVector = new Vector2();
+
+    @Getter private KrRowHeightProvider rowHeightProvider;
+
+    /**
+     * The heights of the rows, so the position of a row and the row at a position are found in O(log n).
+     */
+    private final KrFenwickTree rowHeights = new KrFenwickTree();
+
+    /**
+     * Queries the row height provider, to fill the row heights without copying them.
+     */
+    private final IntToDoubleFunction providedRowHeights = row -> rowHeightProvider.getRowHeight(row);
+
     public KrAbstractItemView(KrItemModel model) {
         this(model, new KrDefaultCellRenderer());
     }
@@ -57,9 +76,11 @@ public abstract class KrAbstractItemView extends KrWidget {
 
     private void onScroll(float v) {
         invalidate();
+        repaint();
     }
 
     private void onSelectionChanged(KrSelection oldSelection, KrSelection newSelection) {
+        repaint();
     }
 
     public void setSelectionMode(KrSelectionMode newSelectionMode) {
@@ -77,7 +98,7 @@ public abstract class KrAbstractItemView extends KrWidget {
             return;
         }
 
-        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition()));
+        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition().x, event.getScreenPosition().y, tmpVector));
         if (selectionMode == KrSelectionMode.SINGLE) {
             if (event.isCtrlDown() && selectionModel.getCurrentSelection().contains(itemIndex)) {
                 selectionModel.setSelection(KrSelection.EMPTY);
@@ -103,7 +124,7 @@ public abstract class KrAbstractItemView extends KrWidget {
     protected void mouseDoubleClickEvent(KrMouseEvent event) {
         super.mouseDoubleClickEvent(event);
 
-        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition()));
+        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition().x, event.getScreenPosition().y, tmpVector));
         notifyItemDoubleClicked(itemIndex);
         event.accept();
     }
@@ -123,11 +144,120 @@ public abstract class KrAbstractItemView extends KrWidget {
 
     @Override
     public Vector2 calculatePreferredSize() {
-        return new Vector2(100, model.getRowCount() * ROW_HEIGHT);
+        return new Vector2(100, getRowsHeight());
     }
 
     private void onModelDataChanged() {
+        updateRowHeights();
+        invalidate();
+        repaint();
+    }
+
+    /**
+     * Sets the provider of the heights of the rows. Without a provider, all the rows are {@link #ROW_HEIGHT}
+     * high. The provider is queried for every row when the model changes, and for a single row when
+     * {@link #rowHeightChanged(int)} is called.
+     */
+    public void setRowHeightProvider(KrRowHeightProvider rowHeightProvider) {
+        this.rowHeightProvider = rowHeightProvider;
+        updateRowHeights();
         invalidate();
+        repaint();
+    }
+
+    /**
+     * Queries the provider for the new height of a row, after it changed.
+     */
+    public void rowHeightChanged(int row) {
+        if (rowHeightProvider != null && row < rowHeights.size()) {
+            rowHeights.set(row, rowHeightProvider.getRowHeight(row));
+            invalidate();
+            repaint();
+        }
+    }
+
+    private void updateRowHeights() {
+        int rowCount = model.getRowCount();
+        if (rowHeightProvider == null) {
+            rowHeights.fill(rowCount, ROW_HEIGHT);
+            return;
+        }
+
+        rowHeights.fill(rowCount, providedRowHeights);
+    }
+
+    /**
+     * Returns the row heights, updated first if the row count of the model changed without notifying the view.
+     */
+    private KrFenwickTree getRowHeights() {
+        if (rowHeights.size() != model.getRowCount()) {
+            updateRowHeights();
+        }
+        return rowHeights;
+    }
+
+    /**
+     * Returns the height of all the rows.
+     */
+    protected float getRowsHeight() {
+        return (float) getRowHeights().total();
+    }
+
+    public float getRowHeight(int row) {
+        return getRowHeights().get(row);
+    }
+
+    /**
+     * Returns the row at a distance from the top of the first row, or the row count if the distance is past
+     * the last row.
+     */
+    protected int getRowAt(float offset) {
+        return getRowHeights().findIndex(offset);
+    }
+
+    /**
+     * Scrolls the view so the row is at the top of the viewport, or as close to it as possible.
+     */
+    public void scrollToRow(int row) {
+        verticalScrollBar.setValue(getRowTop(row));
+    }
+
+    /**
+     * Returns the first row visible in the viewport, or the row count if no row is.
+     *
+     * @param scrollOffset   the distance from the top of the first row to the top of the viewport
+     * @param viewportHeight the height of the viewport
+     */
+    protected int getFirstVisibleRow(float scrollOffset, float viewportHeight) {
+        if (viewportHeight <= 0) {
+            return model.getRowCount();
+        }
+        return getRowAt(scrollOffset);
+    }
+
+    /**
+     * Returns the row after the last one visible in the viewport. Only the rows from
+     * {@link #getFirstVisibleRow(float, float)} up to this one need to be drawn, whatever the size of the model.
+     *
+     * @param scrollOffset   the distance from the top of the first row to the top of the viewport
+     * @param viewportHeight the height of the viewport
+     */
+    protected int getVisibleRowEnd(float scrollOffset, float viewportHeight) {
+        if (viewportHeight <= 0) {
+            return model.getRowCount();
+        }
+
+        // the row at the bottom edge is visible unless it starts right at the edge
+        float bottom = scrollOffset + viewportHeight;
+        int row = getRowAt(bottom);
+        return row < model.getRowCount() && getRowTop(row) < bottom ? row + 1 : row;
+    }
+
+    /**
+     * Returns the distance from the top of the first row to the top of a row.
+     */
+    protected float getRowTop(int row) {
+        return (float) getRowHeights().sumBefore(row);
     }
 
     public KrItemModel.KrModelIndex findItemIndexAt(Vector2 position) {
@@ -175,4 +305,11 @@ public abstract class KrAbstractItemView extends KrWidget {
     public interface KrDoubleClickListener {
         void itemDoubleClicked(KrItemModel.KrModelIndex itemIndex);
     }
+
+    /**
+     * Provides the heights of the rows of an item view, e.g. for multi-line cells or group headers.
+     */
+    public interface KrRowHeightProvider {
+        float getRowHeight(int row);
+    }
 }
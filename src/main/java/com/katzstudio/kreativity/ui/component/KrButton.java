@@ -159,7 +159,7 @@ public class KrButton extends KrWidget {
             textPosition.y += (contentSize.y - text.getBounds().height) / 2;
             renderer.setPen(1, getStyle().foregroundColor);
             renderer.setFont(getStyle().font);
-            renderer.drawTextWithShadow(text.getString(), textPosition, getStyle().textShadowOffset, getStyle().textShadowColor);
+            renderer.drawTextWithShadow(text, textPosition, getStyle().textShadowOffset, getStyle().textShadowColor);
         }
 
         Pools.free(textPosition);
@@ -186,6 +186,7 @@ public class KrButton extends KrWidget {
     protected void setState(State newState) {
         if (this.state != newState) {
             this.state = newState;
+            repaint();
         }
     }
 
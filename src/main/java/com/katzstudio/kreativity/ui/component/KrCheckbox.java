@@ -82,7 +82,7 @@ public class KrCheckbox extends KrWidget {
         float textX = checkboxX + CHECKBOX_WIDTH + TEXT_SPACING;
         float textY = (getHeight() - text.getBounds().getHeight()) / 2;
         renderer.setPen(1, getForeground());
-        renderer.drawText(text.getString(), textX, textY);
+        renderer.drawText(text, textX, textY);
     }
 
     @Override
@@ -99,6 +99,9 @@ public class KrCollapsiblePanel extends KrWidget {
     private void setState(State newState) {
         state = newState;
 
+        // only animating panels need per-frame updates
+        setUpdatesEnabled(state == State.COLLAPSING || state == State.EXPANDING);
+
         if (state == State.COLLAPSED || state == State.COLLAPSING) {
             iconPanel.setIconGlyph(KrFontAwesomeGlyph.CARET_RIGHT);
         } else {
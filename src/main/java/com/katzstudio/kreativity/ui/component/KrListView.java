@@ -2,7 +2,6 @@ package com.katzstudio.kreativity.ui.component;
 
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.KrSkin;
 import com.katzstudio.kreativity.ui.KrToolkit;
 import com.katzstudio.kreativity.ui.component.renderer.KrCellRenderer;
@@ -39,13 +38,18 @@ public class KrListView extends KrAbstractItemView {
 
         boolean clipped = renderer.beginClip(1, 1, getWidth() - 2, getHeight() - 2);
 
-        int cellY = (int) -verticalScrollBar.getCurrentValue();
-        int cellHeight = ROW_HEIGHT;
+        // only the rows inside the viewport are drawn
+        float scrollOffset = verticalScrollBar.getCurrentValue();
+        float viewportHeight = getHeight();
+        int firstRow = getFirstVisibleRow(scrollOffset, viewportHeight);
+        int rowEnd = getVisibleRowEnd(scrollOffset, viewportHeight);
+
+        float cellY = getRowTop(firstRow) - scrollOffset;
         int cellWidth = (int) getWidth();
-        for (int i = 0; i < model.getRowCount(); ++i) {
-            KrModelIndex index = new KrModelIndex(i);
-            KrWidget item = cellRenderer.getComponent(index, model, selectionModel.getCurrentSelection().contains(new KrModelIndex(i)));
-            item.setGeometry(0, cellY, cellWidth, cellHeight);
+        for (int i = firstRow; i < rowEnd; ++i) {
+            float cellHeight = getRowHeight(i);
+            KrWidget item = cellRenderer.getComponent(i, 0, KrModelIndex.ROOT, model, selectionModel.getCurrentSelection().containsRow(i));
+            item.setGeometry(0, (int) cellY, cellWidth, cellHeight);
             item.draw(renderer);
             cellY += cellHeight;
         }
@@ -61,14 +65,9 @@ public class KrListView extends KrAbstractItemView {
         scrollbarGeometry.set(getWidth() - scrollBarWidth - 2, 2, scrollBarWidth, getHeight() - 4);
     }
 
-    @Override
-    public Vector2 calculatePreferredSize() {
-        return new Vector2(100, model.getRowCount() * ROW_HEIGHT);
-    }
-
     @Override
     public KrModelIndex findItemIndexAt(int x, int y) {
-        int index = (int) ((y + verticalScrollBar.getCurrentValue()) / ROW_HEIGHT);
+        int index = getRowAt(y + verticalScrollBar.getCurrentValue());
         return new KrModelIndex(index);
     }
 }
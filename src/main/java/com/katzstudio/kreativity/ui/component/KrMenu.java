@@ -153,7 +153,7 @@ public class KrMenu extends KrWidget {
             Vector2 textPosition = KrAlignmentTool.alignRectangles(text.getBounds(), alignmentReference, KrAlignment.MIDDLE_LEFT);
 
             renderer.setPen(1, getForeground());
-            renderer.drawText(text.getString(), textPosition);
+            renderer.drawText(text, textPosition);
 
             Pools.free(textPosition);
             Pools.free(alignmentReference);
@@ -0,0 +1,90 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.badlogic.gdx.math.Vector2;
+import com.katzstudio.kreativity.ui.profiler.KrProfiler;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import lombok.Getter;
+import lombok.Setter;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+
+/**
+ * An overlay that draws the rolling graph of the frames recorded by the {@link KrProfiler} of the toolkit. Each
+ * frame is a bar, oldest on the left, stacking the time spent in each phase of the frame. The line across the
+ * graph marks the frame budget, which sits at half the height of the graph.
+ * <p>
+ * The graph is repainted every frame while the profiler is enabled, so a backend that renders on demand never
+ * goes idle while the graph is shown. It doesn't enable the profiler.
+ */
+public class KrProfilerGraph extends KrWidget {
+
+    /**
+     * The colors of the phases, as RGBA8888 ints, indexed by the ordinals of {@link KrProfiler.Phase}.
+     */
+    private static final int[] PHASE_COLORS = {
+            0xe5c07bff, // input
+            0x61afefff, // update
+            0xc678ddff, // validation
+            0x56b6c2ff, // animations
+            0xd19a66ff, // timers
+            0x98c379ff, // draw
+    };
+
+    private static final KrProfiler.Phase[] PHASES = KrProfiler.Phase.values();
+
+    private static final int BACKGROUND_COLOR = 0x000000a0;
+
+    private static final int BUDGET_COLOR = 0xe06c75ff;
+
+    /**
+     * The frame budget, in seconds.
+     */
+    @Getter @Setter private float frameBudget = 1 / 60f;
+
+    public KrProfilerGraph() {
+        setUpdatesEnabled(true);
+    }
+
+    @Override
+    public void update(float deltaSeconds) {
+        super.update(deltaSeconds);
+        if (getDefaultToolkit().getProfiler().isEnabled()) {
+            repaint();
+        }
+    }
+
+    @Override
+    public Vector2 calculatePreferredSize() {
+        return new Vector2(KrProfiler.HISTORY_SIZE * 2, 64);
+    }
+
+    @Override
+    protected void drawSelf(KrRenderer renderer) {
+        renderer.setBrush(BACKGROUND_COLOR);
+        renderer.fillRect(0, 0, getWidth(), getHeight());
+
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+        float barWidth = getWidth() / (KrProfiler.HISTORY_SIZE - 1);
+        float budgetHeight = getHeight() / 2;
+        float pixelsPerNano = budgetHeight / (frameBudget * 1e9f);
+
+        for (int framesAgo = 0; framesAgo < profiler.getRecordedFrameCount(); ++framesAgo) {
+            float x = getWidth() - (framesAgo + 1) * barWidth;
+            float y = getHeight();
+            for (int i = 0; i < PHASES.length; ++i) {
+                float height = Math.min(y, profiler.getPhaseNanos(framesAgo, PHASES[i]) * pixelsPerNano);
+                y -= height;
+                renderer.setBrush(PHASE_COLORS[i]);
+                renderer.fillRect(x, y, barWidth, height);
+            }
+        }
+
+        renderer.setPen(BUDGET_COLOR);
+        renderer.drawLine(0, getHeight() - budgetHeight, getWidth(), getHeight() - budgetHeight);
+    }
+
+    @Override
+    public String toString() {
+        return toStringBuilder().type("KrProfilerGraph").toString();
+    }
+}
@@ -49,6 +49,8 @@ public class KrScrollBar extends KrWidget {
 
     private boolean isHovered = false;
 
+    private final Vector2 tmpVector = new Vector2();
+
     public KrScrollBar(KrOrientation orientation) {
         this(orientation, getDefaultToolkit().getSkin().getStyle(KrScrollBar.class));
 
@@ -84,6 +86,7 @@ public class KrScrollBar extends KrWidget {
     public void setValue(float newValue) {
         currentValue = valueRange.clamp(newValue);
         updatePositionFromValue();
+        repaint();
         notifyScrolled(getCurrentValue());
     }
 
@@ -94,6 +97,7 @@ public class KrScrollBar extends KrWidget {
     protected void setThumbPosition(float newPosition) {
         thumbPosition = getThumbRange().clamp(newPosition);
         updateValueFromPosition();
+        repaint();
         notifyScrolled(getCurrentValue());
     }
 
@@ -126,7 +130,7 @@ public class KrScrollBar extends KrWidget {
     protected void mousePressedEvent(KrMouseEvent event) {
         super.mousePressedEvent(event);
 
-        Vector2 localMouseLocation = screenToLocal(event.getScreenPosition());
+        Vector2 localMouseLocation = screenToLocal(event.getScreenPosition().x, event.getScreenPosition().y, tmpVector);
 
         if (!getThumbGeometry(tmpRect).contains(localMouseLocation)) {
             float positionOnTrack = orientation == VERTICAL ? localMouseLocation.y : localMouseLocation.x;
@@ -0,0 +1,230 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.ArrayList;
+
+/**
+ * Hit testing index over the children of a widget.
+ * <p>
+ * Widgets with few children are scanned linearly. Once a widget has {@link #GRID_THRESHOLD} children
+ * or more, the visible children are bucketed into a uniform grid covering their bounding box, so
+ * finding the child under a point only looks at the children of one grid cell. The index is rebuilt
+ * lazily, on the first query after the children or their geometry changed.
+ * <p>
+ * All coordinates are in the local space of the indexed widget.
+ */
+public class KrSpatialIndex {
+
+    public static final int GRID_THRESHOLD = 16;
+
+    private static final int MAX_CELLS_PER_AXIS = 256;
+
+    private static final int MAX_CELLS = 4096;
+
+    private final KrWidget widget;
+
+    private boolean isValid;
+
+    private boolean hasOverlappingChildren;
+
+    private boolean isGridEnabled;
+
+    private float minX;
+
+    private float minY;
+
+    private float maxX;
+
+    private float maxY;
+
+    private float cellWidth;
+
+    private float cellHeight;
+
+    private int columns;
+
+    private int rows;
+
+    private IntArray[] cells = new IntArray[0];
+
+    public KrSpatialIndex(KrWidget widget) {
+        this.widget = widget;
+    }
+
+    /**
+     * Marks the index as stale. Called whenever a child is added, removed, moved, resized or hidden.
+     */
+    public void invalidate() {
+        isValid = false;
+    }
+
+    /**
+     * Returns true if some of the visible children overlap each other.
+     */
+    public boolean hasOverlappingChildren() {
+        ensureValid();
+        return hasOverlappingChildren;
+    }
+
+    /**
+     * Returns the topmost visible child that contains the point, or {@code null} if there is none.
+     *
+     * @param x the x coordinate, in the local space of the indexed widget
+     * @param y the y coordinate, in the local space of the indexed widget
+     */
+    public KrWidget findChildAt(float x, float y) {
+        ensureValid();
+        ArrayList<KrWidget> children = widget.getChildren();
+
+        if (!isGridEnabled) {
+            for (int i = children.size() - 1; i >= 0; --i) {
+                KrWidget child = children.get(i);
+                if (child.isVisible() && contains(child, x, y)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        if (x < minX || x > maxX || y < minY || y > maxY) {
+            return null;
+        }
+
+        IntArray cell = cells[getRow(y) * columns + getColumn(x)];
+        for (int i = cell.size - 1; i >= 0; --i) {
+            KrWidget child = children.get(cell.get(i));
+            if (contains(child, x, y)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private void ensureValid() {
+        if (isValid) {
+            return;
+        }
+
+        isValid = true;
+        ArrayList<KrWidget> children = widget.getChildren();
+        isGridEnabled = children.size() >= GRID_THRESHOLD;
+
+        if (isGridEnabled) {
+            buildGrid(children);
+        } else {
+            hasOverlappingChildren = checkOverlaps(children);
+        }
+    }
+
+    private void buildGrid(ArrayList<KrWidget> children) {
+        minX = minY = Float.MAX_VALUE;
+        maxX = maxY = -Float.MAX_VALUE;
+        int visibleCount = 0;
+        for (int i = 0; i < children.size(); ++i) {
+            KrWidget child = children.get(i);
+            if (child.isVisible()) {
+                minX = Math.min(minX, child.getX());
+                minY = Math.min(minY, child.getY());
+                maxX = Math.max(maxX, child.getX() + child.getWidth());
+                maxY = Math.max(maxY, child.getY() + child.getHeight());
+                visibleCount += 1;
+            }
+        }
+
+        if (visibleCount == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+
+        // aim for about one child per cell, following the aspect ratio of the children bounds
+        float width = Math.max(1, maxX - minX);
+        float height = Math.max(1, maxY - minY);
+        columns = clamp((int) Math.round(Math.sqrt(visibleCount * width / height)), 1, MAX_CELLS_PER_AXIS);
+        rows = clamp((visibleCount + columns - 1) / columns, 1, Math.min(MAX_CELLS_PER_AXIS, MAX_CELLS / columns));
+        cellWidth = width / columns;
+        cellHeight = height / rows;
+
+        int cellCount = columns * rows;
+        if (cells.length < cellCount) {
+            IntArray[] newCells = new IntArray[cellCount];
+            System.arraycopy(cells, 0, newCells, 0, cells.length);
+            for (int i = cells.length; i < cellCount; ++i) {
+                newCells[i] = new IntArray(4);
+            }
+            cells = newCells;
+        }
+        for (int i = 0; i < cellCount; ++i) {
+            cells[i].clear();
+        }
+
+        hasOverlappingChildren = false;
+        for (int i = 0; i < children.size(); ++i) {
+            KrWidget child = children.get(i);
+            if (!child.isVisible()) {
+                continue;
+            }
+
+            int firstColumn = getColumn(child.getX());
+            int lastColumn = getColumn(child.getX() + child.getWidth());
+            int firstRow = getRow(child.getY());
+            int lastRow = getRow(child.getY() + child.getHeight());
+
+            for (int row = firstRow; row <= lastRow; ++row) {
+                for (int column = firstColumn; column <= lastColumn; ++column) {
+                    IntArray cell = cells[row * columns + column];
+                    if (!hasOverlappingChildren) {
+                        hasOverlappingChildren = overlapsAny(children, cell, child);
+                    }
+                    cell.add(i);
+                }
+            }
+        }
+    }
+
+    private int getColumn(float x) {
+        return clamp((int) ((x - minX) / cellWidth), 0, columns - 1);
+    }
+
+    private int getRow(float y) {
+        return clamp((int) ((y - minY) / cellHeight), 0, rows - 1);
+    }
+
+    private static boolean overlapsAny(ArrayList<KrWidget> children, IntArray cell, KrWidget widget) {
+        for (int i = 0; i < cell.size; ++i) {
+            if (overlaps(children.get(cell.get(i)), widget)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean checkOverlaps(ArrayList<KrWidget> children) {
+        for (int i = 0; i < children.size(); ++i) {
+            KrWidget a = children.get(i);
+            if (!a.isVisible()) {
+                continue;
+            }
+            for (int j = i + 1; j < children.size(); ++j) {
+                KrWidget b = children.get(j);
+                if (b.isVisible() && overlaps(a, b)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean overlaps(KrWidget a, KrWidget b) {
+        return a.getX() < b.getX() + b.getWidth() && a.getX() + a.getWidth() > b.getX()
+                && a.getY() < b.getY() + b.getHeight() && a.getY() + a.getHeight() > b.getY();
+    }
+
+    private static boolean contains(KrWidget widget, float x, float y) {
+        return widget.getX() <= x && widget.getX() + widget.getWidth() >= x
+                && widget.getY() <= y && widget.getY() + widget.getHeight() >= y;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
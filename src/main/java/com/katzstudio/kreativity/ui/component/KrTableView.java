@@ -17,8 +17,6 @@ import com.katzstudio.kreativity.ui.style.KrItemViewStyle;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.List;
-
 /**
  * A {@link KrTableView} widget displays data stored in a {@link KrItemModel}
  * using a table.
@@ -37,6 +35,8 @@ public class KrTableView extends KrAbstractItemView {
 
     private KrSizePolicyModel columnSizePolicy;
 
+    private final int[] columnSizes;
+
     public KrTableView(KrItemModel model) {
         this(model, null);
     }
@@ -47,6 +47,7 @@ public class KrTableView extends KrAbstractItemView {
         this.columnModel = columnModel;
         int columnCount = columnModel != null ? columnModel.getColumnCount() : model.getColumnCount();
         columnSizePolicy = new KrSizePolicyModel(columnCount);
+        columnSizes = new int[columnCount];
         setDefaultStyle(KrToolkit.getDefaultToolkit().getSkin().getStyle(KrTableView.class));
     }
 
@@ -63,7 +64,7 @@ public class KrTableView extends KrAbstractItemView {
 
         Color borderColor = KrToolkit.getDefaultToolkit().getSkin().getColor(KrSkin.ColorKey.BORDER);
 
-        List<Integer> columnSizes = columnSizePolicy.getIntSizes(getWidth());
+        columnSizePolicy.getIntSizes(getWidth(), columnSizes);
 
         renderer.setBrush(borderColor);
         renderer.fillRoundedRect(0, 0, (int) getWidth(), (int) getHeight(), 3);
@@ -75,9 +76,9 @@ public class KrTableView extends KrAbstractItemView {
         if (drawHeader) {
             for (int i = 0; i < columnCount; ++i) {
                 KrWidget cellWidget = headerRenderer.getComponent(i, columnModel);
-                cellWidget.setGeometry(x, y, columnSizes.get(i), rowHeight);
+                cellWidget.setGeometry(x, y, columnSizes[i], rowHeight);
                 cellWidget.draw(renderer);
-                x += columnSizes.get(i);
+                x += columnSizes[i];
             }
             renderer.setPen(borderColor);
             renderer.drawLine(0, ROW_HEIGHT, getWidth(), ROW_HEIGHT);
@@ -86,17 +87,23 @@ public class KrTableView extends KrAbstractItemView {
 
         clipped = renderer.beginClip(1, clipY, getWidth() - 2, getHeight() - ROW_HEIGHT - 2);
 
-        // draw elements
+        // draw the elements of the rows inside the viewport
+        float scrollOffset = verticalScrollBar.getCurrentValue();
+        float viewportHeight = getHeight() - (drawHeader ? rowHeight : 0);
+        int firstRow = getFirstVisibleRow(scrollOffset, viewportHeight);
+        int rowEnd = getVisibleRowEnd(scrollOffset, viewportHeight);
+
         x = 0;
         for (int i = 0; i < columnCount; ++i) {
-            y = (int) -verticalScrollBar.getCurrentValue() + (drawHeader ? rowHeight : 0);
-            for (int j = 0; j < model.getRowCount(); ++j) {
+            float cellY = getRowTop(firstRow) - scrollOffset + (drawHeader ? rowHeight : 0);
+            for (int j = firstRow; j < rowEnd; ++j) {
+                float cellHeight = getRowHeight(j);
                 KrWidget cellWidget = cellRenderer.getComponent(j, i, null, model, selectionModel.getCurrentSelection().containsRow(j));
-                cellWidget.setGeometry(x, y, columnSizes.get(i), rowHeight);
+                cellWidget.setGeometry(x, (int) cellY, columnSizes[i], cellHeight);
                 cellWidget.draw(renderer);
-                y += rowHeight;
+                cellY += cellHeight;
             }
-            x += columnSizes.get(i);
+            x += columnSizes[i];
         }
 
         if (clipped) {
@@ -109,7 +116,7 @@ public class KrTableView extends KrAbstractItemView {
 
             x = 0;
             for (int i = 0; i < columnCount - 1; ++i) {
-                x += columnSizes.get(i) - 1;
+                x += columnSizes[i] - 1;
                 renderer.drawLine(x, 0, x, getHeight());
             }
         }
@@ -119,13 +126,13 @@ public class KrTableView extends KrAbstractItemView {
         if (columnModel != null) {
             y -= ROW_HEIGHT;
         }
-        int index = (int) ((y + verticalScrollBar.getCurrentValue()) / ROW_HEIGHT);
+        int index = getRowAt(y + verticalScrollBar.getCurrentValue());
         return new KrModelIndex(index);
     }
 
     @Override
     public Vector2 calculatePreferredSize() {
-        return new Vector2(100, model.getRowCount() * ROW_HEIGHT + (columnModel != null ? ROW_HEIGHT : 0));
+        return new Vector2(100, getRowsHeight() + (columnModel != null ? ROW_HEIGHT : 0));
     }
 
     @Override
@@ -42,6 +42,7 @@ public class KrTextField extends KrWidget {
         textDocument = new KrTextDocument();
         textDocument.addTextListener(this::onDocumentTextChanged);
         setFocusable(true);
+        setUpdatesEnabled(true);
         setDefaultStyle(getDefaultToolkit().getSkin().getStyle(KrTextField.class));
         setCursor(KrCursor.IBEAM);
     }
@@ -191,7 +192,7 @@ public class KrTextField extends KrWidget {
         // render caret
         if (isFocused()) {
             int caretPosition = textDocument.getCaretPosition();
-            float caretX = textPosition.x + metrics.bounds(getStyle().font, text.substring(0, caretPosition), tmpRect).getWidth();
+            float caretX = textPosition.x + metrics.bounds(getStyle().font, text, 0, caretPosition, tmpRect).getWidth();
             renderer.setPen(1, ((KrTextFieldStyle) getStyle()).caretColor);
             renderer.drawLine(caretX, CARET_TOP_OFFSET, caretX, CARET_TOP_OFFSET + CARET_HEIGHT);
         }
@@ -232,8 +233,8 @@ public class KrTextField extends KrWidget {
         KrFontMetrics metrics = getDefaultToolkit().fontMetrics();
         String text = textDocument.getText();
 
-        float selectionStartX = textPositionX + metrics.bounds(getStyle().font, text.substring(0, textDocument.getSelectionBegin()), tmpRect).getWidth();
-        float selectionEndX = textPositionX + metrics.bounds(getStyle().font, text.substring(0, textDocument.getSelectionEnd()), tmpRect).getWidth();
+        float selectionStartX = textPositionX + metrics.bounds(getStyle().font, text, 0, textDocument.getSelectionBegin(), tmpRect).getWidth();
+        float selectionEndX = textPositionX + metrics.bounds(getStyle().font, text, 0, textDocument.getSelectionEnd(), tmpRect).getWidth();
         float selectionWidth = selectionEndX - selectionStartX;
 
         return Pools.obtain(Rectangle.class).set(
@@ -246,12 +247,13 @@ public class KrTextField extends KrWidget {
     private void recalculateTextOffset() {
         KrFontMetrics metrics = getDefaultToolkit().fontMetrics();
         float textPositionX = getX() + getPadding().left - textOffset;
-        float caretXPosition = textPositionX + metrics.bounds(getStyle().font, textDocument.getTextBeforeCaret(), tmpRect).width;
+        float caretXPosition = textPositionX + metrics.bounds(getStyle().font, textDocument.getText(), 0, textDocument.getCaretPosition(), tmpRect).width;
         float textWidth = metrics.bounds(getStyle().font, textDocument.getText(), tmpRect).width;
 
         Rectangle innerViewport = rectangles(getGeometry(tmpRect)).shrink(getPadding()).value();
         if (innerViewport.getWidth() > textWidth) {
             textOffset = 0;
+            Pools.free(innerViewport);
             return;
         }
 
@@ -25,6 +25,8 @@ import com.katzstudio.kreativity.ui.event.listener.KrMouseListener;
 import com.katzstudio.kreativity.ui.icon.KrIcon;
 import com.katzstudio.kreativity.ui.layout.KrAbsoluteLayout;
 import com.katzstudio.kreativity.ui.layout.KrLayout;
+import com.katzstudio.kreativity.ui.profiler.KrProfiler;
+import com.katzstudio.kreativity.ui.render.KrDisplayList;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 import com.katzstudio.kreativity.ui.style.KrWidgetStyle;
 import com.katzstudio.kreativity.ui.util.KrUpdateListener;
@@ -36,6 +38,8 @@ import java.util.List;
 
 import static com.katzstudio.kreativity.ui.KrRectangles.rectangles;
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Sample.DRAW;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Sample.VALIDATE;
 
 /**
  * Base class for all Kreativity UI Components
@@ -63,7 +67,7 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter private boolean isFocused;
 
-    @Getter @Setter private boolean isVisible = true;
+    @Getter private boolean isVisible = true;
 
     @Getter @Setter private boolean isEnabled = true;
 
@@ -73,7 +77,27 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter @Setter private String name;
 
-    @Setter private KrCanvas canvas;
+    private KrCanvas canvas;
+
+    @Getter private boolean updatesEnabled;
+
+    private boolean isValidationScheduled;
+
+    private KrSpatialIndex childIndex;
+
+    private float screenX;
+
+    private float screenY;
+
+    private boolean isScreenPositionValid;
+
+    private boolean isSizeHintsReported;
+
+    private Vector2 reportedMinSize;
+
+    private Vector2 reportedMaxSize;
+
+    private Vector2 reportedPreferredSize;
 
     private final List<KrKeyboardListener> keyboardListeners = new ArrayList<>();
 
@@ -91,6 +115,8 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter @Setter private boolean clipRendering = true;
 
+    private KrDisplayList displayList;
+
     @Getter private KrWidgetStyle defaultStyle;
 
     private KrWidgetStyle style;
@@ -99,7 +125,7 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter @Setter protected KrWidget tooltipWidget;
 
-    @Getter @Setter private float opacity = 1;
+    @Getter private float opacity = 1;
 
     protected Rectangle tmpRect = new Rectangle();
 
@@ -148,6 +174,7 @@ public class KrWidget implements KrUpdateListener {
      */
     public void setStyle(KrWidgetStyle style) {
         this.style = style;
+        repaint();
     }
 
     /**
@@ -163,6 +190,7 @@ public class KrWidget implements KrUpdateListener {
     public void setDefaultStyle(KrWidgetStyle style) {
         this.defaultStyle = style;
         this.style = null;
+        repaint();
     }
 
     /**
@@ -193,7 +221,7 @@ public class KrWidget implements KrUpdateListener {
      * Returns the background used when rendering this widget.
      */
     public Drawable getBackground() {
-        return style.background;
+        return getStyle().background;
     }
 
     /**
@@ -202,6 +230,7 @@ public class KrWidget implements KrUpdateListener {
     public void setBackground(Drawable background) {
         ensureUniqueStyle();
         style.background = background;
+        repaint();
     }
 
     /**
@@ -215,7 +244,7 @@ public class KrWidget implements KrUpdateListener {
      * Gets the foreground color used for rendering the widget text.
      */
     public Color getForeground() {
-        return style.foregroundColor;
+        return getStyle().foregroundColor;
     }
 
     /**
@@ -224,6 +253,7 @@ public class KrWidget implements KrUpdateListener {
     public void setForeground(Color foreground) {
         ensureUniqueStyle();
         style.foregroundColor = foreground;
+        repaint();
     }
 
     /**
@@ -243,6 +273,7 @@ public class KrWidget implements KrUpdateListener {
     public void setPadding(KrPadding padding) {
         ensureUniqueStyle();
         style.padding = padding;
+        repaint();
     }
 
     /**
@@ -250,7 +281,7 @@ public class KrWidget implements KrUpdateListener {
      * the widget's cursor will be used to represent the mouse pointer.
      */
     public KrCursor getCursor() {
-        return style.cursor;
+        return getStyle().cursor;
     }
 
     /**
@@ -265,7 +296,7 @@ public class KrWidget implements KrUpdateListener {
      * Returns the widget's icon.
      */
     public KrIcon getIcon() {
-        return style.icon;
+        return getStyle().icon;
     }
 
     /**
@@ -274,13 +305,14 @@ public class KrWidget implements KrUpdateListener {
     public void setIcon(KrIcon icon) {
         ensureUniqueStyle();
         style.icon = icon;
+        repaint();
     }
 
     /**
      * Returns the font used to render the text of the widget.
      */
     public BitmapFont getFont() {
-        return style.font;
+        return getStyle().font;
     }
 
     /**
@@ -290,6 +322,7 @@ public class KrWidget implements KrUpdateListener {
         ensureUniqueStyle();
         style.font = font;
         text.setFont(font);
+        repaint();
     }
 
     /**
@@ -297,7 +330,10 @@ public class KrWidget implements KrUpdateListener {
      * as labels, buttons, checkboxes, etc. to display the meaning of the widget.
      */
     public void setText(String text) {
-        this.text.setString(text);
+        if (!this.text.getString().equals(text)) {
+            this.text.setString(text);
+            repaint();
+        }
     }
 
     /**
@@ -333,11 +369,18 @@ public class KrWidget implements KrUpdateListener {
         //noinspection unchecked
         children.add(child);
         child.setParent(this);
+        child.isSizeHintsReported = false;
+        child.invalidateScreenPosition();
         child.setCanvas(this.canvas);
+        if (canvas != null) {
+            canvas.getFocusManager().widgetAdded(child);
+        }
 
         layout.addWidget(child, layoutConstraint);
 
         invalidate();
+        child.repaint();
+        childrenChanged();
     }
 
     /**
@@ -348,10 +391,17 @@ public class KrWidget implements KrUpdateListener {
     public void remove(KrWidget child) {
 
         layout.removeWidget(child);
+        child.repaint();
 
+        if (canvas != null) {
+            canvas.getFocusManager().widgetRemoved(child);
+        }
         child.setCanvas(null);
         child.setParent(null);
+        child.isSizeHintsReported = false;
+        child.invalidateScreenPosition();
         children.remove(child);
+        childrenChanged();
 
         if (child.isFocused) {
             getCanvas().clearFocus();
@@ -378,9 +428,12 @@ public class KrWidget implements KrUpdateListener {
      */
     public void setPosition(float x, float y) {
         if (this.x != x || this.y != y) {
+            repaint();
             this.x = x;
             this.y = y;
-            invalidate();
+            invalidateScreenPosition();
+            repaint();
+            notifyHitAreaChanged();
         }
     }
 
@@ -412,7 +465,6 @@ public class KrWidget implements KrUpdateListener {
     public void setSize(float w, float h) {
         if (this.width != w || this.height != h) {
             setGeometry(x, y, w, h);
-            invalidate();
         }
     }
 
@@ -448,17 +500,28 @@ public class KrWidget implements KrUpdateListener {
             return;
         }
 
-        this.x = x;
-        this.y = y;
+        repaint();
+        if (this.x != x || this.y != y) {
+            this.x = x;
+            this.y = y;
+            invalidateScreenPosition();
+        }
+        boolean isResized = this.width != width || this.height != height;
         this.width = width;
         this.height = height;
-        invalidate();
+        repaint();
+        notifyHitAreaChanged();
+        if (isResized) {
+            invalidateLayout();
+        }
     }
 
     /**
-     * Validates the widget by layouting its children
+     * Validates the widget by layouting its children, then validates the children that became
+     * invalid, so the whole subtree is laid out in a single top-down pass.
      */
     public void validate() {
+        isValidationScheduled = false;
         if (isValid) {
             return;
         }
@@ -469,24 +532,235 @@ public class KrWidget implements KrUpdateListener {
         layout.setGeometry(layoutRectangle);
         isValid = true;
         Pools.free(layoutRectangle);
+
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+        for (int i = 0; i < children.size(); ++i) {
+            KrWidget child = children.get(i);
+            if (!child.isValid) {
+                profiler.beginSample();
+                child.validate();
+                profiler.endSample(child, VALIDATE);
+            }
+        }
     }
 
     /**
      * Invalidating a widget requires the widget to be validated as soon as possible.
-     * This is usually done by children when changing sizes to request the parent to re layout itself
+     * This is usually done when the content of the widget changes.
+     * <p>
+     * The parent is invalidated as well, unless this widget is a layout boundary whose size hints
+     * didn't change. See {@link #isLayoutBoundary()}.
      */
     public void invalidate() {
+        invalidateLayout();
+        if (parent != null && haveSizeHintsChanged()) {
+            parent.invalidate();
+        }
+    }
+
+    /**
+     * Requests the children of this widget to be laid out again, without invalidating the parent.
+     * Called when the size of the widget is changed from outside, usually by the layout of the parent.
+     */
+    private void invalidateLayout() {
         isValid = false;
+        scheduleValidation();
         notifyWidgetInvalidated();
-        invalidateParent();
     }
 
     /**
-     * Calls {@code invalidate()} on the parent widget, if any.
+     * Returns true if this widget can stop invalidation from reaching its parent. The size hints
+     * of a layout boundary can be checked in constant time and don't depend on its children: its
+     * preferred size is fixed, or its children are laid out by an absolute layout. Other layouts,
+     * such as the stack layout, compute their hints from every child.
      */
-    private void invalidateParent() {
-        if (parent != null) {
-            parent.invalidate();
+    protected boolean isLayoutBoundary() {
+        return isPreferredSizeSet() || layout instanceof KrAbsoluteLayout;
+    }
+
+    /**
+     * Compares the size hints of this widget with the ones last reported to the parent, and records
+     * the current ones. Widgets that are not layout boundaries always report a change.
+     */
+    private boolean haveSizeHintsChanged() {
+        if (!isLayoutBoundary()) {
+            isSizeHintsReported = false;
+            return true;
+        }
+
+        Vector2 minSize = getMinSize();
+        Vector2 maxSize = getMaxSize();
+        Vector2 preferredSize = getPreferredSize();
+
+        if (isSizeHintsReported && reportedMinSize.equals(minSize) && reportedMaxSize.equals(maxSize)
+                && reportedPreferredSize.equals(preferredSize)) {
+            return false;
+        }
+
+        if (reportedMinSize == null) {
+            reportedMinSize = new Vector2();
+            reportedMaxSize = new Vector2();
+            reportedPreferredSize = new Vector2();
+        }
+
+        reportedMinSize.set(minSize);
+        reportedMaxSize.set(maxSize);
+        reportedPreferredSize.set(preferredSize);
+        isSizeHintsReported = true;
+        return true;
+    }
+
+    /**
+     * Queues this widget in the update scheduler of its canvas, to be validated on the next update.
+     */
+    private void scheduleValidation() {
+        if (!isValidationScheduled && canvas != null) {
+            isValidationScheduled = true;
+            canvas.getUpdateScheduler().scheduleValidation(this);
+        }
+    }
+
+    /**
+     * Enables or disables per-frame updates for this widget. Widgets are not updated every frame
+     * by default: they are only validated when invalid. Widgets that override {@link #update(float)}
+     * to animate or to poll a model must enable updates.
+     *
+     * @param enabled whether or not {@code update} should be called every frame
+     */
+    public void setUpdatesEnabled(boolean enabled) {
+        if (this.updatesEnabled == enabled) {
+            return;
+        }
+
+        this.updatesEnabled = enabled;
+        if (canvas != null) {
+            if (enabled) {
+                canvas.getUpdateScheduler().addTickingWidget(this);
+            } else {
+                canvas.getUpdateScheduler().removeTickingWidget(this);
+            }
+        }
+    }
+
+    /**
+     * Requests the area covered by this widget to be repainted. Changes to the geometry, style, text,
+     * opacity and visibility of the widget request a repaint automatically. Custom widgets should call
+     * this method whenever their appearance changes for other reasons.
+     */
+    public void repaint() {
+        if (!isVisible) {
+            return;
+        }
+
+        invalidateDisplayLists();
+        if (canvas != null) {
+            canvas.repaint(getScreenX(), getScreenY(), width, height);
+        }
+    }
+
+    /**
+     * Enables or disables the display list of this widget. While enabled, the draw commands of this widget
+     * and its children are recorded the first time they are drawn, and replayed on the next frames instead
+     * of drawing the subtree again. The list is recorded again after any widget of the subtree is repainted.
+     * <p>
+     * Display lists are useful for subtrees that rarely change. Widgets that change their appearance without
+     * calling {@link #repaint()} are not supported.
+     */
+    public void setDisplayListEnabled(boolean enabled) {
+        if (enabled == isDisplayListEnabled()) {
+            return;
+        }
+
+        displayList = enabled ? new KrDisplayList() : null;
+    }
+
+    /**
+     * Returns true if the draw commands of this widget and its children are recorded and replayed.
+     */
+    public boolean isDisplayListEnabled() {
+        return displayList != null;
+    }
+
+    /**
+     * Invalidates the display lists of this widget and its ancestors, which have recorded its appearance.
+     */
+    private void invalidateDisplayLists() {
+        for (KrWidget widget = this; widget != null; widget = widget.parent) {
+            if (widget.displayList != null) {
+                widget.displayList.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Returns the index used to find the child widget under a point.
+     */
+    public KrSpatialIndex getChildIndex() {
+        if (childIndex == null) {
+            childIndex = new KrSpatialIndex(this);
+        }
+        return childIndex;
+    }
+
+    /**
+     * Called when the area covered by this widget changes, or when the widget is shown or hidden.
+     * Invalidates the hit testing structures that depend on it. Hidden widgets can't be hit, so
+     * changes to their geometry are ignored.
+     */
+    private void notifyHitAreaChanged() {
+        if (!isVisible) {
+            return;
+        }
+
+        if (parent != null && parent.childIndex != null) {
+            parent.childIndex.invalidate();
+        }
+        if (canvas != null) {
+            canvas.invalidateHitTestCache();
+        }
+    }
+
+    /**
+     * Called after a child is added or removed. The child index refers to children by position,
+     * so it is rebuilt even when the child is hidden.
+     */
+    private void childrenChanged() {
+        if (childIndex != null) {
+            childIndex.invalidate();
+        }
+        if (canvas != null) {
+            canvas.invalidateHitTestCache();
+        }
+    }
+
+    /**
+     * Shows or hides the widget.
+     */
+    public void setVisible(boolean visible) {
+        if (this.isVisible == visible) {
+            return;
+        }
+
+        if (!visible) {
+            repaint();
+            notifyHitAreaChanged();
+        }
+
+        this.isVisible = visible;
+
+        if (visible) {
+            repaint();
+            notifyHitAreaChanged();
+        }
+    }
+
+    /**
+     * Sets the opacity of the widget. The opacity is multiplied with the opacity of the parent widgets.
+     */
+    public void setOpacity(float opacity) {
+        if (this.opacity != opacity) {
+            this.opacity = opacity;
+            repaint();
         }
     }
 
@@ -504,7 +778,10 @@ public class KrWidget implements KrUpdateListener {
     @Override
     public void update(float deltaSeconds) {
         if (!isValid) {
+            KrProfiler profiler = getDefaultToolkit().getProfiler();
+            profiler.beginSample();
             validate();
+            profiler.endSample(this, VALIDATE);
         }
     }
 
@@ -522,21 +799,56 @@ public class KrWidget implements KrUpdateListener {
             return;
         }
 
+        renderer.pushState();
         renderer.translate(getX(), getY());
-        boolean clipped = false;
+
+        // empty widgets can't be clipped, and their children are rendered unclipped (see beginClip)
+        if (clipRendering && getWidth() > 0 && getHeight() > 0 && renderer.isClipped(0, 0, getWidth(), getHeight())) {
+            renderer.popState();
+            return;
+        }
+
         if (clipRendering) {
-            clipped = renderer.beginClip(0, 0, getWidth(), getHeight());
+            renderer.beginClip(0, 0, getWidth(), getHeight());
+        }
+        renderer.setOpacity(getDrawOpacity());
+
+        // nested display lists are flattened into the one being recorded. Transparent subtrees are drawn
+        // directly, since opacities are recorded relative to the opacity of the widget
+        if (displayList != null && !KrDisplayList.isRecording(renderer) && renderer.getOpacity() > 0) {
+            drawDisplayList(renderer);
+        } else {
+            drawSelfProfiled(renderer);
+            drawChildren(renderer);
         }
-        float oldOpacity = renderer.setOpacity(getDrawOpacity());
 
+        // restores the translation, clip and opacity of the parent
+        renderer.popState();
+    }
+
+    /**
+     * Draws this widget, without its children, and samples the time it takes when the profiler is enabled.
+     */
+    private void drawSelfProfiled(KrRenderer renderer) {
+        KrProfiler profiler = getDefaultToolkit().getProfiler();
+        profiler.beginSample();
         drawSelf(renderer);
-        drawChildren(renderer);
+        profiler.endSample(this, DRAW);
+    }
 
-        renderer.setOpacity(oldOpacity);
-        renderer.translate(-getX(), -getY());
-        if (clipped) {
-            renderer.endClip();
+    /**
+     * Replays the display list of this widget, after recording it if needed.
+     */
+    private void drawDisplayList(KrRenderer renderer) {
+        if (displayList.isValid()) {
+            displayList.replay(renderer);
+            return;
         }
+
+        KrRenderer recorder = displayList.beginRecording(renderer);
+        drawSelfProfiled(recorder);
+        drawChildren(recorder);
+        displayList.endRecording();
     }
 
     /**
@@ -756,14 +1068,58 @@ public class KrWidget implements KrUpdateListener {
      * Returns the geometry of this widget in screen space.
      */
     public Rectangle getScreenGeometry() {
-        float offsetX = 0;
-        float offsetY = 0;
-        if (parent != null) {
-            Rectangle parentGeometry = parent.getScreenGeometry();
-            offsetX = parentGeometry.x;
-            offsetY = parentGeometry.y;
+        return getScreenGeometry(new Rectangle());
+    }
+
+    /**
+     * Returns the geometry of this widget in screen space.
+     *
+     * @param geometry this object is updated with the return value, then returned.
+     */
+    public Rectangle getScreenGeometry(Rectangle geometry) {
+        return geometry.set(getScreenX(), getScreenY(), getWidth(), getHeight());
+    }
+
+    /**
+     * Returns the X coordinate of this widget in screen space. The screen position is cached, and
+     * recomputed only after this widget or one of its ancestors moves.
+     */
+    public float getScreenX() {
+        ensureScreenPosition();
+        return screenX;
+    }
+
+    /**
+     * Returns the Y coordinate of this widget in screen space.
+     */
+    public float getScreenY() {
+        ensureScreenPosition();
+        return screenY;
+    }
+
+    private void ensureScreenPosition() {
+        if (isScreenPositionValid) {
+            return;
+        }
+
+        screenX = parent != null ? parent.getScreenX() + x : x;
+        screenY = parent != null ? parent.getScreenY() + y : y;
+        isScreenPositionValid = true;
+    }
+
+    /**
+     * Invalidates the cached screen position of this widget and its descendants. A widget with a valid
+     * screen position always has valid ancestors, so the walk stops at widgets that are already invalid.
+     */
+    private void invalidateScreenPosition() {
+        if (!isScreenPositionValid) {
+            return;
+        }
+
+        isScreenPositionValid = false;
+        for (int i = 0; i < children.size(); ++i) {
+            children.get(i).invalidateScreenPosition();
         }
-        return new Rectangle(offsetX + getX(), offsetY + getY(), getWidth(), getHeight());
     }
 
     /**
@@ -794,15 +1150,38 @@ public class KrWidget implements KrUpdateListener {
      * object does not belong to the canvas.
      */
     public KrCanvas getCanvas() {
-        if (canvas != null) {
-            return canvas;
+        return canvas;
+    }
+
+    /**
+     * Sets the canvas that hosts this widget and all its children. This method is called by the parent
+     * when this widget is added to, or removed from, a widget hierarchy.
+     *
+     * @param canvas the new canvas, or {@code null} if the widget is removed from its canvas
+     */
+    public void setCanvas(KrCanvas canvas) {
+        if (this.canvas == canvas) {
+            return;
         }
 
-        if (parent != null) {
-            canvas = parent.getCanvas();
+        if (this.canvas != null && updatesEnabled) {
+            this.canvas.getUpdateScheduler().removeTickingWidget(this);
         }
 
-        return canvas;
+        this.canvas = canvas;
+
+        if (canvas != null) {
+            if (updatesEnabled) {
+                canvas.getUpdateScheduler().addTickingWidget(this);
+            }
+            if (!isValid) {
+                scheduleValidation();
+            }
+        }
+
+        for (int i = 0; i < children.size(); ++i) {
+            children.get(i).setCanvas(canvas);
+        }
     }
 
     /**
@@ -1065,6 +1444,9 @@ public class KrWidget implements KrUpdateListener {
     public void setFocusable(boolean focusable) {
         if (this.isFocusable != focusable) {
             this.isFocusable = focusable;
+            if (canvas != null) {
+                canvas.getFocusManager().focusableChanged(this);
+            }
             notifyWidgetPropertyChanged(FOCUS_PROPERTY, !isFocusable, isFocusable);
         }
     }
@@ -1087,10 +1469,31 @@ public class KrWidget implements KrUpdateListener {
      * @return the position translated to local space
      */
     public Vector2 screenToLocal(float screenX, float screenY) {
-        Rectangle screenGeometry = KrCanvas.getScreenGeometry(this);
-        float localX = screenGeometry.x;
-        float localY = screenGeometry.y;
-        return new Vector2(screenX - localX, screenY - localY);
+        return screenToLocal(screenX, screenY, new Vector2());
+    }
+
+    /**
+     * Converts a point from screen space to local space.
+     *
+     * @param screenX the screen X position
+     * @param screenY the screen Y position
+     * @param local   this object is updated with the position translated to local space, then returned
+     * @return the position translated to local space
+     */
+    public Vector2 screenToLocal(float screenX, float screenY, Vector2 local) {
+        return local.set(screenX - getScreenX(), screenY - getScreenY());
+    }
+
+    /**
+     * Converts a point from local space to screen space.
+     *
+     * @param localX the local X position
+     * @param localY the local Y position
+     * @param screen this object is updated with the position translated to screen space, then returned
+     * @return the position translated to screen space
+     */
+    public Vector2 localToScreen(float localX, float localY, Vector2 screen) {
+        return screen.set(localX + getScreenX(), localY + getScreenY());
     }
 
     @Override
@@ -1106,55 +1509,81 @@ public class KrWidget implements KrUpdateListener {
     }
 
     protected void notifyKeyPressed(KrKeyEvent event) {
-        keyboardListeners.forEach(l -> l.keyPressed(event));
+        for (int i = 0; i < keyboardListeners.size(); ++i) {
+            keyboardListeners.get(i).keyPressed(event);
+        }
     }
 
     protected void notifyKeyReleased(KrKeyEvent event) {
-        keyboardListeners.forEach(l -> l.keyReleased(event));
+        for (int i = 0; i < keyboardListeners.size(); ++i) {
+            keyboardListeners.get(i).keyReleased(event);
+        }
     }
 
     protected void notifyMouseScrolled(KrScrollEvent event) {
-        mouseListeners.forEach(l -> l.scrolled(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).scrolled(event);
+        }
     }
 
     protected void notifyMouseMoved(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseMoved(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseMoved(event);
+        }
     }
 
     protected void notifyMousePressed(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mousePressed(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mousePressed(event);
+        }
     }
 
     protected void notifyMouseDoubleClicked(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseDoubleClicked(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseDoubleClicked(event);
+        }
     }
 
     protected void notifyMouseReleased(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseReleased(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseReleased(event);
+        }
     }
 
     protected void notifyMouseEnter(KrEnterEvent event) {
-        mouseListeners.forEach(l -> l.enter(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).enter(event);
+        }
     }
 
     protected void notifyMouseExit(KrExitEvent event) {
-        mouseListeners.forEach(l -> l.exit(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).exit(event);
+        }
     }
 
     protected void notifyFocusGained(KrFocusEvent event) {
-        focusListeners.forEach(l -> l.focusGained(event));
+        for (int i = 0; i < focusListeners.size(); ++i) {
+            focusListeners.get(i).focusGained(event);
+        }
     }
 
     protected void notifyFocusLost(KrFocusEvent event) {
-        focusListeners.forEach(l -> l.focusLost(event));
+        for (int i = 0; i < focusListeners.size(); ++i) {
+            focusListeners.get(i).focusLost(event);
+        }
     }
 
     protected void notifyWidgetPropertyChanged(String propertyName, Object oldValue, Object newValue) {
-        widgetListeners.forEach(listener -> listener.propertyChanged(propertyName, oldValue, newValue));
+        for (int i = 0; i < widgetListeners.size(); ++i) {
+            widgetListeners.get(i).propertyChanged(propertyName, oldValue, newValue);
+        }
     }
 
     protected void notifyWidgetInvalidated() {
-        widgetListeners.forEach(KrWidgetListener::invalidated);
+        for (int i = 0; i < widgetListeners.size(); ++i) {
+            widgetListeners.get(i).invalidated();
+        }
     }
 
     /**
@@ -1,8 +1,24 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
+
 /**
  * The {@link KrEnterEvent} describes an enter event. Such an event happens when the mouse enters the
  * bounding area of a widget
  */
 public class KrEnterEvent extends KrEvent {
+
+    private static final Pool<KrEnterEvent> POOL = new Pool<KrEnterEvent>() {
+        @Override
+        protected KrEnterEvent newObject() {
+            return new KrEnterEvent();
+        }
+    };
+
+    /**
+     * Obtains a pooled enter event. The event must be released after being dispatched.
+     */
+    public static KrEnterEvent obtain() {
+        return obtain(POOL);
+    }
 }
@@ -1,16 +1,28 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 /**
  * Base class for all event objects.
+ * <p>
+ * Events created by the input sources are pooled, and are recycled as soon as they have been dispatched.
+ * Listeners that need to keep an event after returning from the listener method must call {@link #retain()},
+ * and {@link #release()} once they are done with it. Events created with a constructor are not pooled, and
+ * calling {@code retain} or {@code release} on them has no effect.
  */
-@ToString
-@EqualsAndHashCode
-public class KrEvent {
+@ToString(exclude = {"timestamp", "referenceCount", "pool"})
+@EqualsAndHashCode(exclude = {"timestamp", "referenceCount", "pool"})
+public class KrEvent implements Pool.Poolable {
     private boolean isHandled = false;
 
+    private long timestamp;
+
+    private int referenceCount;
+
+    private Pool<KrEvent> pool;
+
     public void accept() {
         isHandled = true;
     }
@@ -22,4 +34,71 @@ public class KrEvent {
     public boolean handled() {
         return isHandled;
     }
+
+    /**
+     * Returns the time at which the input that caused this event happened, in nanoseconds as returned by
+     * {@link System#nanoTime()}. Events that don't come from an input source have a timestamp of 0.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Prevents a pooled event from being recycled until a matching call to {@link #release()}.
+     *
+     * @return this event
+     */
+    public KrEvent retain() {
+        referenceCount += 1;
+        return this;
+    }
+
+    /**
+     * Releases a reference to this event. A pooled event is returned to its pool once all the
+     * references are released.
+     */
+    public void release() {
+        if (pool == null) {
+            return;
+        }
+
+        referenceCount -= 1;
+        if (referenceCount <= 0) {
+            Pool<KrEvent> eventPool = pool;
+            pool = null;
+            eventPool.free(this);
+        }
+    }
+
+    /**
+     * Returns true if the event belongs to a pool and has not been released yet.
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    @Override
+    public void reset() {
+        isHandled = false;
+        timestamp = 0;
+        referenceCount = 0;
+    }
+
+    /**
+     * Obtains an event from a pool. The caller owns the only reference to the event, and is
+     * responsible for releasing it.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T extends KrEvent> T obtain(Pool<T> pool) {
+        T event = pool.obtain();
+        KrEvent baseEvent = event;
+        baseEvent.isHandled = false;
+        baseEvent.pool = (Pool<KrEvent>) pool;
+        baseEvent.referenceCount = 1;
+        return event;
+    }
 }
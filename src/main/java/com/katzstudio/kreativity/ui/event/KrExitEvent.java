@@ -1,8 +1,24 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
+
 /**
- * The {@link KrExitEvent} describes an exit event. Such an event happens when the mouse exists the
+ * The {@link KrExitEvent} describes an exit event. Such an event happens when the mouse exits the
  * bounding area of a widget
  */
 public class KrExitEvent extends KrEvent {
+
+    private static final Pool<KrExitEvent> POOL = new Pool<KrExitEvent>() {
+        @Override
+        protected KrExitEvent newObject() {
+            return new KrExitEvent();
+        }
+    };
+
+    /**
+     * Obtains a pooled exit event. The event must be released after being dispatched.
+     */
+    public static KrExitEvent obtain() {
+        return obtain(POOL);
+    }
 }
@@ -1,21 +1,25 @@
 package com.katzstudio.kreativity.ui.event
 
+import com.badlogic.gdx.utils.Pool
+
 /**
  * The [KrKeyEvent] class contains parameters that describe keyboard events.
+ *
+ * Key events are mutable so they can be pooled: use [obtain] to get an event from the pool.
  */
 data class KrKeyEvent (
 
-    val type: Type,
+    var type: Type,
 
-    val keycode: Int = 0,
+    var keycode: Int = 0,
 
-    val value: String? = null,
+    var value: String? = null,
 
-    val isAltDown:   Boolean = false,
+    var isAltDown:   Boolean = false,
 
-    val isCtrlDown:  Boolean = false,
+    var isCtrlDown:  Boolean = false,
 
-    val isShiftDown: Boolean = false
+    var isShiftDown: Boolean = false
 
 ) : KrEvent() {
 
@@ -23,4 +27,28 @@ data class KrKeyEvent (
         PRESSED, RELEASED
     }
 
+    companion object {
+
+        private val pool = object : Pool<KrKeyEvent>() {
+            override fun newObject(): KrKeyEvent {
+                return KrKeyEvent(Type.PRESSED)
+            }
+        }
+
+        /**
+         * Obtains a pooled key event. The event must be released after being dispatched.
+         */
+        @JvmStatic
+        fun obtain(type: Type, keycode: Int, value: String?,
+                   isAltDown: Boolean, isCtrlDown: Boolean, isShiftDown: Boolean): KrKeyEvent {
+            val event = KrEvent.obtain(pool)
+            event.type = type
+            event.keycode = keycode
+            event.value = value
+            event.isAltDown = isAltDown
+            event.isCtrlDown = isCtrlDown
+            event.isShiftDown = isShiftDown
+            return event
+        }
+    }
 }
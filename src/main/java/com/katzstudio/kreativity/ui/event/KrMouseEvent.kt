@@ -1,25 +1,28 @@
 package com.katzstudio.kreativity.ui.event
 
 import com.badlogic.gdx.math.Vector2
+import com.badlogic.gdx.utils.Pool
 
 /**
  * The [KrMouseEvent] class contains parameters that describe generic mouse events.
+ *
+ * Mouse events are mutable so they can be pooled: use [obtain] to get an event from the pool.
  */
 data class KrMouseEvent (
 
-    val type: Type,
+    var type: Type,
 
-    val button: Button?,
+    var button: Button?,
 
-    val deltaMove: Vector2?,
+    var deltaMove: Vector2?,
 
-    val screenPosition: Vector2?,
+    var screenPosition: Vector2?,
 
-    val isAltDown: Boolean = false,
+    var isAltDown: Boolean = false,
 
-    val isCtrlDown: Boolean = false,
+    var isCtrlDown: Boolean = false,
 
-    val isShiftDown: Boolean = false
+    var isShiftDown: Boolean = false
 
 ) : KrEvent() {
 
@@ -31,4 +34,29 @@ data class KrMouseEvent (
         LEFT, RIGHT, MIDDLE, NONE
     }
 
+    companion object {
+
+        private val pool = object : Pool<KrMouseEvent>() {
+            override fun newObject(): KrMouseEvent {
+                return KrMouseEvent(Type.MOVED, Button.NONE, Vector2(), Vector2())
+            }
+        }
+
+        /**
+         * Obtains a pooled mouse event. The event must be released after being dispatched.
+         */
+        @JvmStatic
+        fun obtain(type: Type, button: Button?, screenX: Float, screenY: Float, deltaX: Float, deltaY: Float,
+                   isAltDown: Boolean, isCtrlDown: Boolean, isShiftDown: Boolean): KrMouseEvent {
+            val event = KrEvent.obtain(pool)
+            event.type = type
+            event.button = button
+            event.screenPosition = (event.screenPosition ?: Vector2()).set(screenX, screenY)
+            event.deltaMove = (event.deltaMove ?: Vector2()).set(deltaX, deltaY)
+            event.isAltDown = isAltDown
+            event.isCtrlDown = isCtrlDown
+            event.isShiftDown = isShiftDown
+            return event
+        }
+    }
 }
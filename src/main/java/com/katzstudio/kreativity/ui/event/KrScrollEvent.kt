@@ -1,6 +1,30 @@
 package com.katzstudio.kreativity.ui.event
 
+import com.badlogic.gdx.utils.Pool
+
 /**
  * The [KrScrollEvent] class contains parameters that describe mouse scroll events.
+ *
+ * Scroll events are mutable so they can be pooled: use [obtain] to get an event from the pool.
  */
-data class KrScrollEvent(val scrollAmount: Float = 0.toFloat()) : KrEvent()
+data class KrScrollEvent(var scrollAmount: Float = 0.toFloat()) : KrEvent() {
+
+    companion object {
+
+        private val pool = object : Pool<KrScrollEvent>() {
+            override fun newObject(): KrScrollEvent {
+                return KrScrollEvent()
+            }
+        }
+
+        /**
+         * Obtains a pooled scroll event. The event must be released after being dispatched.
+         */
+        @JvmStatic
+        fun obtain(scrollAmount: Float): KrScrollEvent {
+            val event = KrEvent.obtain(pool)
+            event.scrollAmount = scrollAmount
+            return event
+        }
+    }
+}
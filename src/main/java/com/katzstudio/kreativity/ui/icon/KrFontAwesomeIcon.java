@@ -1,6 +1,5 @@
 package com.katzstudio.kreativity.ui.icon;
 
-import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.KrFontAwesomeGlyph;
 import com.katzstudio.kreativity.ui.KrToolkit;
@@ -28,9 +27,9 @@ public class KrFontAwesomeIcon implements KrIcon {
 
     @Override
     public void draw(KrRenderer renderer, int x, int y) {
-        BitmapFont originalFont = renderer.getFont();
+        renderer.pushState();
         renderer.setFont(KrToolkit.getDefaultToolkit().getSkin().getFontAwesome());
         renderer.drawText(glyph.getRepresentation(), x + RENDER_OFFSET_X, y + RENDER_OFFSET_Y);
-        renderer.setFont(originalFont);
+        renderer.popState();
     }
 }
@@ -0,0 +1,149 @@
+package com.katzstudio.kreativity.ui.math;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A Fenwick tree (binary indexed tree) of non-negative values, such as the heights of the rows of a list.
+ * <p>
+ * Changing a value, computing the sum of the values before an index, and finding the index that contains an
+ * offset (e.g. the row under the mouse) take O(log n). Filling the tree takes O(n).
+ * <p>
+ * The sums are accumulated in double precision, so they stay exact for millions of rows, where float sums would
+ * already drift by whole pixels.
+ */
+public class KrFenwickTree {
+
+    private double[] values = new double[0];
+
+    /**
+     * The partial sums, indexed from 1: {@code tree[i]} is the sum of the {@code i & -i} values ending with
+     * the value at {@code i - 1}.
+     */
+    private double[] tree = new double[1];
+
+    private int size;
+
+    public KrFenwickTree() {
+    }
+
+    public KrFenwickTree(int size, float value) {
+        fill(size, value);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Resizes the tree to hold {@code size} values, all set to {@code value}.
+     */
+    public void fill(int size, float value) {
+        resize(size);
+        Arrays.fill(values, 0, size, value);
+        build();
+    }
+
+    /**
+     * Resizes the tree to hold {@code size} values, each given by the function for its index.
+     */
+    public void fill(int size, IntToDoubleFunction values) {
+        resize(size);
+        for (int i = 0; i < size; ++i) {
+            this.values[i] = values.applyAsDouble(i);
+        }
+        build();
+    }
+
+    /**
+     * Sets all the values at once, resizing the tree to the length of the array.
+     */
+    public void setAll(float[] values) {
+        resize(values.length);
+        for (int i = 0; i < size; ++i) {
+            this.values[i] = values[i];
+        }
+        build();
+    }
+
+    private void resize(int size) {
+        if (values.length < size) {
+            values = new double[size];
+            tree = new double[size + 1];
+        }
+        this.size = size;
+    }
+
+    private void build() {
+        Arrays.fill(tree, 0, size + 1, 0);
+        for (int i = 1; i <= size; ++i) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= size) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    public float get(int index) {
+        checkIndex(index);
+        return (float) values[index];
+    }
+
+    public void set(int index, float value) {
+        checkIndex(index);
+        double delta = value - values[index];
+        values[index] = value;
+        for (int i = index + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Returns the sum of the values before an index, from 0 to {@code index - 1}.
+     *
+     * @param index an index from 0 to {@link #size()}
+     */
+    public double sumBefore(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+
+        double sum = 0;
+        for (int i = index; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of all the values.
+     */
+    public double total() {
+        return sumBefore(size);
+    }
+
+    /**
+     * Returns the index whose value spans the offset: the first index {@code i} such that
+     * {@code sumBefore(i + 1) > offset}. Returns 0 for negative offsets, and {@link #size()} when the offset is
+     * past the sum of all the values. Indexes with a value of 0 never span an offset.
+     */
+    public int findIndex(double offset) {
+        int index = 0;
+        double remaining = offset;
+        for (int step = Integer.highestOneBit(size); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= size && tree[next] <= remaining) {
+                index = next;
+                remaining -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
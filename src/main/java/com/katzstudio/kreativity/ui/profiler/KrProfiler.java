@@ -0,0 +1,357 @@
+package com.katzstudio.kreativity.ui.profiler;
+
+import com.badlogic.gdx.utils.ObjectMap;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records where the time of the frames goes: the nanoseconds spent in each {@link Phase} of the frame, and the
+ * time spent drawing and validating widgets, by widget class and by widget name.
+ * <p>
+ * The timings of the last {@link #HISTORY_SIZE} frames are kept in ring buffers. Recording doesn't allocate,
+ * except the first time a widget class or a widget name is sampled. A disabled profiler returns from every
+ * method right away.
+ * <p>
+ * A frame starts with {@link #beginFrame()}, called by the toolkit when it's updated, and lasts until the next
+ * one starts, so it includes the draw that follows the update.
+ */
+public class KrProfiler {
+
+    public static final int HISTORY_SIZE = 128;
+
+    private static final int PHASE_COUNT = Phase.values().length;
+
+    private static final int SAMPLE_COUNT = Sample.values().length;
+
+    @Getter private boolean isEnabled;
+
+    /**
+     * The frame in progress, as an index in the ring buffers.
+     */
+    private int currentFrame;
+
+    /**
+     * The number of frames completed since the profiler was enabled, capped to {@code HISTORY_SIZE - 1}.
+     */
+    @Getter private int recordedFrameCount;
+
+    /**
+     * False until the first frame starts after the profiler is enabled or cleared, since the frame in progress
+     * at that time is only partially timed.
+     */
+    private boolean isFrameStarted;
+
+    private final long[] phaseNanos = new long[HISTORY_SIZE * PHASE_COUNT];
+
+    private final long[] phaseStarts = new long[PHASE_COUNT];
+
+    /**
+     * The samples in progress. Samples nest (a widget draws the cells of a list while the list is drawn), so
+     * the time spent in the nested samples is subtracted from the time of the enclosing one.
+     */
+    private long[] sampleStarts = new long[32];
+
+    private long[] sampleNestedNanos = new long[32];
+
+    private int sampleDepth;
+
+    private final ObjectMap<Class<?>, Entry> classEntries = new ObjectMap<>();
+
+    private final ObjectMap<String, Entry> nameEntries = new ObjectMap<>();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Enables or disables the profiler. The recorded timings are cleared when the profiler is enabled.
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.isEnabled == enabled) {
+            return;
+        }
+
+        this.isEnabled = enabled;
+        if (enabled) {
+            clear();
+        }
+    }
+
+    /**
+     * Clears the recorded timings.
+     */
+    public void clear() {
+        Arrays.fill(phaseNanos, 0);
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < entries.size(); ++i) {
+            entries.get(i).clear();
+        }
+        currentFrame = 0;
+        recordedFrameCount = 0;
+        isFrameStarted = false;
+        sampleDepth = 0;
+    }
+
+    /**
+     * Completes the frame in progress, and starts a new one.
+     */
+    public void beginFrame() {
+        if (!isEnabled) {
+            return;
+        }
+
+        if (isFrameStarted) {
+            currentFrame = (currentFrame + 1) % HISTORY_SIZE;
+            recordedFrameCount = Math.min(recordedFrameCount + 1, HISTORY_SIZE - 1);
+        }
+        isFrameStarted = true;
+        Arrays.fill(phaseNanos, currentFrame * PHASE_COUNT, (currentFrame + 1) * PHASE_COUNT, 0);
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < entries.size(); ++i) {
+            entries.get(i).clearFrame(currentFrame);
+        }
+        sampleDepth = 0;
+    }
+
+    public void beginPhase(Phase phase) {
+        if (!isEnabled) {
+            return;
+        }
+        phaseStarts[phase.ordinal()] = System.nanoTime();
+    }
+
+    /**
+     * Adds the time elapsed since {@link #beginPhase(Phase)} to the phase. A phase can run more than once per
+     * frame.
+     */
+    public void endPhase(Phase phase) {
+        if (!isEnabled) {
+            return;
+        }
+        phaseNanos[currentFrame * PHASE_COUNT + phase.ordinal()] += System.nanoTime() - phaseStarts[phase.ordinal()];
+    }
+
+    /**
+     * Starts timing a widget. Must be followed by {@link #endSample(KrWidget, Sample)}.
+     */
+    public void beginSample() {
+        if (!isEnabled) {
+            return;
+        }
+
+        if (sampleDepth == sampleStarts.length) {
+            sampleStarts = Arrays.copyOf(sampleStarts, sampleDepth * 2);
+            sampleNestedNanos = Arrays.copyOf(sampleNestedNanos, sampleDepth * 2);
+        }
+        sampleNestedNanos[sampleDepth] = 0;
+        sampleStarts[sampleDepth] = System.nanoTime();
+        sampleDepth += 1;
+    }
+
+    /**
+     * Adds the time elapsed since the matching {@link #beginSample()} to the class of the widget, and to its
+     * name if it has one. The time spent in nested samples is not included.
+     */
+    public void endSample(KrWidget widget, Sample sample) {
+        // the profiler may have been enabled, or a new frame started, after the sample began
+        if (!isEnabled || sampleDepth == 0) {
+            return;
+        }
+
+        sampleDepth -= 1;
+        long nanos = System.nanoTime() - sampleStarts[sampleDepth];
+        if (sampleDepth > 0) {
+            sampleNestedNanos[sampleDepth - 1] += nanos;
+        }
+
+        long selfNanos = nanos - sampleNestedNanos[sampleDepth];
+        getEntry(classEntries, widget.getClass()).add(currentFrame, sample, selfNanos);
+        if (widget.getName() != null) {
+            getEntry(nameEntries, widget.getName()).add(currentFrame, sample, selfNanos);
+        }
+    }
+
+    private <K> Entry getEntry(ObjectMap<K, Entry> entriesByKey, K key) {
+        Entry entry = entriesByKey.get(key);
+        if (entry == null) {
+            entry = new Entry();
+            entriesByKey.put(key, entry);
+            entries.add(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the time spent in a phase of a completed frame.
+     *
+     * @param framesAgo 0 for the last completed frame, up to {@link #getRecordedFrameCount()} - 1
+     */
+    public long getPhaseNanos(int framesAgo, Phase phase) {
+        return phaseNanos[getFrameIndex(framesAgo) * PHASE_COUNT + phase.ordinal()];
+    }
+
+    /**
+     * Returns the time spent in all the phases of a completed frame.
+     *
+     * @param framesAgo 0 for the last completed frame, up to {@link #getRecordedFrameCount()} - 1
+     */
+    public long getFrameNanos(int framesAgo) {
+        int index = getFrameIndex(framesAgo) * PHASE_COUNT;
+        long nanos = 0;
+        for (int i = 0; i < PHASE_COUNT; ++i) {
+            nanos += phaseNanos[index + i];
+        }
+        return nanos;
+    }
+
+    /**
+     * Returns the average time spent in a phase by the recorded frames.
+     */
+    public long getAveragePhaseNanos(Phase phase) {
+        if (recordedFrameCount == 0) {
+            return 0;
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < recordedFrameCount; ++i) {
+            nanos += getPhaseNanos(i, phase);
+        }
+        return nanos / recordedFrameCount;
+    }
+
+    /**
+     * Returns the time spent in a completed frame by the widgets of a class, without their children.
+     */
+    public long getWidgetClassNanos(Class<? extends KrWidget> widgetClass, Sample sample, int framesAgo) {
+        Entry entry = classEntries.get(widgetClass);
+        return entry != null ? entry.nanos[getFrameIndex(framesAgo) * SAMPLE_COUNT + sample.ordinal()] : 0;
+    }
+
+    /**
+     * Returns the time spent in a completed frame by the widgets with a name, without their children.
+     */
+    public long getWidgetNanos(String name, Sample sample, int framesAgo) {
+        Entry entry = nameEntries.get(name);
+        return entry != null ? entry.nanos[getFrameIndex(framesAgo) * SAMPLE_COUNT + sample.ordinal()] : 0;
+    }
+
+    /**
+     * Returns the average time spent by the recorded frames in the widgets of a class, without their children.
+     */
+    public long getAverageWidgetClassNanos(Class<? extends KrWidget> widgetClass, Sample sample) {
+        return getAverageNanos(classEntries.get(widgetClass), sample);
+    }
+
+    /**
+     * Returns the average time spent by the recorded frames in the widgets with a name, without their children.
+     */
+    public long getAverageWidgetNanos(String name, Sample sample) {
+        return getAverageNanos(nameEntries.get(name), sample);
+    }
+
+    private long getAverageNanos(Entry entry, Sample sample) {
+        if (entry == null || recordedFrameCount == 0) {
+            return 0;
+        }
+
+        long nanos = 0;
+        for (int i = 0; i < recordedFrameCount; ++i) {
+            nanos += entry.nanos[getFrameIndex(i) * SAMPLE_COUNT + sample.ordinal()];
+        }
+        return nanos / recordedFrameCount;
+    }
+
+    /**
+     * Returns the classes of the widgets sampled since the profiler was created.
+     */
+    public List<Class<?>> getWidgetClasses() {
+        List<Class<?>> widgetClasses = new ArrayList<>();
+        for (Class<?> widgetClass : classEntries.keys()) {
+            widgetClasses.add(widgetClass);
+        }
+        return widgetClasses;
+    }
+
+    /**
+     * Returns the names of the widgets sampled since the profiler was created.
+     */
+    public List<String> getWidgetNames() {
+        List<String> names = new ArrayList<>();
+        for (String name : nameEntries.keys()) {
+            names.add(name);
+        }
+        return names;
+    }
+
+    private int getFrameIndex(int framesAgo) {
+        if (framesAgo < 0 || framesAgo >= recordedFrameCount) {
+            throw new IndexOutOfBoundsException("Frame " + framesAgo + " is not recorded, " + recordedFrameCount + " frames are");
+        }
+        return (currentFrame - 1 - framesAgo + HISTORY_SIZE) % HISTORY_SIZE;
+    }
+
+    /**
+     * The phases of a frame.
+     */
+    public enum Phase {
+        /**
+         * Dispatching the input events received since the last frame.
+         */
+        INPUT,
+
+        /**
+         * Updating the widgets that enabled per-frame updates, and the tooltips.
+         */
+        UPDATE,
+
+        /**
+         * Validating the invalid widgets, and laying out their children.
+         */
+        VALIDATION,
+
+        /**
+         * Advancing the running animations.
+         */
+        ANIMATIONS,
+
+        /**
+         * Running the update listeners, such as the timers.
+         */
+        TIMERS,
+
+        /**
+         * Drawing the canvas, including the flush of the renderer at the end of the frame.
+         */
+        DRAW,
+    }
+
+    /**
+     * The work sampled for each widget.
+     */
+    public enum Sample {
+        DRAW,
+        VALIDATE,
+    }
+
+    /**
+     * The ring buffer of the timings of a widget class or a widget name.
+     */
+    private static class Entry {
+
+        private final long[] nanos = new long[HISTORY_SIZE * SAMPLE_COUNT];
+
+        void add(int frame, Sample sample, long nanos) {
+            this.nanos[frame * SAMPLE_COUNT + sample.ordinal()] += nanos;
+        }
+
+        void clearFrame(int frame) {
+            Arrays.fill(nanos, frame * SAMPLE_COUNT, (frame + 1) * SAMPLE_COUNT, 0);
+        }
+
+        void clear() {
+            Arrays.fill(nanos, 0);
+        }
+    }
+}
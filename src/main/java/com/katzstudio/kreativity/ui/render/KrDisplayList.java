@@ -0,0 +1,493 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A recorded sequence of draw commands, that can be replayed without running the code that issued them.
+ * <p>
+ * Commands are stored in primitive arrays: an opcode per command, followed by its float arguments,
+ * its packed colors and its object references (strings, fonts and drawables). Translations are recorded as they
+ * are issued, so a replayed list is relative to the translation of the renderer. Opacities are recorded
+ * relative to the opacity the renderer had when recording started, so a replayed list is also
+ * composed with the opacity of the renderer.
+ * <p>
+ * Colors are recorded as RGBA8888 ints, so later changes to the {@link Color} objects have no effect on the
+ * list. Replaying doesn't allocate.
+ */
+public class KrDisplayList {
+
+    private static final int DRAW_TEXT = 0;
+    private static final int DRAW_TEXT_WITH_SHADOW = 1;
+    private static final int DRAW_RECT = 2;
+    private static final int DRAW_LINE = 3;
+    private static final int FILL_RECT = 4;
+    private static final int FILL_ROUNDED_RECT = 5;
+    private static final int TRANSLATE = 6;
+    private static final int BEGIN_CLIP = 7;
+    private static final int END_CLIP = 8;
+    private static final int CLEAR_RECT = 9;
+    private static final int SET_OPACITY = 10;
+    private static final int SET_FONT = 11;
+    private static final int SET_BRUSH = 12;
+    private static final int SET_DRAWABLE_BRUSH = 13;
+    private static final int SET_PEN = 15;
+    private static final int PUSH_STATE = 16;
+    private static final int POP_STATE = 17;
+    private static final int SET_PEN_RGBA = 18;
+    private static final int SET_BRUSH_RGBA = 19;
+    private static final int DRAW_MEASURED_TEXT = 20;
+    private static final int DRAW_MEASURED_TEXT_WITH_SHADOW = 21;
+
+    private int[] opcodes = new int[64];
+
+    private float[] floats = new float[256];
+
+    private int[] colors = new int[64];
+
+    private Object[] refs = new Object[64];
+
+    @Getter private int size;
+
+    private int floatCount;
+
+    private int colorCount;
+
+    private int refCount;
+
+    @Getter private boolean isValid;
+
+    private final Recorder recorder = new Recorder();
+
+    private final Vector2 tmpPosition = new Vector2();
+
+    private final Vector2 tmpShadowOffset = new Vector2();
+
+    /**
+     * Returns true if the renderer records into a display list.
+     */
+    public static boolean isRecording(KrRenderer renderer) {
+        return renderer instanceof Recorder;
+    }
+
+    /**
+     * Marks the list as outdated. It has to be recorded again before being replayed.
+     */
+    public void invalidate() {
+        isValid = false;
+    }
+
+    /**
+     * Clears the list and starts recording. The commands issued to the returned renderer are recorded,
+     * and forwarded to the target renderer.
+     *
+     * @param target the renderer that draws the recorded commands
+     * @return the renderer that records the commands
+     */
+    public KrRenderer beginRecording(KrRenderer target) {
+        Arrays.fill(refs, 0, refCount, null);
+        size = 0;
+        floatCount = 0;
+        colorCount = 0;
+        refCount = 0;
+        isValid = false;
+        recorder.target = target;
+        recorder.baseOpacity = target.getOpacity();
+        return recorder;
+    }
+
+    /**
+     * Ends the recording. The list is valid until it is invalidated.
+     */
+    public void endRecording() {
+        recorder.target = null;
+        isValid = true;
+    }
+
+    /**
+     * Replays the recorded commands.
+     *
+     * @param renderer the renderer used to draw the commands
+     */
+    public void replay(KrRenderer renderer) {
+        float baseOpacity = renderer.getOpacity();
+        int floatIndex = 0;
+        int colorIndex = 0;
+        int refIndex = 0;
+
+        for (int i = 0; i < size; ++i) {
+            switch (opcodes[i]) {
+                case DRAW_TEXT:
+                    renderer.drawText((String) refs[refIndex++], floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case DRAW_TEXT_WITH_SHADOW:
+                    tmpPosition.set(floats[floatIndex], floats[floatIndex + 1]);
+                    tmpShadowOffset.set(floats[floatIndex + 2], floats[floatIndex + 3]);
+                    renderer.drawTextWithShadow((String) refs[refIndex], tmpPosition, tmpShadowOffset, (Color) refs[refIndex + 1]);
+                    floatIndex += 4;
+                    refIndex += 2;
+                    break;
+                case DRAW_MEASURED_TEXT:
+                    renderer.drawText((KrMeasuredString) refs[refIndex++], floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case DRAW_MEASURED_TEXT_WITH_SHADOW:
+                    tmpPosition.set(floats[floatIndex], floats[floatIndex + 1]);
+                    tmpShadowOffset.set(floats[floatIndex + 2], floats[floatIndex + 3]);
+                    renderer.drawTextWithShadow((KrMeasuredString) refs[refIndex], tmpPosition, tmpShadowOffset, (Color) refs[refIndex + 1]);
+                    floatIndex += 4;
+                    refIndex += 2;
+                    break;
+                case DRAW_RECT:
+                    renderer.drawRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case DRAW_LINE:
+                    renderer.drawLine(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case FILL_RECT:
+                    renderer.fillRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case FILL_ROUNDED_RECT:
+                    renderer.fillRoundedRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2],
+                            floats[floatIndex + 3], (int) floats[floatIndex + 4]);
+                    floatIndex += 5;
+                    break;
+                case TRANSLATE:
+                    renderer.translate(floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case BEGIN_CLIP:
+                    renderer.beginClip(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case END_CLIP:
+                    renderer.endClip();
+                    break;
+                case CLEAR_RECT:
+                    renderer.clearRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case SET_OPACITY:
+                    renderer.setOpacity(floats[floatIndex++] * baseOpacity);
+                    break;
+                case SET_FONT:
+                    renderer.setFont((BitmapFont) refs[refIndex++]);
+                    break;
+                case SET_BRUSH:
+                    renderer.setBrush((KrBrush) refs[refIndex++]);
+                    break;
+                case SET_DRAWABLE_BRUSH:
+                    renderer.setBrush((Drawable) refs[refIndex++]);
+                    break;
+                case SET_PEN:
+                    renderer.setPen((int) floats[floatIndex++], (Color) refs[refIndex++]);
+                    break;
+                case SET_PEN_RGBA:
+                    renderer.setPen(colors[colorIndex++]);
+                    break;
+                case SET_BRUSH_RGBA:
+                    renderer.setBrush(colors[colorIndex++]);
+                    break;
+                case PUSH_STATE:
+                    renderer.pushState();
+                    break;
+                case POP_STATE:
+                    renderer.popState();
+                    break;
+            }
+        }
+    }
+
+    private void addOpcode(int opcode) {
+        if (size == opcodes.length) {
+            opcodes = Arrays.copyOf(opcodes, size * 2);
+        }
+        opcodes[size++] = opcode;
+    }
+
+    private void addFloat(float value) {
+        if (floatCount == floats.length) {
+            floats = Arrays.copyOf(floats, floatCount * 2);
+        }
+        floats[floatCount++] = value;
+    }
+
+    private void addFloats(float a, float b) {
+        addFloat(a);
+        addFloat(b);
+    }
+
+    private void addFloats(float a, float b, float c, float d) {
+        addFloat(a);
+        addFloat(b);
+        addFloat(c);
+        addFloat(d);
+    }
+
+    private void addColor(int rgba) {
+        if (colorCount == colors.length) {
+            colors = Arrays.copyOf(colors, colorCount * 2);
+        }
+        colors[colorCount++] = rgba;
+    }
+
+    private void addRef(Object ref) {
+        if (refCount == refs.length) {
+            refs = Arrays.copyOf(refs, refCount * 2);
+        }
+        refs[refCount++] = ref;
+    }
+
+    private static Color copy(Color color) {
+        return color != null ? new Color(color) : null;
+    }
+
+    /**
+     * Records the commands issued to it, and forwards them to the target renderer.
+     */
+    private class Recorder extends KrRenderer {
+
+        private KrRenderer target;
+
+        private float baseOpacity;
+
+        @Override
+        public void beginFrame() {
+            target.beginFrame();
+        }
+
+        @Override
+        public void endFrame() {
+            target.endFrame();
+        }
+
+        @Override
+        public void drawText(String text, float x, float y) {
+            addOpcode(DRAW_TEXT);
+            addFloats(x, y);
+            addRef(text);
+            target.drawText(text, x, y);
+        }
+
+        @Override
+        public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+            addOpcode(DRAW_TEXT_WITH_SHADOW);
+            addFloats(position.x, position.y, shadowOffset.x, shadowOffset.y);
+            addRef(text);
+            addRef(copy(shadowColor));
+            target.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+        }
+
+        /**
+         * Measured strings are recorded by reference: a widget repaints itself after changing its text.
+         */
+        @Override
+        public void drawText(KrMeasuredString text, float x, float y) {
+            addOpcode(DRAW_MEASURED_TEXT);
+            addFloats(x, y);
+            addRef(text);
+            target.drawText(text, x, y);
+        }
+
+        @Override
+        public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+            addOpcode(DRAW_MEASURED_TEXT_WITH_SHADOW);
+            addFloats(position.x, position.y, shadowOffset.x, shadowOffset.y);
+            addRef(text);
+            addRef(copy(shadowColor));
+            target.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+        }
+
+        @Override
+        public void drawRect(float x, float y, float w, float h) {
+            addOpcode(DRAW_RECT);
+            addFloats(x, y, w, h);
+            target.drawRect(x, y, w, h);
+        }
+
+        @Override
+        public void drawLine(float x1, float y1, float x2, float y2) {
+            addOpcode(DRAW_LINE);
+            addFloats(x1, y1, x2, y2);
+            target.drawLine(x1, y1, x2, y2);
+        }
+
+        @Override
+        public void fillRect(float x, float y, float w, float h) {
+            addOpcode(FILL_RECT);
+            addFloats(x, y, w, h);
+            target.fillRect(x, y, w, h);
+        }
+
+        @Override
+        public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+            addOpcode(FILL_ROUNDED_RECT);
+            addFloats(x, y, w, h);
+            addFloat(cornerRadius);
+            target.fillRoundedRect(x, y, w, h, cornerRadius);
+        }
+
+        @Override
+        public void translate(float x, float y) {
+            addOpcode(TRANSLATE);
+            addFloats(x, y);
+            target.translate(x, y);
+        }
+
+        @Override
+        public boolean beginClip(float x, float y, float width, float height) {
+            boolean clipped = target.beginClip(x, y, width, height);
+            if (clipped) {
+                addOpcode(BEGIN_CLIP);
+                addFloats(x, y, width, height);
+            }
+            return clipped;
+        }
+
+        @Override
+        public void endClip() {
+            addOpcode(END_CLIP);
+            target.endClip();
+        }
+
+        /**
+         * The list is replayed whatever the clip, so nothing is skipped while recording it.
+         */
+        @Override
+        public boolean isClipped(float x, float y, float width, float height) {
+            return false;
+        }
+
+        @Override
+        public void clearRect(float x, float y, float width, float height) {
+            addOpcode(CLEAR_RECT);
+            addFloats(x, y, width, height);
+            target.clearRect(x, y, width, height);
+        }
+
+        @Override
+        public boolean setBackBufferEnabled(boolean enabled) {
+            return target.setBackBufferEnabled(enabled);
+        }
+
+        @Override
+        public void setViewportSize(float width, float height) {
+            target.setViewportSize(width, height);
+        }
+
+        @Override
+        public float setOpacity(float opacity) {
+            addOpcode(SET_OPACITY);
+            addFloat(opacity / baseOpacity);
+            return target.setOpacity(opacity);
+        }
+
+        @Override
+        public float getOpacity() {
+            return target.getOpacity();
+        }
+
+        @Override
+        public void popState() {
+            addOpcode(POP_STATE);
+            target.popState();
+        }
+
+        @Override
+        public void pushState() {
+            addOpcode(PUSH_STATE);
+            target.pushState();
+        }
+
+        @Override
+        public Vector2 getViewportSize() {
+            return target.getViewportSize();
+        }
+
+        @Override
+        public KrBrush getBrush() {
+            return target.getBrush();
+        }
+
+        @Override
+        public KrPen getPen() {
+            return target.getPen();
+        }
+
+        @Override
+        public BitmapFont getFont() {
+            return target.getFont();
+        }
+
+        @Override
+        public void setFont(BitmapFont font) {
+            addOpcode(SET_FONT);
+            addRef(font);
+            target.setFont(font);
+        }
+
+        @Override
+        public void setBrush(KrBrush brush) {
+            addOpcode(SET_BRUSH);
+            addRef(brush);
+            target.setBrush(brush);
+        }
+
+        @Override
+        public void setBrush(Drawable drawable) {
+            addOpcode(SET_DRAWABLE_BRUSH);
+            addRef(drawable);
+            target.setBrush(drawable);
+        }
+
+        @Override
+        public void setBrush(Color color) {
+            addOpcode(SET_BRUSH_RGBA);
+            addColor(color != null ? Color.rgba8888(color) : 0);
+            target.setBrush(color);
+        }
+
+        @Override
+        public void setBrush(int rgba) {
+            addOpcode(SET_BRUSH_RGBA);
+            addColor(rgba);
+            target.setBrush(rgba);
+        }
+
+        @Override
+        public void setPen(KrPen pen) {
+            setPen((int) pen.getWidth(), pen.getColor());
+        }
+
+        @Override
+        public void setPen(int size, Color color) {
+            // the pen is one pixel wide, unless specified otherwise
+            if (size == 1 && color != null) {
+                addOpcode(SET_PEN_RGBA);
+                addColor(Color.rgba8888(color));
+            } else {
+                addOpcode(SET_PEN);
+                addFloat(size);
+                addRef(copy(color));
+            }
+            target.setPen(size, color);
+        }
+
+        @Override
+        public void setPen(int rgba) {
+            addOpcode(SET_PEN_RGBA);
+            addColor(rgba);
+            target.setPen(rgba);
+        }
+    }
+}
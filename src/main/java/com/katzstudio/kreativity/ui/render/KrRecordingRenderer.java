@@ -0,0 +1,430 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.SpriteDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A renderer that forwards every call to another renderer, and collects statistics about each frame.
+ * <p>
+ * The statistics of the last complete frame are available from {@link #getLastFrame()}. Collecting them doesn't
+ * allocate, so the recording renderer can wrap the renderer of the backend in production, to compare the cost
+ * of widget implementations or to catch regressions such as a clip in a frequently drawn widget.
+ * <p>
+ * Solid colors are assumed to be drawn from the skin texture, like the rounded rectangles, and drawables that
+ * don't expose their texture are assumed to be drawn from the skin texture as well.
+ */
+public class KrRecordingRenderer extends KrRenderer {
+
+    private static final Object SKIN_TEXTURE = new Object();
+
+    @Getter private final KrRenderer target;
+
+    private final KrRenderStats frame = new KrRenderStats();
+
+    @Getter private final KrRenderStats lastFrame = new KrRenderStats();
+
+    private Object skinTexture = SKIN_TEXTURE;
+
+    private Object brushTexture = SKIN_TEXTURE;
+
+    /**
+     * The texture of the last draw command.
+     */
+    private Object texture;
+
+    /**
+     * True if a draw command was issued since the last simulated flush.
+     */
+    private boolean hasPendingDraws;
+
+    private float translationX;
+
+    private float translationY;
+
+    /**
+     * The applied clip rectangles (x1, y1, x2, y2), in viewport coordinates.
+     */
+    private float[] clipStack = new float[32];
+
+    private int clipStackSize;
+
+    private float[] stateFloats = new float[32];
+
+    private int[] stateInts = new int[16];
+
+    private Object[] stateObjects = new Object[16];
+
+    private int stateStackSize;
+
+    public KrRecordingRenderer(KrRenderer target) {
+        this.target = target;
+    }
+
+    @Override
+    public void beginFrame() {
+        frame.reset();
+        texture = null;
+        hasPendingDraws = false;
+        translationX = 0;
+        translationY = 0;
+        clipStackSize = 0;
+        stateStackSize = 0;
+
+        TextureRegion whiteTexel = KrToolkit.getDefaultToolkit() != null ? KrToolkit.getDefaultToolkit().getSkin().getWhiteTexel() : null;
+        skinTexture = whiteTexel != null ? whiteTexel.getTexture() : SKIN_TEXTURE;
+
+        target.beginFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        target.endFrame();
+
+        flush();
+        Vector2 viewportSize = target.getViewportSize();
+        frame.setViewportArea(viewportSize.x * viewportSize.y);
+        frame.setRenderCalls(target.getRenderCalls());
+        frame.setAppliedClipCount(target.getClipCount());
+        frame.setElidedClipCount(target.getElidedClipCount());
+        frame.setScissorFlushCount(target.getScissorFlushCount());
+        lastFrame.set(frame);
+    }
+
+    @Override
+    public int getRenderCalls() {
+        return target.getRenderCalls();
+    }
+
+    @Override
+    public int getClipCount() {
+        return target.getClipCount();
+    }
+
+    @Override
+    public int getElidedClipCount() {
+        return target.getElidedClipCount();
+    }
+
+    @Override
+    public int getScissorFlushCount() {
+        return target.getScissorFlushCount();
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        recordText();
+        target.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawText(KrMeasuredString text, float x, float y) {
+        recordText();
+        target.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        recordTextWithShadow(shadowOffset);
+        target.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        recordTextWithShadow(shadowOffset);
+        target.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h) {
+        frame.addDrawRect();
+        useTexture(skinTexture);
+        target.drawRect(x, y, w, h);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        frame.addDrawLine();
+        useTexture(skinTexture);
+        target.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float w, float h) {
+        frame.addFillRect(getVisibleArea(x, y, w, h));
+        useTexture(brushTexture);
+        target.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+        frame.addFillRoundedRect(getVisibleArea(x, y, w, h));
+        useTexture(skinTexture);
+        target.fillRoundedRect(x, y, w, h, cornerRadius);
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        frame.addTranslate();
+        translationX += x;
+        translationY += y;
+        target.translate(x, y);
+    }
+
+    @Override
+    public boolean beginClip(float x, float y, float width, float height) {
+        frame.addClip();
+        if (!target.beginClip(x, y, width, height)) {
+            return false;
+        }
+
+        if ((clipStackSize + 1) * 4 > clipStack.length) {
+            clipStack = Arrays.copyOf(clipStack, clipStack.length * 2);
+        }
+
+        float x1 = Math.max(x + translationX, getCurrentClip(0));
+        float y1 = Math.max(y + translationY, getCurrentClip(1));
+        int index = clipStackSize * 4;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = Math.max(x1, Math.min(x + translationX + width, getCurrentClip(2)));
+        clipStack[index + 3] = Math.max(y1, Math.min(y + translationY + height, getCurrentClip(3)));
+        clipStackSize += 1;
+        flush();
+        return true;
+    }
+
+    @Override
+    public void endClip() {
+        clipStackSize -= 1;
+        flush();
+        target.endClip();
+    }
+
+    @Override
+    public boolean isClipped(float x, float y, float width, float height) {
+        return target.isClipped(x, y, width, height);
+    }
+
+    @Override
+    public void clearRect(float x, float y, float width, float height) {
+        frame.addClear();
+        flush();
+        target.clearRect(x, y, width, height);
+    }
+
+    @Override
+    public boolean setBackBufferEnabled(boolean enabled) {
+        return target.setBackBufferEnabled(enabled);
+    }
+
+    @Override
+    public void setViewportSize(float width, float height) {
+        target.setViewportSize(width, height);
+    }
+
+    @Override
+    public float setOpacity(float opacity) {
+        frame.addStateChange();
+        return target.setOpacity(opacity);
+    }
+
+    @Override
+    public float getOpacity() {
+        return target.getOpacity();
+    }
+
+    @Override
+    public void popState() {
+        if (stateStackSize == 0) {
+            throw new IllegalStateException("popState() called without a matching pushState()");
+        }
+
+        stateStackSize -= 1;
+        translationX = stateFloats[stateStackSize * 2];
+        translationY = stateFloats[stateStackSize * 2 + 1];
+        brushTexture = stateObjects[stateStackSize];
+        stateObjects[stateStackSize] = null;
+
+        int savedClipStackSize = stateInts[stateStackSize];
+        if (clipStackSize > savedClipStackSize) {
+            clipStackSize = savedClipStackSize;
+            flush();
+        }
+
+        target.popState();
+    }
+
+    @Override
+    public void pushState() {
+        frame.addPushState();
+        if (stateStackSize == stateInts.length) {
+            stateFloats = Arrays.copyOf(stateFloats, stateFloats.length * 2);
+            stateInts = Arrays.copyOf(stateInts, stateInts.length * 2);
+            stateObjects = Arrays.copyOf(stateObjects, stateObjects.length * 2);
+        }
+
+        stateFloats[stateStackSize * 2] = translationX;
+        stateFloats[stateStackSize * 2 + 1] = translationY;
+        stateInts[stateStackSize] = clipStackSize;
+        stateObjects[stateStackSize] = brushTexture;
+        stateStackSize += 1;
+
+        target.pushState();
+    }
+
+    @Override
+    public Vector2 getViewportSize() {
+        return target.getViewportSize();
+    }
+
+    @Override
+    public KrBrush getBrush() {
+        return target.getBrush();
+    }
+
+    @Override
+    public KrPen getPen() {
+        return target.getPen();
+    }
+
+    @Override
+    public BitmapFont getFont() {
+        return target.getFont();
+    }
+
+    @Override
+    public void setFont(BitmapFont font) {
+        frame.addStateChange();
+        target.setFont(font);
+    }
+
+    @Override
+    public void setBrush(KrBrush brush) {
+        frame.addStateChange();
+        brushTexture = brush instanceof KrDrawableBrush ? getTexture(((KrDrawableBrush) brush).getDrawable()) : skinTexture;
+        target.setBrush(brush);
+    }
+
+    @Override
+    public void setBrush(Drawable drawable) {
+        frame.addStateChange();
+        brushTexture = getTexture(drawable);
+        target.setBrush(drawable);
+    }
+
+    @Override
+    public void setBrush(Color color) {
+        frame.addStateChange();
+        brushTexture = skinTexture;
+        target.setBrush(color);
+    }
+
+    @Override
+    public void setBrush(int rgba) {
+        frame.addStateChange();
+        brushTexture = skinTexture;
+        target.setBrush(rgba);
+    }
+
+    @Override
+    public void setPen(KrPen pen) {
+        frame.addStateChange();
+        target.setPen(pen);
+    }
+
+    @Override
+    public void setPen(int size, Color color) {
+        frame.addStateChange();
+        target.setPen(size, color);
+    }
+
+    @Override
+    public void setPen(int rgba) {
+        frame.addStateChange();
+        target.setPen(rgba);
+    }
+
+    private void recordText() {
+        frame.addText();
+        BitmapFont font = target.getFont();
+        TextureRegion region = font != null ? font.getRegion() : null;
+        useTexture(region != null ? region.getTexture() : font);
+    }
+
+    /**
+     * Records the draws of a text with a shadow. Renderers don't draw the shadow if it has no offset.
+     */
+    private void recordTextWithShadow(Vector2 shadowOffset) {
+        if (!shadowOffset.equals(Vector2.Zero)) {
+            recordText();
+        }
+        recordText();
+    }
+
+    private void useTexture(Object texture) {
+        if (texture != this.texture) {
+            if (hasPendingDraws) {
+                frame.addTextureSwitch();
+                flush();
+            }
+            this.texture = texture;
+        }
+        hasPendingDraws = true;
+    }
+
+    /**
+     * Simulates a flush of the batch. Flushing an empty batch doesn't cost anything.
+     */
+    private void flush() {
+        if (hasPendingDraws) {
+            frame.addBatchBreak();
+            hasPendingDraws = false;
+        }
+    }
+
+    private Object getTexture(Drawable drawable) {
+        if (drawable instanceof TextureRegionDrawable) {
+            return ((TextureRegionDrawable) drawable).getRegion().getTexture();
+        }
+        if (drawable instanceof NinePatchDrawable) {
+            return ((NinePatchDrawable) drawable).getPatch().getTexture();
+        }
+        if (drawable instanceof SpriteDrawable) {
+            return ((SpriteDrawable) drawable).getSprite().getTexture();
+        }
+        return skinTexture;
+    }
+
+    /**
+     * Returns the area of the part of a rectangle that lies inside of the current clip rectangle.
+     */
+    private float getVisibleArea(float x, float y, float width, float height) {
+        float x1 = Math.max(x + translationX, getCurrentClip(0));
+        float y1 = Math.max(y + translationY, getCurrentClip(1));
+        float x2 = Math.min(x + translationX + width, getCurrentClip(2));
+        float y2 = Math.min(y + translationY + height, getCurrentClip(3));
+        return Math.max(0, x2 - x1) * Math.max(0, y2 - y1);
+    }
+
+    /**
+     * Returns a component (x1, y1, x2, y2) of the current clip rectangle. Without any clip, the current clip
+     * rectangle is the viewport.
+     */
+    private float getCurrentClip(int component) {
+        if (clipStackSize == 0) {
+            return component < 2 ? 0 : (component == 2 ? target.getViewportSize().x : target.getViewportSize().y);
+        }
+        return clipStack[(clipStackSize - 1) * 4 + component];
+    }
+}
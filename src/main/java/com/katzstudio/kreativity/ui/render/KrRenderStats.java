@@ -0,0 +1,206 @@
+package com.katzstudio.kreativity.ui.render;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The statistics of a frame, collected by a {@link KrRecordingRenderer}.
+ * <p>
+ * Besides counting the calls made to the renderer, the statistics estimate the cost of the frame for a simple
+ * sprite batch: such a batch is flushed every time the texture changes, and every time the clip changes.
+ */
+@ToString
+public class KrRenderStats {
+
+    @Getter private int textCount;
+
+    @Getter private int fillRectCount;
+
+    @Getter private int fillRoundedRectCount;
+
+    @Getter private int drawRectCount;
+
+    @Getter private int drawLineCount;
+
+    @Getter private int translateCount;
+
+    @Getter private int clipCount;
+
+    @Getter private int clearCount;
+
+    /**
+     * The number of calls that change the pen, the brush, the font or the opacity.
+     */
+    @Getter private int stateChangeCount;
+
+    @Getter private int pushStateCount;
+
+    /**
+     * The number of times the texture changed between two consecutive draw commands.
+     */
+    @Getter private int textureSwitchCount;
+
+    /**
+     * The number of times a simple batch would have been flushed: on texture switches, clip changes and at the
+     * end of the frame.
+     */
+    @Getter private int batchBreakCount;
+
+    /**
+     * The area covered by the filled shapes, clipped to the clip rectangles, in pixels. Pixels covered several
+     * times are counted several times.
+     */
+    @Getter private float paintedArea;
+
+    @Getter private float viewportArea;
+
+    /**
+     * The number of draw calls issued by the wrapped renderer, if it reports them (see
+     * {@link KrRenderer#getRenderCalls()}).
+     */
+    @Getter private int renderCalls;
+
+    /**
+     * The number of clip rectangles applied by the wrapped renderer, if it reports them (see
+     * {@link KrRenderer#getClipCount()}).
+     */
+    @Getter private int appliedClipCount;
+
+    /**
+     * The number of clip rectangles skipped by the wrapped renderer, if it reports them (see
+     * {@link KrRenderer#getElidedClipCount()}).
+     */
+    @Getter private int elidedClipCount;
+
+    /**
+     * The number of batch flushes caused by scissor tests in the wrapped renderer, if it reports them (see
+     * {@link KrRenderer#getScissorFlushCount()}).
+     */
+    @Getter private int scissorFlushCount;
+
+    /**
+     * Returns the number of times each pixel of the viewport was painted, on average.
+     */
+    public float getOverdraw() {
+        return viewportArea > 0 ? paintedArea / viewportArea : 0;
+    }
+
+    /**
+     * Returns the number of draw commands (text, rectangles and lines).
+     */
+    public int getDrawCount() {
+        return textCount + fillRectCount + fillRoundedRectCount + drawRectCount + drawLineCount;
+    }
+
+    void reset() {
+        textCount = 0;
+        fillRectCount = 0;
+        fillRoundedRectCount = 0;
+        drawRectCount = 0;
+        drawLineCount = 0;
+        translateCount = 0;
+        clipCount = 0;
+        clearCount = 0;
+        stateChangeCount = 0;
+        pushStateCount = 0;
+        textureSwitchCount = 0;
+        batchBreakCount = 0;
+        paintedArea = 0;
+        viewportArea = 0;
+        renderCalls = 0;
+        appliedClipCount = 0;
+        elidedClipCount = 0;
+        scissorFlushCount = 0;
+    }
+
+    void set(KrRenderStats stats) {
+        textCount = stats.textCount;
+        fillRectCount = stats.fillRectCount;
+        fillRoundedRectCount = stats.fillRoundedRectCount;
+        drawRectCount = stats.drawRectCount;
+        drawLineCount = stats.drawLineCount;
+        translateCount = stats.translateCount;
+        clipCount = stats.clipCount;
+        clearCount = stats.clearCount;
+        stateChangeCount = stats.stateChangeCount;
+        pushStateCount = stats.pushStateCount;
+        textureSwitchCount = stats.textureSwitchCount;
+        batchBreakCount = stats.batchBreakCount;
+        paintedArea = stats.paintedArea;
+        viewportArea = stats.viewportArea;
+        renderCalls = stats.renderCalls;
+        appliedClipCount = stats.appliedClipCount;
+        elidedClipCount = stats.elidedClipCount;
+        scissorFlushCount = stats.scissorFlushCount;
+    }
+
+    void addText() {
+        textCount += 1;
+    }
+
+    void addFillRect(float area) {
+        fillRectCount += 1;
+        paintedArea += area;
+    }
+
+    void addFillRoundedRect(float area) {
+        fillRoundedRectCount += 1;
+        paintedArea += area;
+    }
+
+    void addDrawRect() {
+        drawRectCount += 1;
+    }
+
+    void addDrawLine() {
+        drawLineCount += 1;
+    }
+
+    void addTranslate() {
+        translateCount += 1;
+    }
+
+    void addClip() {
+        clipCount += 1;
+    }
+
+    void addClear() {
+        clearCount += 1;
+    }
+
+    void addStateChange() {
+        stateChangeCount += 1;
+    }
+
+    void addPushState() {
+        pushStateCount += 1;
+    }
+
+    void addTextureSwitch() {
+        textureSwitchCount += 1;
+    }
+
+    void addBatchBreak() {
+        batchBreakCount += 1;
+    }
+
+    void setViewportArea(float viewportArea) {
+        this.viewportArea = viewportArea;
+    }
+
+    void setRenderCalls(int renderCalls) {
+        this.renderCalls = renderCalls;
+    }
+
+    void setAppliedClipCount(int appliedClipCount) {
+        this.appliedClipCount = appliedClipCount;
+    }
+
+    void setElidedClipCount(int elidedClipCount) {
+        this.elidedClipCount = elidedClipCount;
+    }
+
+    void setScissorFlushCount(int scissorFlushCount) {
+        this.scissorFlushCount = scissorFlushCount;
+    }
+}
@@ -5,6 +5,7 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
 
 /**
  * The {@link KrRenderer} takes care of rendering various parts of the interface.
@@ -27,6 +28,22 @@ public abstract class KrRenderer {
 
     public abstract void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor);
 
+    public void drawText(KrMeasuredString text, Vector2 position) {
+        drawText(text, position.x, position.y);
+    }
+
+    /**
+     * Draws a measured string. Renderers can draw the glyphs cached by the string, instead of laying it out again.
+     * The default implementation draws the string like {@link #drawText(String, float, float)}.
+     */
+    public void drawText(KrMeasuredString text, float x, float y) {
+        drawText(text.getString(), x, y);
+    }
+
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        drawTextWithShadow(text.getString(), position, shadowOffset, shadowColor);
+    }
+
     public void drawRect(Rectangle rectangle) {
         drawRect(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
     }
@@ -57,6 +74,64 @@ public abstract class KrRenderer {
 
     public abstract void endClip();
 
+    /**
+     * Returns true if the rectangle lies completely outside of the active clip region, meaning that
+     * nothing drawn inside it would be visible. Renderers that don't track clipping always return false.
+     */
+    public boolean isClipped(float x, float y, float width, float height) {
+        return false;
+    }
+
+    /**
+     * Clears the rectangle to transparent. Used by the canvas to prepare a dirty region of the back buffer
+     * before repainting it. The default implementation does nothing.
+     */
+    public void clearRect(float x, float y, float width, float height) {
+    }
+
+    /**
+     * Enables or disables rendering into a back buffer that persists between frames. While enabled, the
+     * back buffer is presented at the end of every frame, so only the regions that changed need to be
+     * repainted.
+     *
+     * @return true if the back buffer is enabled after the call, false if not supported by this renderer
+     */
+    public boolean setBackBufferEnabled(boolean enabled) {
+        return false;
+    }
+
+    /**
+     * Returns the number of draw calls issued to the GPU during the last frame. Renderers that don't know it
+     * return 0.
+     */
+    public int getRenderCalls() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of clip rectangles applied during the last frame, whether by trimming quads on the CPU or
+     * with a scissor test. Clips that were skipped are not counted. Renderers that don't know it return 0.
+     */
+    public int getClipCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of clip rectangles skipped during the last frame, because they contained the current
+     * clip. Renderers that don't elide clips return 0.
+     */
+    public int getElidedClipCount() {
+        return 0;
+    }
+
+    /**
+     * Returns the number of times the batch was flushed during the last frame, to clip quads with a scissor
+     * test. Renderers that don't know it return 0.
+     */
+    public int getScissorFlushCount() {
+        return 0;
+    }
+
     public abstract void setViewportSize(float width, float height);
 
     public abstract float setOpacity(float opacity);
@@ -83,6 +158,16 @@ public abstract class KrRenderer {
 
     public abstract void setBrush(Color color);
 
+    /**
+     * Sets a solid color brush from a packed color. The default implementation creates a {@link Color} and
+     * calls {@link #setBrush(Color)}; renderers override it to skip the allocation.
+     *
+     * @param rgba the brush color, packed as an RGBA8888 int (e.g. {@code 0xff0000ff} for opaque red)
+     */
+    public void setBrush(int rgba) {
+        setBrush(new Color(rgba));
+    }
+
     public abstract void setPen(KrPen pen);
 
     public abstract void setPen(int size, Color color);
@@ -90,4 +175,14 @@ public abstract class KrRenderer {
     public void setPen(Color color) {
         setPen(1, color);
     }
+
+    /**
+     * Sets the pen color from a packed color. The default implementation creates a {@link Color} and calls
+     * {@link #setPen(Color)}; renderers override it to skip the allocation.
+     *
+     * @param rgba the pen color, packed as an RGBA8888 int
+     */
+    public void setPen(int rgba) {
+        setPen(new Color(rgba));
+    }
 }
@@ -40,11 +40,26 @@ class KrTimer : KrUpdateListener {
         isRegistered = false
     }
 
+    /**
+     * Restarts the timer. A running timer only has its time reset, so restarting it on every
+     * mouse move doesn't churn the toolkit's update listeners.
+     */
     fun restart() {
-        stop()
         start()
     }
 
+    /**
+     * Returns the time, in seconds, until the timer runs next, or [Float.POSITIVE_INFINITY] if the
+     * timer is stopped.
+     */
+    fun getTimeUntilNextRun(): Float {
+        if (!isRegistered) {
+            return Float.POSITIVE_INFINITY
+        }
+
+        return Math.max(0f, (if (passedDelay) period else delay) - timePassed)
+    }
+
     override fun update(deltaSeconds: Float) {
         timePassed += deltaSeconds
 
@@ -0,0 +1,148 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.component.KrButton;
+import com.katzstudio.kreativity.ui.component.KrCheckbox;
+import com.katzstudio.kreativity.ui.component.KrLabel;
+import com.katzstudio.kreativity.ui.component.KrListView;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrProfilerGraph;
+import com.katzstudio.kreativity.ui.component.KrTableView;
+import com.katzstudio.kreativity.ui.component.KrTextField;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.layout.KrBorderLayout;
+import com.katzstudio.kreativity.ui.layout.KrGridLayout;
+import com.katzstudio.kreativity.ui.model.KrItemModel;
+import com.katzstudio.kreativity.ui.model.KrListItemModel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeHeadlessToolkit;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that steady state frames of representative screens stay within the allocation budget of
+ * PERFORMANCE.md: 1kB of garbage per second, about 17 bytes per frame at 60 frames per second, whatever the
+ * number of widgets on the screen.
+ */
+public class KrAllocationBudgetTest {
+
+    private static final int FRAME_COUNT = 1000;
+
+    /**
+     * The budget of a frame, in bytes: 1kB per second at 60 frames per second.
+     */
+    private static final float BYTES_PER_FRAME = 1024f / 60;
+
+    private static final int ROW_COUNT = 100;
+
+    private KrCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeHeadlessToolkit(800, 600);
+        canvas = KrToolkit.getDefaultToolkit().getCanvas();
+        canvas.getRootPanel().setLayout(new KrBorderLayout());
+    }
+
+    @Test
+    public void testFormScreen() {
+        KrPanel form = new KrPanel(new KrGridLayout(2, 4, 4));
+        for (int i = 0; i < 10; ++i) {
+            form.add(new KrLabel("Field " + i));
+            form.add(createFieldWidget(i));
+        }
+        form.add(new KrButton("OK"));
+        form.add(new KrButton("Cancel"));
+
+        assertWithinBudget(form, countWidgets(form));
+    }
+
+    @Test
+    public void testProfiledFormScreen() {
+        KrToolkit.getDefaultToolkit().getProfiler().setEnabled(true);
+        KrPanel form = new KrPanel(new KrGridLayout(2, 4, 4));
+        for (int i = 0; i < 10; ++i) {
+            KrLabel label = new KrLabel("Field " + i);
+            label.setName("label" + i);
+            form.add(label);
+            form.add(createFieldWidget(i));
+        }
+        form.add(new KrProfilerGraph());
+
+        assertWithinBudget(form, countWidgets(form));
+    }
+
+    @Test
+    public void testListScreen() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < ROW_COUNT; ++i) {
+            items.add("Item " + i);
+        }
+        KrListView listView = new KrListView(new KrListItemModel<>(items));
+
+        assertWithinBudget(listView, countWidgets(listView) + ROW_COUNT);
+    }
+
+    @Test
+    public void testTableScreen() {
+        KrTableView tableView = new KrTableView(new KrItemModel<String>() {
+            @Override
+            public String getValue(int row, int column, KrModelIndex parent) {
+                return column == 0 ? "Row" : "Value";
+            }
+
+            @Override
+            public int getColumnCount() {
+                return 3;
+            }
+
+            @Override
+            public int getRowCount() {
+                return ROW_COUNT;
+            }
+        });
+
+        assertWithinBudget(tableView, countWidgets(tableView) + ROW_COUNT * 3);
+    }
+
+    private void assertWithinBudget(KrWidget screen, int widgetCount) {
+        canvas.getRootPanel().add(screen, KrBorderLayout.Constraint.CENTER);
+
+        KrAllocationMeter meter = new KrAllocationMeter(canvas);
+        float allocated = meter.measureFrame(FRAME_COUNT);
+        if (allocated <= BYTES_PER_FRAME) {
+            return;
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append(String.format("Frame of %d widgets allocated %.1f bytes, budget is %.1f bytes. Bytes allocated when drawing, by widget class:",
+                widgetCount, allocated, BYTES_PER_FRAME));
+        for (Map.Entry<String, Float> entry : meter.measureDrawByWidgetClass(FRAME_COUNT).entrySet()) {
+            message.append(String.format("%n  %s: %.1f", entry.getKey(), entry.getValue()));
+        }
+        fail(message.toString());
+    }
+
+    private static KrWidget createFieldWidget(int index) {
+        switch (index % 3) {
+            case 0:
+                return new KrTextField();
+            case 1:
+                return new KrCheckbox();
+            default:
+                return new KrButton("Button " + index);
+        }
+    }
+
+    private static int countWidgets(KrWidget widget) {
+        int count = 1;
+        for (int i = 0; i < widget.getChildCount(); ++i) {
+            count += countWidgets(widget.getChild(i));
+        }
+        return count;
+    }
+}
@@ -0,0 +1,86 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Measures the memory allocated by the frames of a canvas, with
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ * <p>
+ * The frames are run on the current thread: the input is dispatched, the toolkit is updated, and the whole
+ * canvas is repainted. The first frames warm up the caches and the pools, and are not measured.
+ */
+class KrAllocationMeter {
+
+    private static final int WARM_UP_FRAMES = 200;
+
+    private final KrCanvas canvas;
+
+    KrAllocationMeter(KrCanvas canvas) {
+        this.canvas = canvas;
+    }
+
+    /**
+     * Returns the average number of bytes allocated by a steady state frame.
+     */
+    float measureFrame(int frameCount) {
+        runFrames(WARM_UP_FRAMES);
+
+        long allocatedBefore = getAllocatedBytes();
+        runFrames(frameCount);
+        return (getAllocatedBytes() - allocatedBefore) / (float) frameCount;
+    }
+
+    /**
+     * Returns the average number of bytes allocated when drawing the widgets of the canvas, by widget class. The
+     * bytes allocated by a widget don't include the ones allocated by its children.
+     */
+    Map<String, Float> measureDrawByWidgetClass(int frameCount) {
+        Map<String, Float> breakdown = new TreeMap<>();
+        KrRenderer renderer = KrToolkit.getDefaultToolkit().getRenderer();
+        measureDraw(canvas.getRootPanel(), renderer, frameCount, breakdown);
+        return breakdown;
+    }
+
+    private static long measureDraw(KrWidget widget, KrRenderer renderer, int frameCount, Map<String, Float> breakdown) {
+        long childrenAllocated = 0;
+        for (int i = 0; i < widget.getChildCount(); ++i) {
+            childrenAllocated += measureDraw(widget.getChild(i), renderer, frameCount, breakdown);
+        }
+
+        for (int i = 0; i < WARM_UP_FRAMES; ++i) {
+            widget.draw(renderer);
+        }
+
+        long allocatedBefore = getAllocatedBytes();
+        for (int i = 0; i < frameCount; ++i) {
+            widget.draw(renderer);
+        }
+        long allocated = getAllocatedBytes() - allocatedBefore;
+
+        String widgetClass = widget.getClass().getSimpleName();
+        float selfAllocated = Math.max(0, allocated - childrenAllocated) / (float) frameCount;
+        breakdown.merge(widgetClass, selfAllocated, Float::sum);
+        return allocated;
+    }
+
+    private void runFrames(int frameCount) {
+        for (int i = 0; i < frameCount; ++i) {
+            KrToolkit.getDefaultToolkit().update(1 / 60f);
+            canvas.repaint();
+            canvas.draw();
+        }
+    }
+
+    /**
+     * Returns the total number of bytes allocated by the current thread so far.
+     */
+    static long getAllocatedBytes() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,98 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createWidget;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrDirtyRegions}
+ */
+public class KrDirtyRegionsTest {
+
+    private KrDirtyRegions dirtyRegions;
+
+    @Before
+    public void setUp() throws Exception {
+        dirtyRegions = new KrDirtyRegions();
+        dirtyRegions.setBounds(100, 100);
+    }
+
+    @Test
+    public void testRegionsAreSnappedAndClamped() {
+        dirtyRegions.add(-5.5f, 10.2f, 20, 200);
+
+        assertThat(dirtyRegions.getSize(), is(1));
+        assertThat(dirtyRegions.get(0), is(new Rectangle(0, 10, 15, 90)));
+    }
+
+    @Test
+    public void testEmptyRegionsAreIgnored() {
+        dirtyRegions.add(10, 10, 0, 10);
+        dirtyRegions.add(150, 10, 10, 10);
+
+        assertThat(dirtyRegions.isEmpty(), is(true));
+    }
+
+    @Test
+    public void testOverlappingRegionsAreMerged() {
+        dirtyRegions.add(10, 10, 20, 20);
+        dirtyRegions.add(20, 20, 20, 20);
+
+        assertThat(dirtyRegions.getSize(), is(1));
+        assertThat(dirtyRegions.get(0), is(new Rectangle(10, 10, 30, 30)));
+    }
+
+    @Test
+    public void testDistantRegionsAreKeptSeparate() {
+        dirtyRegions.add(0, 0, 10, 10);
+        dirtyRegions.add(80, 80, 10, 10);
+
+        assertThat(dirtyRegions.getSize(), is(2));
+        assertThat(dirtyRegions.getArea(), is(200f));
+    }
+
+    @Test
+    public void testMergingCascades() {
+        dirtyRegions.add(0, 0, 10, 10);
+        dirtyRegions.add(20, 0, 10, 10);
+        dirtyRegions.add(5, 0, 20, 10);
+
+        assertThat(dirtyRegions.getSize(), is(1));
+        assertThat(dirtyRegions.get(0), is(new Rectangle(0, 0, 30, 10)));
+    }
+
+    @Test
+    public void testRegionCountIsBounded() {
+        for (int i = 0; i < 50; ++i) {
+            dirtyRegions.add((i * 37) % 95, (i * 53) % 95, 2, 2);
+        }
+
+        assertThat(dirtyRegions.getSize() <= KrDirtyRegions.MAX_REGIONS, is(true));
+    }
+
+    @Test
+    public void testWidgetChangesMarkCanvasDirty() {
+        initializeToolkit();
+        KrCanvas canvas = createCanvas();
+        KrWidget widget = createWidget("widget", 10, 10, 20, 20);
+        canvas.getRootPanel().add(widget);
+        canvas.getDirtyRegions().clear();
+
+        widget.setOpacity(0.5f);
+
+        assertThat(canvas.isRepaintRequested(), is(true));
+        assertThat(canvas.getDirtyRegions().get(0), is(new Rectangle(10, 10, 20, 20)));
+
+        canvas.getDirtyRegions().clear();
+
+        widget.setPosition(50, 10);
+        assertThat(canvas.getDirtyRegions().getArea(), is(800f));
+    }
+}
@@ -0,0 +1,167 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrFocusManager}
+ */
+public class KrFocusManagerTest {
+
+    private KrCanvas canvas;
+
+    private KrFocusManager focusManager;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        canvas = createCanvas();
+        focusManager = canvas.getFocusManager();
+    }
+
+    @Test
+    public void testFocusOrderFollowsTheTree() {
+        KrWidget first = createFocusable("first");
+        KrWidget group = new KrWidget();
+        KrWidget second = createFocusable("second");
+        KrWidget third = createFocusable("third");
+        group.add(second);
+        group.add(third);
+        KrWidget fourth = createFocusable("fourth");
+
+        canvas.getRootPanel().add(first);
+        canvas.getRootPanel().add(group);
+        canvas.getRootPanel().add(fourth);
+
+        assertThat(focusManager.getFocusableCount(), is(4));
+        assertThat(focusManager.nextFocusable(first), is(second));
+        assertThat(focusManager.nextFocusable(second), is(third));
+        assertThat(focusManager.nextFocusable(third), is(fourth));
+        assertThat(focusManager.nextFocusable(fourth), is(first));
+        assertThat(focusManager.previousFocusable(first), is(fourth));
+    }
+
+    @Test
+    public void testWidgetsAddedToAttachedParentsAreInsertedInPlace() {
+        KrWidget first = createFocusable("first");
+        KrWidget group = new KrWidget();
+        KrWidget last = createFocusable("last");
+        canvas.getRootPanel().add(first);
+        canvas.getRootPanel().add(group);
+        canvas.getRootPanel().add(last);
+
+        KrWidget middle = createFocusable("middle");
+        group.add(middle);
+
+        assertThat(focusManager.nextFocusable(first), is(middle));
+        assertThat(focusManager.nextFocusable(middle), is(last));
+    }
+
+    @Test
+    public void testRemovedSubtreesLeaveTheFocusOrder() {
+        KrWidget first = createFocusable("first");
+        KrWidget group = new KrWidget();
+        group.add(createFocusable("nested"));
+        KrWidget last = createFocusable("last");
+        canvas.getRootPanel().add(first);
+        canvas.getRootPanel().add(group);
+        canvas.getRootPanel().add(last);
+
+        canvas.getRootPanel().remove(group);
+
+        assertThat(focusManager.getFocusableCount(), is(2));
+        assertThat(focusManager.nextFocusable(first), is(last));
+        assertThat(focusManager.nextFocusable(last), is(first));
+    }
+
+    @Test
+    public void testFocusablePropertyChangesUpdateTheFocusOrder() {
+        KrWidget first = createFocusable("first");
+        KrWidget second = new KrWidget();
+        KrWidget third = createFocusable("third");
+        canvas.getRootPanel().add(first);
+        canvas.getRootPanel().add(second);
+        canvas.getRootPanel().add(third);
+
+        assertThat(focusManager.nextFocusable(first), is(third));
+
+        second.setFocusable(true);
+        assertThat(focusManager.nextFocusable(first), is(second));
+
+        first.setFocusable(false);
+        assertThat(focusManager.previousFocusable(second), is(third));
+    }
+
+    @Test
+    public void testEmptyFocusOrderKeepsTheFocus() {
+        assertThat(focusManager.nextFocusable(null), is(nullValue()));
+        assertThat(focusManager.getFocusableCount(), is(0));
+    }
+
+    @Test
+    public void testSubtreesWithoutFocusableWidgetsAreNotWalked() {
+        KrWidget first = createFocusable("first");
+        canvas.getRootPanel().add(first);
+        ChildCountingWidget labels = new ChildCountingWidget();
+        for (int i = 0; i < 10; ++i) {
+            ChildCountingWidget label = new ChildCountingWidget();
+            labels.add(label);
+        }
+        canvas.getRootPanel().add(labels);
+
+        labels.childrenQueries = 0;
+        KrWidget last = createFocusable("last");
+        canvas.getRootPanel().add(last);
+
+        assertThat(labels.childrenQueries, is(0));
+        assertThat(focusManager.nextFocusable(first), is(last));
+
+        canvas.getRootPanel().remove(labels);
+
+        assertThat(labels.childrenQueries, is(0));
+        assertThat(focusManager.getFocusableCount(), is(2));
+    }
+
+    @Test
+    public void testRemovingAFocusableWidgetUpdatesTheAncestors() {
+        KrWidget group = new KrWidget();
+        KrWidget nested = createFocusable("nested");
+        group.add(nested);
+        canvas.getRootPanel().add(group);
+
+        nested.setFocusable(false);
+        KrWidget last = createFocusable("last");
+        canvas.getRootPanel().add(last);
+        nested.setFocusable(true);
+
+        assertThat(focusManager.nextFocusable(nested), is(last));
+        assertThat(focusManager.nextFocusable(last), is(nested));
+    }
+
+    private static KrWidget createFocusable(String name) {
+        KrWidget widget = new KrWidget();
+        widget.setName(name);
+        widget.setFocusable(true);
+        return widget;
+    }
+
+    private static class ChildCountingWidget extends KrWidget {
+
+        int childrenQueries;
+
+        @Override
+        public ArrayList<KrWidget> getChildren() {
+            childrenQueries += 1;
+            return super.getChildren();
+        }
+    }
+}
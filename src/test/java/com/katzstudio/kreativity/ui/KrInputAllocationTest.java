@@ -0,0 +1,75 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3InputSource;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.KrAllocationMeter.getAllocatedBytes;
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createWidget;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Checks that dispatching input events doesn't allocate once the event pools are warmed up.
+ */
+public class KrInputAllocationTest {
+
+    private static final int MOVE_COUNT = 10000;
+
+    private KrLwjgl3InputSource inputSource;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+
+        inputSource = new KrLwjgl3InputSource();
+        KrCanvas canvas = new KrCanvas(inputSource, mock(KrRenderer.class), 200, 200);
+
+        KrWidget left = createWidget("left", 0, 0, 100, 200);
+        left.add(createWidget("left.top", 10, 10, 80, 80));
+        left.add(createWidget("left.bottom", 10, 110, 80, 80));
+        canvas.getRootPanel().add(left);
+        canvas.getRootPanel().add(createWidget("right", 100, 0, 100, 200));
+        canvas.getUpdateScheduler().validate();
+    }
+
+    @Test
+    public void testMouseMoveStormDoesNotAllocate() {
+        moveMouse(MOVE_COUNT);
+
+        long allocatedBefore = getAllocatedBytes();
+        moveMouse(MOVE_COUNT);
+        long allocated = getAllocatedBytes() - allocatedBefore;
+
+        // allow for a small constant overhead (class loading, JIT), but not for a single object per event
+        assertThat("bytes allocated by " + MOVE_COUNT + " mouse moves: " + allocated, allocated < MOVE_COUNT, is(true));
+    }
+
+    @Test
+    public void testRetainedEventIsNotRecycled() {
+        KrScrollEvent event = KrScrollEvent.obtain(1);
+        event.retain();
+
+        event.release();
+        assertThat(event.isPooled(), is(true));
+        assertThat(KrScrollEvent.obtain(2) == event, is(false));
+
+        event.release();
+        assertThat(event.isPooled(), is(false));
+        assertThat(KrScrollEvent.obtain(3) == event, is(true));
+    }
+
+    private void moveMouse(int count) {
+        for (int i = 0; i < count; ++i) {
+            // sweep diagonally across the canvas, entering and exiting widgets along the way
+            int offset = i % 200;
+            inputSource.mouseMoved(offset, (offset * 7) % 200);
+            inputSource.dispatchQueuedEvents();
+        }
+    }
+}
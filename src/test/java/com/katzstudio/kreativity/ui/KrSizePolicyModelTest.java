@@ -3,6 +3,7 @@ package com.katzstudio.kreativity.ui;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -83,4 +84,17 @@ public class KrSizePolicyModelTest {
 
         assertThat(model.getSizes(100), Matchers.containsInRelativeOrder(60.0f, 40f));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIntSizesFillAvailableSpace() {
+        KrSizePolicyModel model = new KrSizePolicyModel(
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 1f));
+
+        int[] sizes = model.getIntSizes(100, new int[3]);
+
+        assertArrayEquals(new int[]{33, 33, 34}, sizes);
+        assertThat(model.getIntSizes(100), Matchers.contains(33, 33, 34));
+    }
+}
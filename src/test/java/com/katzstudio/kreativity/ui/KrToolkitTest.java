@@ -0,0 +1,122 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.component.KrScrollBar;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.util.KrTimer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createWidget;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrToolkit}
+ */
+public class KrToolkitTest {
+
+    private KrToolkit toolkit;
+
+    private KrCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        toolkit = getDefaultToolkit();
+        canvas = toolkit.getCanvas();
+        canvas.setSize(100, 100);
+    }
+
+    @Test
+    public void testUiIsIdleOnceDrawn() {
+        assertThat(toolkit.update(0), is(true));
+        simulateDraw();
+
+        assertThat(toolkit.update(0), is(false));
+        assertThat(toolkit.isIdle(), is(true));
+        assertThat(toolkit.getTimeUntilNextUpdate(), is(Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void testChangedWidgetsNeedRedraw() {
+        toolkit.update(0);
+        simulateDraw();
+
+        canvas.getRootPanel().add(createWidget("widget", 10, 10, 20, 20));
+
+        assertThat(toolkit.isIdle(), is(false));
+        assertThat(toolkit.update(0), is(true));
+    }
+
+    @Test
+    public void testRequestedUpdatesWakeTheUi() {
+        toolkit.update(0);
+        simulateDraw();
+        toolkit.update(0);
+
+        toolkit.requestUpdate();
+        assertThat(toolkit.isIdle(), is(false));
+
+        toolkit.update(0);
+        assertThat(toolkit.isIdle(), is(true));
+    }
+
+    @Test
+    public void testRequestedUpdatesAreDrawn() {
+        toolkit.update(0);
+        simulateDraw();
+        assertThat(toolkit.update(0), is(false));
+
+        toolkit.requestUpdate();
+        assertThat(toolkit.update(0), is(true));
+        simulateDraw();
+        assertThat(toolkit.update(0), is(false));
+    }
+
+    @Test
+    public void testInvalidWidgetsAreDrawn() {
+        KrWidget widget = createWidget("widget", 10, 10, 20, 20);
+        canvas.getRootPanel().add(widget);
+        toolkit.update(0);
+        simulateDraw();
+
+        widget.invalidate();
+        assertThat(toolkit.update(0), is(true));
+    }
+
+    @Test
+    public void testScrolledWidgetsAreDrawn() {
+        KrScrollBar scrollBar = new KrScrollBar(KrOrientation.VERTICAL);
+        scrollBar.setGeometry(0, 0, 10, 100);
+        canvas.getRootPanel().add(scrollBar);
+        toolkit.update(0);
+        simulateDraw();
+        assertThat(toolkit.update(0), is(false));
+
+        scrollBar.setValue(50);
+        assertThat(toolkit.update(0), is(true));
+    }
+
+    @Test
+    public void testIdleUiWakesUpForTimers() {
+        toolkit.update(0);
+        simulateDraw();
+
+        KrTimer timer = new KrTimer(1, 0, () -> {
+        });
+        timer.start();
+        toolkit.update(0.25f);
+
+        assertThat(toolkit.isIdle(), is(true));
+        assertThat(toolkit.getTimeUntilNextUpdate(), is(0.75f));
+
+        timer.stop();
+        assertThat(toolkit.getTimeUntilNextUpdate(), is(Float.POSITIVE_INFINITY));
+    }
+
+    private void simulateDraw() {
+        canvas.getDirtyRegions().clear();
+    }
+}
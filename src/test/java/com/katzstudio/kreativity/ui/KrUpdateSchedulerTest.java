@@ -0,0 +1,203 @@
+package com.katzstudio.kreativity.ui;
+
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.layout.KrFlowLayout;
+import com.katzstudio.kreativity.ui.layout.KrStackLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrUpdateScheduler}
+ */
+public class KrUpdateSchedulerTest {
+
+    private KrCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        canvas = createCanvas();
+        canvas.update(0);
+    }
+
+    @Test
+    public void testOnlyTickingWidgetsAreUpdated() {
+        CountingWidget idleWidget = new CountingWidget();
+        CountingWidget tickingWidget = new CountingWidget();
+        tickingWidget.setUpdatesEnabled(true);
+
+        canvas.getRootPanel().add(idleWidget);
+        canvas.getRootPanel().add(tickingWidget);
+        canvas.update(0);
+        canvas.update(0);
+
+        assertThat(idleWidget.updateCount, is(0));
+        assertThat(tickingWidget.updateCount, is(2));
+
+        canvas.getRootPanel().remove(tickingWidget);
+        canvas.update(0);
+
+        assertThat(tickingWidget.updateCount, is(2));
+        assertThat(canvas.getUpdateScheduler().getTickingWidgetCount(), is(0));
+    }
+
+    @Test
+    public void testTickingDescendantsAreRegisteredWithTheirSubtree() {
+        KrWidget parent = new KrWidget();
+        CountingWidget child = new CountingWidget();
+        child.setUpdatesEnabled(true);
+        parent.add(child);
+
+        canvas.getRootPanel().add(parent);
+        canvas.update(0);
+
+        assertThat(child.getCanvas(), is(canvas));
+        assertThat(child.updateCount, is(1));
+    }
+
+    @Test
+    public void testInvalidWidgetsAreValidatedParentsFirst() {
+        List<KrWidget> validationOrder = new ArrayList<>();
+        CountingWidget parent = new CountingWidget(validationOrder);
+        CountingWidget child = new CountingWidget(validationOrder);
+        parent.add(child);
+        canvas.getRootPanel().add(parent);
+        canvas.update(0);
+        validationOrder.clear();
+
+        child.invalidate();
+        assertThat(canvas.getUpdateScheduler().getPendingValidationCount() > 0, is(true));
+
+        canvas.update(0);
+
+        assertThat(child.isValid(), is(true));
+        assertThat(parent.isValid(), is(true));
+        assertThat(validationOrder.get(0), is((KrWidget) parent));
+        assertThat(validationOrder.get(1), is((KrWidget) child));
+        assertThat(canvas.getUpdateScheduler().getPendingValidationCount(), is(0));
+    }
+
+    @Test
+    public void testDeepChainsAreValidatedParentsFirst() {
+        List<KrWidget> validationOrder = new ArrayList<>();
+        List<CountingWidget> chain = new ArrayList<>();
+        KrWidget parent = canvas.getRootPanel();
+        for (int i = 0; i < 40; ++i) {
+            CountingWidget widget = new CountingWidget(validationOrder);
+            parent.add(widget);
+            chain.add(widget);
+            parent = widget;
+        }
+        canvas.update(0);
+        validationOrder.clear();
+
+        // queue the deepest widgets first
+        for (int i = chain.size() - 1; i >= 0; --i) {
+            chain.get(i).invalidate();
+        }
+        canvas.update(0);
+
+        assertThat(validationOrder, is((List<KrWidget>) new ArrayList<KrWidget>(chain)));
+    }
+
+    @Test
+    public void testLayoutBoundaryAbsorbsInvalidation() {
+        KrWidget outer = new KrWidget();
+        outer.setLayout(new KrFlowLayout());
+        KrWidget boundary = new KrWidget();
+        boundary.setPreferredSize(50, 50);
+        CountingWidget leaf = new CountingWidget();
+        boundary.add(leaf);
+        outer.add(boundary);
+        canvas.getRootPanel().add(outer);
+        canvas.update(0);
+
+        // the first invalidation reports the size hints of the widgets to their parents
+        leaf.invalidate();
+        canvas.update(0);
+
+        leaf.setPreferredSize(20, 20);
+        leaf.invalidate();
+
+        assertThat(boundary.isValid(), is(false));
+        assertThat(outer.isValid(), is(true));
+        assertThat(canvas.getRootPanel().isValid(), is(true));
+
+        canvas.update(0);
+
+        assertThat(boundary.isValid(), is(true));
+        assertThat(leaf.isValid(), is(true));
+    }
+
+    @Test
+    public void testChangedSizeHintsAreReportedToTheParent() {
+        KrWidget outer = new KrWidget();
+        outer.setLayout(new KrFlowLayout());
+        KrWidget boundary = new KrWidget();
+        boundary.setPreferredSize(50, 50);
+        outer.add(boundary);
+        canvas.getRootPanel().add(outer);
+        boundary.invalidate();
+        canvas.update(0);
+
+        boundary.setPreferredSize(60, 50);
+        boundary.invalidate();
+
+        assertThat(outer.isValid(), is(false));
+    }
+
+    @Test
+    public void testStackLayoutIsNotALayoutBoundary() {
+        KrWidget outer = new KrWidget();
+        outer.setLayout(new KrFlowLayout());
+        KrWidget stack = new KrWidget();
+        stack.setLayout(new KrStackLayout());
+        CountingWidget leaf = new CountingWidget();
+        stack.add(leaf);
+        outer.add(stack);
+        canvas.getRootPanel().add(outer);
+        canvas.update(0);
+
+        leaf.invalidate();
+
+        assertThat(stack.isValid(), is(false));
+        assertThat(outer.isValid(), is(false));
+    }
+
+    private static class CountingWidget extends KrWidget {
+
+        private final List<KrWidget> validationOrder;
+
+        int updateCount;
+
+        CountingWidget() {
+            this(new ArrayList<>());
+        }
+
+        CountingWidget(List<KrWidget> validationOrder) {
+            this.validationOrder = validationOrder;
+        }
+
+        @Override
+        public void update(float deltaSeconds) {
+            updateCount += 1;
+            super.update(deltaSeconds);
+        }
+
+        @Override
+        public void validate() {
+            if (!isValid()) {
+                validationOrder.add(this);
+            }
+            super.validate();
+        }
+    }
+}
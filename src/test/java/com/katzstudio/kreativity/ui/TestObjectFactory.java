@@ -105,6 +105,10 @@ public class TestObjectFactory {
         return new KrCanvas(mock(KrInputSource.class), mock(KrRenderer.class), 100, 100);
     }
 
+    public static KrCanvas createCanvas(KrInputSource inputSource, float width, float height) {
+        return new KrCanvas(inputSource, mock(KrRenderer.class), width, height);
+    }
+
     public static KrWidget createWidget(String name, int x, int y, int width, int height) {
         KrWidget widget = new KrPanel();
         widget.setName(name);
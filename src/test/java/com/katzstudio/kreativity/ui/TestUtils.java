@@ -1,15 +1,25 @@
 package com.katzstudio.kreativity.ui;
 
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.utils.Array;
 import com.katzstudio.kreativity.ui.backend.KrBackend;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessBackend;
 import com.katzstudio.kreativity.ui.component.*;
 import com.katzstudio.kreativity.ui.model.KrItemModel;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
+import com.katzstudio.kreativity.ui.style.KrWidgetStyle;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.katzstudio.kreativity.ui.TestObjectFactory.*;
 import static org.mockito.Matchers.any;
@@ -20,26 +30,76 @@ import static org.mockito.Mockito.when;
  * Functions used by tests
  */
 public class TestUtils {
+
+    private static BitmapFont headlessFont;
+
     public static void initializeToolkit() {
         KrBackend backend = createMockBackend();
         KrToolkit.initialize(backend, mock(KrSkin.class));
         initializeTestStyles();
     }
 
+    /**
+     * Initializes the toolkit with a headless backend, and a skin with the test styles. The skin and its font are
+     * not mocks, so they don't allocate when they're queried.
+     */
+    public static KrHeadlessBackend initializeHeadlessToolkit(int screenWidth, int screenHeight) {
+        KrHeadlessBackend backend = new KrHeadlessBackend(screenWidth, screenHeight);
+        BitmapFont font = createHeadlessFont();
+        KrSkin skin = new KrSkin() {
+            @Override
+            public BitmapFont getDefaultFont() {
+                return font;
+            }
+        };
+        createTestStyles().forEach((widgetClass, style) -> {
+            if (style.font != null) {
+                style.font = font;
+            }
+            skin.registerStyle(widgetClass, style);
+        });
+        KrToolkit.initialize(backend, skin);
+        return backend;
+    }
+
+    /**
+     * Returns a font with the glyph data of the default font, so text can be measured by the headless backend. The
+     * font page is a mock texture, so the font doesn't need a GL context.
+     */
+    public static BitmapFont createHeadlessFont() {
+        if (headlessFont == null) {
+            // classpath files are read without a libgdx application
+            FileHandle fontFile = new FileHandle("ui/fonts/roboto_11.fnt", Files.FileType.Classpath) {
+            };
+            Texture texture = mock(Texture.class);
+            when(texture.getWidth()).thenReturn(256);
+            when(texture.getHeight()).thenReturn(256);
+            headlessFont = new BitmapFont(new BitmapFont.BitmapFontData(fontFile, false),
+                    new Array<>(new TextureRegion[]{new TextureRegion(texture)}), false);
+        }
+        return headlessFont;
+    }
+
     private static void initializeTestStyles() {
         KrSkin skin = KrToolkit.getDefaultToolkit().getSkin();
-        when(skin.getStyle(KrWidget.class)).thenReturn(createWidgetStyle());
-        when(skin.getStyle(KrPanel.class)).thenReturn(createPanelStyle());
-        when(skin.getStyle(KrLabel.class)).thenReturn(createLabelStyle());
-        when(skin.getStyle(KrTextField.class)).thenReturn(createTextFieldStyle());
-        when(skin.getStyle(KrCheckbox.class)).thenReturn(createCheckBoxStyle());
-        when(skin.getStyle(KrButton.class)).thenReturn(createButtonStyle());
-        when(skin.getStyle(KrSpinner.class)).thenReturn(createSpinnerStyle());
-        when(skin.getStyle(KrIconPanel.class)).thenReturn(createWidgetStyle());
-        when(skin.getStyle(KrScrollBar.class)).thenReturn(createScrollBarStyle());
-        when(skin.getStyle(KrListView.class)).thenReturn(createItemViewStyle());
-        when(skin.getStyle(KrTableView.class)).thenReturn(createItemViewStyle());
-        when(skin.getStyle(KrComboBox.class)).thenReturn(createComboBoxStyle());
+        createTestStyles().forEach((widgetClass, style) -> when(skin.getStyle(widgetClass)).thenReturn(style));
+    }
+
+    private static Map<Class<? extends KrWidget>, KrWidgetStyle> createTestStyles() {
+        Map<Class<? extends KrWidget>, KrWidgetStyle> styles = new LinkedHashMap<>();
+        styles.put(KrWidget.class, createWidgetStyle());
+        styles.put(KrPanel.class, createPanelStyle());
+        styles.put(KrLabel.class, createLabelStyle());
+        styles.put(KrTextField.class, createTextFieldStyle());
+        styles.put(KrCheckbox.class, createCheckBoxStyle());
+        styles.put(KrButton.class, createButtonStyle());
+        styles.put(KrSpinner.class, createSpinnerStyle());
+        styles.put(KrIconPanel.class, createWidgetStyle());
+        styles.put(KrScrollBar.class, createScrollBarStyle());
+        styles.put(KrListView.class, createItemViewStyle());
+        styles.put(KrTableView.class, createItemViewStyle());
+        styles.put(KrComboBox.class, createComboBoxStyle());
+        return styles;
     }
 
     public static Collection<Object[]> getAllWidgets() {
@@ -0,0 +1,142 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.io.File;
+import java.net.URISyntaxException;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrHeadlessBackend}
+ */
+public class KrHeadlessBackendTest {
+
+    private KrHeadlessBackend backend;
+
+    private BitmapFont.BitmapFontData fontData;
+
+    private BitmapFont font;
+
+    @Before
+    public void setUp() throws Exception {
+        backend = new KrHeadlessBackend(800, 600);
+        fontData = new BitmapFont.BitmapFontData(getFontFile("/ui/fonts/roboto_11.fnt"), false);
+        font = mock(BitmapFont.class);
+        when(font.getData()).thenReturn(fontData);
+    }
+
+    @Test
+    public void testTextIsMeasuredFromGlyphAdvances() {
+        KrHeadlessFontMetrics metrics = (KrHeadlessFontMetrics) backend.getFontMetrics();
+        BitmapFont.Glyph glyph = fontData.getGlyph('a');
+
+        Rectangle one = metrics.bounds(font, "a");
+        Rectangle two = metrics.bounds(font, "aa");
+
+        assertThat(two.width - one.width, is((glyph.xadvance + glyph.getKerning('a')) * fontData.scaleX));
+        assertThat(one.height, is(fontData.capHeight));
+    }
+
+    @Test
+    public void testMultilineTextIsMeasuredByItsLongestLine() {
+        KrHeadlessFontMetrics metrics = (KrHeadlessFontMetrics) backend.getFontMetrics();
+
+        Rectangle bounds = metrics.bounds(font, "ab\nabab");
+
+        assertThat(bounds.width, is(metrics.bounds(font, "abab").width));
+        assertThat(bounds.height, is(fontData.capHeight + fontData.lineHeight));
+    }
+
+    @Test
+    public void testSubstringIsMeasured() {
+        KrHeadlessFontMetrics metrics = (KrHeadlessFontMetrics) backend.getFontMetrics();
+
+        Rectangle bounds = metrics.bounds(font, "xaby", 1, 2);
+
+        assertThat(bounds.width, is(metrics.bounds(font, "ab").width));
+    }
+
+    @Test
+    public void testScriptedInputIsDispatchedInOrder() {
+        KrHeadlessInputSource inputSource = backend.getInputSource();
+        KrInputSource.KrInputEventListener listener = mock(KrInputSource.KrInputEventListener.class);
+        inputSource.addEventListener(listener);
+
+        inputSource.moveMouse(10, 20);
+        inputSource.pressKey(Input.Keys.CONTROL_LEFT);
+        inputSource.pressMouse(KrMouseEvent.Button.LEFT);
+
+        assertThat(inputSource.getQueuedEventCount(), is(3));
+        inputSource.dispatchQueuedEvents();
+
+        assertThat(inputSource.hasQueuedEvents(), is(false));
+        assertThat(inputSource.isCtrlDown(), is(true));
+        assertThat(inputSource.isDragging(), is(true));
+        assertThat(inputSource.getMousePosition().x, is(10f));
+        assertThat(inputSource.getMousePosition().y, is(20f));
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).mouseMoved(any());
+        inOrder.verify(listener).keyPressed(any());
+        inOrder.verify(listener).mousePressed(any());
+    }
+
+    @Test
+    public void testTypedTextIsDispatchedAsCharacters() {
+        KrHeadlessInputSource inputSource = backend.getInputSource();
+        KrInputSource.KrInputEventListener listener = mock(KrInputSource.KrInputEventListener.class);
+        inputSource.addEventListener(listener);
+        ArgumentCaptor<KrKeyEvent> captor = ArgumentCaptor.forClass(KrKeyEvent.class);
+
+        inputSource.typeText("a");
+        inputSource.dispatchQueuedEvents();
+
+        verify(listener).keyPressed(captor.capture());
+        assertThat(captor.getValue().getValue(), is("a"));
+    }
+
+    @Test
+    public void testClipboardIsKeptInMemory() {
+        backend.writeToClipboard("copied");
+
+        assertThat(backend.readFromClipboard(), is("copied"));
+    }
+
+    @Test
+    public void testRendererCullsWidgetsOutsideOfTheClip() {
+        KrHeadlessRenderer renderer = (KrHeadlessRenderer) backend.getRenderer();
+        renderer.setViewportSize(800, 600);
+        renderer.beginFrame();
+
+        renderer.pushState();
+        renderer.translate(100, 100);
+        renderer.beginClip(0, 0, 50, 50);
+
+        assertThat(renderer.isClipped(60, 0, 10, 10), is(true));
+        assertThat(renderer.isClipped(40, 40, 20, 20), is(false));
+
+        renderer.popState();
+        assertThat(renderer.isClipped(160, 100, 10, 10), is(false));
+    }
+
+    private static FileHandle getFontFile(String path) throws URISyntaxException {
+        return new FileHandle(new File(KrHeadlessBackendTest.class.getResource(path).toURI()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrColorDrawableCache}
+ */
+public class KrColorDrawableCacheTest {
+
+    private KrColorDrawableCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        cache = new KrColorDrawableCache(3);
+    }
+
+    @Test
+    public void testSameColorReturnsSameDrawable() {
+        KrLwjgl3ColorDrawable drawable = cache.get(0xff0000ff);
+
+        assertThat(cache.get(0xff0000ff), sameInstance(drawable));
+        assertThat(drawable.getRgba(), is(0xff0000ff));
+        assertThat(cache.getSize(), is(1));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedColorIsEvicted() {
+        KrLwjgl3ColorDrawable red = cache.get(0xff0000ff);
+        KrLwjgl3ColorDrawable green = cache.get(0x00ff00ff);
+        cache.get(0x0000ffff);
+
+        // using red makes green the least recently used color
+        cache.get(0xff0000ff);
+        cache.get(0xffffffff);
+
+        assertThat(cache.getSize(), is(3));
+        assertThat(cache.get(0xff0000ff), sameInstance(red));
+        assertThat(cache.get(0x00ff00ff), not(sameInstance(green)));
+    }
+}
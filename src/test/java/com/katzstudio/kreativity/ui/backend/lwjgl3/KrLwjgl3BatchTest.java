@@ -0,0 +1,169 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Texture;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.QUAD_CROSSING;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.QUAD_INSIDE;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.QUAD_OUTSIDE;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.classifyQuad;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.clipQuad;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3Batch.findGroup;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the clipping and grouping logic of {@link KrLwjgl3Batch}
+ */
+public class KrLwjgl3BatchTest {
+
+    private static final float COLOR = 1;
+
+    @Test
+    public void testQuadsAreClassifiedAgainstTheClip() {
+        assertThat(classifyQuad(quad(10, 10, 20, 20), 0, 0, 0, 100, 100), is(QUAD_INSIDE));
+        assertThat(classifyQuad(quad(0, 0, 100, 100), 0, 0, 0, 100, 100), is(QUAD_INSIDE));
+        assertThat(classifyQuad(quad(90, 10, 110, 20), 0, 0, 0, 100, 100), is(QUAD_CROSSING));
+        assertThat(classifyQuad(quad(100, 10, 110, 20), 0, 0, 0, 100, 100), is(QUAD_OUTSIDE));
+        assertThat(classifyQuad(quad(10, -20, 20, 0), 0, 0, 0, 100, 100), is(QUAD_OUTSIDE));
+    }
+
+    @Test
+    public void testClippedQuadHasItsTextureCoordinatesTrimmed() {
+        float[] vertices = quad(0, 0, 128, 64, 0, 1, 1, 0);
+        float[] result = new float[20];
+
+        assertThat(clipQuad(vertices, 0, 32, 16, 96, 100, result), is(true));
+
+        // bottom left, top left, top right, bottom right
+        assertVertex(result, 0, 32, 16, 0.25f, 0.75f);
+        assertVertex(result, 1, 32, 64, 0.25f, 0f);
+        assertVertex(result, 2, 96, 64, 0.75f, 0f);
+        assertVertex(result, 3, 96, 16, 0.75f, 0.75f);
+    }
+
+    @Test
+    public void testClippedQuadKeepsFlippedTextureCoordinates() {
+        float[] vertices = quad(0, 0, 10, 10, 1, 0, 0, 1);
+        float[] result = new float[20];
+
+        assertThat(clipQuad(vertices, 0, 5, 0, 10, 5, result), is(true));
+
+        assertVertex(result, 0, 5, 0, 0.5f, 0f);
+        assertVertex(result, 2, 10, 5, 0f, 0.5f);
+    }
+
+    @Test
+    public void testQuadsAreClippedAtAnOffset() {
+        float[] vertices = new float[40];
+        System.arraycopy(quad(0, 0, 10, 10), 0, vertices, 20, 20);
+        float[] result = new float[20];
+
+        assertThat(clipQuad(vertices, 20, 5, 5, 20, 20, result), is(true));
+
+        assertVertex(result, 0, 5, 5, 0.5f, 0.5f);
+        assertVertex(result, 2, 10, 10, 1f, 0f);
+    }
+
+    @Test
+    public void testRotatedQuadsAreNotClippedOnTheCpu() {
+        // a diamond shape
+        float[] vertices = quad(0, 0, 10, 10);
+        setPosition(vertices, 0, 5, 0);
+        setPosition(vertices, 1, 0, 5);
+        setPosition(vertices, 2, 5, 10);
+        setPosition(vertices, 3, 10, 5);
+
+        assertThat(clipQuad(vertices, 0, 2, 2, 8, 8, new float[20]), is(false));
+    }
+
+    @Test
+    public void testQuadsWithPerVertexColorsAreNotClippedOnTheCpu() {
+        float[] vertices = quad(0, 0, 10, 10);
+        vertices[2 * 5 + 2] = 2;
+
+        assertThat(clipQuad(vertices, 0, 2, 2, 8, 8, new float[20]), is(false));
+    }
+
+    @Test
+    public void testQuadJoinsAnEarlierGroupItDoesNotOverlap() {
+        Texture atlas = mock(Texture.class);
+        Texture icon = mock(Texture.class);
+        Texture[] textures = {atlas, icon};
+        float[] bounds = {0, 0, 10, 10, 20, 0, 30, 10};
+
+        assertThat(findGroup(atlas, 40, 0, 50, 10, textures, bounds, 2), is(0));
+    }
+
+    @Test
+    public void testQuadDoesNotMovePastAnOverlappingGroupOfAnotherTexture() {
+        Texture atlas = mock(Texture.class);
+        Texture icon = mock(Texture.class);
+        Texture[] textures = {atlas, icon};
+        float[] bounds = {0, 0, 10, 10, 5, 5, 15, 15};
+
+        // drawing the quad with the first group would put it under the icon
+        assertThat(findGroup(atlas, 8, 8, 12, 12, textures, bounds, 2), is(-1));
+    }
+
+    @Test
+    public void testQuadJoinsTheOverlappedGroupOfTheSameTexture() {
+        Texture atlas = mock(Texture.class);
+        Texture icon = mock(Texture.class);
+        Texture[] textures = {icon, atlas};
+        float[] bounds = {0, 0, 10, 10, 20, 0, 30, 10};
+
+        assertThat(findGroup(atlas, 25, 5, 35, 15, textures, bounds, 2), is(1));
+        assertThat(findGroup(icon, 25, 5, 35, 15, textures, bounds, 2), is(-1));
+    }
+
+    @Test
+    public void testGroupsPastTheLookbackAreIgnored() {
+        Texture atlas = mock(Texture.class);
+        int groupCount = KrLwjgl3Batch.MAX_LOOKBACK + 1;
+        Texture[] textures = new Texture[groupCount];
+        float[] bounds = new float[groupCount * 4];
+        textures[0] = atlas;
+        for (int i = 1; i < groupCount; ++i) {
+            textures[i] = mock(Texture.class);
+        }
+
+        // no group is overlapped, but the only group with the same texture is too far back
+        assertThat(findGroup(atlas, 10, 10, 20, 20, textures, bounds, groupCount), is(-1));
+        assertThat(findGroup(atlas, 10, 10, 20, 20, textures, bounds, groupCount - 1), is(0));
+    }
+
+    /**
+     * Returns an axis aligned quad, with the whole texture mapped on it.
+     */
+    private static float[] quad(float x1, float y1, float x2, float y2) {
+        return quad(x1, y1, x2, y2, 0, 1, 1, 0);
+    }
+
+    /**
+     * Returns an axis aligned quad. The {@code u1, v1} coordinates map to the bottom left corner.
+     */
+    private static float[] quad(float x1, float y1, float x2, float y2, float u1, float v1, float u2, float v2) {
+        return new float[]{
+                x1, y1, COLOR, u1, v1,
+                x1, y2, COLOR, u1, v2,
+                x2, y2, COLOR, u2, v2,
+                x2, y1, COLOR, u2, v1
+        };
+    }
+
+    private static void setPosition(float[] vertices, int vertex, float x, float y) {
+        vertices[vertex * 5] = x;
+        vertices[vertex * 5 + 1] = y;
+    }
+
+    private static void assertVertex(float[] vertices, int vertex, float x, float y, float u, float v) {
+        int offset = vertex * 5;
+        assertThat(vertices[offset], is(x));
+        assertThat(vertices[offset + 1], is(y));
+        assertThat(vertices[offset + 2], is(COLOR));
+        assertThat(vertices[offset + 3], is(u));
+        assertThat(vertices[offset + 4], is(v));
+    }
+}
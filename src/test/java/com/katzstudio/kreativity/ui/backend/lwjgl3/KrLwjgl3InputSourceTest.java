@@ -0,0 +1,179 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createWidget;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrLwjgl3InputSource}
+ */
+public class KrLwjgl3InputSourceTest {
+
+    private KrLwjgl3InputSource inputSource;
+
+    private List<String> dispatched;
+
+    @Before
+    public void setUp() throws Exception {
+        inputSource = new KrLwjgl3InputSource();
+        dispatched = new ArrayList<>();
+        inputSource.addEventListener(new RecordingListener());
+    }
+
+    @Test
+    public void testEventsAreDispatchedOnlyWhenDrained() {
+        inputSource.mouseMoved(10, 10);
+        inputSource.scrolled(1);
+
+        assertThat(dispatched.isEmpty(), is(true));
+        assertThat(inputSource.getQueuedEventCount(), is(2));
+
+        inputSource.dispatchQueuedEvents();
+
+        assertThat(dispatched.size(), is(2));
+        assertThat(inputSource.getQueuedEventCount(), is(0));
+    }
+
+    @Test
+    public void testConsecutiveMovesAreMerged() {
+        inputSource.mouseMoved(10, 10);
+        inputSource.dispatchQueuedEvents();
+        dispatched.clear();
+
+        inputSource.mouseMoved(12, 11);
+        inputSource.mouseMoved(15, 13);
+        inputSource.mouseMoved(20, 20);
+        inputSource.dispatchQueuedEvents();
+
+        assertThat(dispatched.size(), is(1));
+        assertThat(dispatched.get(0), is("moved (20.0,20.0) delta (10.0,10.0)"));
+    }
+
+    @Test
+    public void testMovesAreNotMergedAcrossButtonEvents() {
+        inputSource.mouseMoved(10, 10);
+        inputSource.mouseMoved(11, 10);
+        inputSource.touchDown(11, 10, 0, Input.Buttons.LEFT);
+        inputSource.touchDragged(15, 10, 0);
+        inputSource.touchDragged(20, 10, 0);
+        inputSource.touchUp(20, 10, 0, Input.Buttons.LEFT);
+        inputSource.mouseMoved(25, 10);
+        inputSource.dispatchQueuedEvents();
+
+        assertThat(dispatched.size(), is(5));
+        assertThat(dispatched.get(0), is("moved (11.0,10.0) delta (11.0,10.0)"));
+        assertThat(dispatched.get(1), is("pressed"));
+        assertThat(dispatched.get(2), is("moved (20.0,10.0) delta (9.0,0.0) dragging"));
+        assertThat(dispatched.get(3), is("released"));
+        assertThat(dispatched.get(4), is("moved (25.0,10.0) delta (5.0,0.0)"));
+    }
+
+    @Test
+    public void testKeyEventsKeepTheirModifiers() {
+        inputSource.keyDown(Input.Keys.SHIFT_LEFT);
+        inputSource.keyDown(Input.Keys.TAB);
+        inputSource.keyUp(Input.Keys.SHIFT_LEFT);
+        inputSource.keyUp(Input.Keys.TAB);
+        inputSource.dispatchQueuedEvents();
+
+        assertThat(dispatched.size(), is(4));
+        assertThat(dispatched.get(1), is("key pressed " + Input.Keys.TAB + " shift"));
+        assertThat(dispatched.get(3), is("key released " + Input.Keys.TAB));
+        assertThat(inputSource.isShiftDown(), is(false));
+    }
+
+    @Test
+    public void testEventsOverWidgetsAreConsumed() {
+        initializeToolkit();
+        KrCanvas canvas = createCanvas(inputSource, 200, 200);
+        KrWidget widget = createWidget("widget", 0, 0, 100, 100);
+        canvas.getRootPanel().add(widget);
+        canvas.getUpdateScheduler().validate();
+
+        assertThat(inputSource.mouseMoved(50, 50), is(true));
+        assertThat(inputSource.scrolled(1), is(true));
+        assertThat(inputSource.touchDown(50, 50, 0, Input.Buttons.LEFT), is(true));
+        // the drag and the release that follow a consumed press are consumed, even outside of the widget
+        assertThat(inputSource.touchDragged(150, 150, 0), is(true));
+        assertThat(inputSource.touchUp(150, 150, 0, Input.Buttons.LEFT), is(true));
+
+        assertThat(inputSource.mouseMoved(150, 150), is(false));
+        assertThat(inputSource.scrolled(1), is(false));
+        assertThat(inputSource.touchDown(150, 150, 0, Input.Buttons.RIGHT), is(false));
+        assertThat(inputSource.touchUp(150, 150, 0, Input.Buttons.RIGHT), is(false));
+    }
+
+    @Test
+    public void testKeyEventsAreConsumedWhileAWidgetHasTheFocus() {
+        initializeToolkit();
+        KrCanvas canvas = createCanvas(inputSource, 200, 200);
+        KrWidget widget = createWidget("widget", 0, 0, 100, 100);
+        canvas.getRootPanel().add(widget);
+
+        assertThat(inputSource.keyDown(Input.Keys.A), is(false));
+        assertThat(inputSource.keyUp(Input.Keys.A), is(false));
+
+        canvas.requestFocus(widget);
+
+        assertThat(inputSource.keyDown(Input.Keys.A), is(true));
+        assertThat(inputSource.keyTyped('a'), is(true));
+        assertThat(inputSource.keyUp(Input.Keys.A), is(true));
+    }
+
+    private class RecordingListener implements KrInputSource.KrInputEventListener {
+
+        @Override
+        public void mouseMoved(KrMouseEvent event) {
+            Vector2 position = event.getScreenPosition();
+            Vector2 delta = event.getDeltaMove();
+            dispatched.add("moved (" + position.x + "," + position.y + ") delta (" + delta.x + "," + delta.y + ")"
+                    + (inputSource.isDragging() ? " dragging" : ""));
+        }
+
+        @Override
+        public void mousePressed(KrMouseEvent event) {
+            dispatched.add("pressed");
+        }
+
+        @Override
+        public void mouseReleased(KrMouseEvent event) {
+            dispatched.add("released");
+        }
+
+        @Override
+        public void mouseDoubleClicked(KrMouseEvent event) {
+            dispatched.add("double clicked");
+        }
+
+        @Override
+        public void keyPressed(KrKeyEvent event) {
+            dispatched.add("key pressed " + event.getKeycode() + (event.isShiftDown() ? " shift" : ""));
+        }
+
+        @Override
+        public void keyReleased(KrKeyEvent event) {
+            dispatched.add("key released " + event.getKeycode() + (event.isShiftDown() ? " shift" : ""));
+        }
+
+        @Override
+        public void scrolledEvent(KrScrollEvent event) {
+            dispatched.add("scrolled");
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static com.katzstudio.kreativity.ui.TestUtils.createHeadlessFont;
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrLwjgl3Renderer}
+ */
+public class KrLwjgl3RendererTest {
+
+    private KrLwjgl3Batch batch;
+
+    private KrLwjgl3Renderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        batch = mock(KrLwjgl3Batch.class);
+        when(batch.getProjectionMatrix()).thenReturn(new Matrix4());
+        renderer = new KrLwjgl3Renderer(batch);
+        renderer.setViewportSize(100, 100);
+        renderer.beginFrame();
+    }
+
+    @Test
+    public void testDrawingTextKeepsTheColorOfTheFont() {
+        BitmapFont font = createHeadlessFont();
+        Color fontColor = new Color(0.2f, 0.4f, 0.6f, 0.8f);
+        font.setColor(fontColor);
+        renderer.setFont(font);
+        renderer.setPen(0xff0000ff);
+
+        renderer.drawText("text", 10, 10);
+        assertThat(font.getColor(), is(fontColor));
+
+        renderer.drawTextWithShadow("text", new Vector2(10, 10), new Vector2(1, 1), Color.BLACK);
+        assertThat(font.getColor(), is(fontColor));
+
+        font.setColor(Color.WHITE);
+    }
+
+    @Test
+    public void testNestedStatesAreRestored() {
+        BitmapFont outerFont = mock(BitmapFont.class);
+        BitmapFont middleFont = mock(BitmapFont.class);
+        BitmapFont innerFont = mock(BitmapFont.class);
+        Drawable middleBrush = mock(Drawable.class);
+        Drawable innerBrush = mock(Drawable.class);
+
+        renderer.setPen(0xff0000ff);
+        renderer.setBrush(0x0000ffff);
+        renderer.setFont(outerFont);
+
+        renderer.pushState();
+        renderer.setPen(0x00ff00ff);
+        renderer.setBrush(middleBrush);
+        renderer.setFont(middleFont);
+        renderer.setOpacity(0.5f);
+        renderer.translate(10, 20);
+        renderer.beginClip(0, 0, 50, 50);
+
+        renderer.pushState();
+        renderer.setPen(0xffffffff);
+        renderer.setBrush(innerBrush);
+        renderer.setFont(innerFont);
+        renderer.setOpacity(0.25f);
+        renderer.translate(5, 5);
+        renderer.beginClip(0, 0, 10, 10);
+
+        assertState(0xffffffff, innerFont, 0.25f, 15, 25);
+        assertDrawableBrush(innerBrush, 0.25f);
+        assertThat(renderer.isClipped(10, 0, 1, 1), is(true));
+        assertThat(renderer.isClipped(9, 9, 1, 1), is(false));
+
+        reset(batch);
+        renderer.popState();
+        // the clip of the middle state is applied again
+        verify(batch).setClip(10, 30, 60, 80);
+        assertState(0x00ff00ff, middleFont, 0.5f, 10, 20);
+        assertDrawableBrush(middleBrush, 0.5f);
+        assertThat(renderer.isClipped(10, 0, 1, 1), is(false));
+        assertThat(renderer.isClipped(50, 0, 1, 1), is(true));
+
+        reset(batch);
+        renderer.popState();
+        verify(batch).clearClip();
+        assertState(0xff0000ff, outerFont, 1, 0, 0);
+        assertThat(renderer.isClipped(50, 0, 1, 1), is(false));
+        assertThat(renderer.isClipped(100, 0, 1, 1), is(true));
+
+        reset(batch);
+        renderer.fillRect(0, 0, 10, 10);
+        verify(batch).setColor(new Color(0x0000ffff).toFloatBits());
+    }
+
+    @Test
+    public void testDeepStatesAreRestored() {
+        int depth = 100;
+        for (int i = 0; i < depth; ++i) {
+            renderer.pushState();
+            renderer.setOpacity(i / (float) depth);
+            renderer.translate(1, 0);
+        }
+
+        for (int i = depth - 1; i >= 0; --i) {
+            assertThat(renderer.getOpacity(), is(i / (float) depth));
+            renderer.popState();
+        }
+        assertThat(renderer.getOpacity(), is(1f));
+        assertTranslation(0, 0);
+    }
+
+    @Test
+    public void testPackedColorsKeepTheirAlpha() {
+        renderer.setPen(0x11223344);
+        assertThat(renderer.getPen().getColor(), is(new Color(0x11223344)));
+
+        renderer.setBrush(0x336699cc);
+        renderer.fillRect(0, 0, 10, 10);
+        verify(batch).setColor(new Color(0x336699cc).toFloatBits());
+
+        // the opacity only scales the alpha
+        reset(batch);
+        renderer.setOpacity(0.5f);
+        renderer.fillRect(0, 0, 10, 10);
+        verify(batch).setColor(new Color(0x33669966).toFloatBits());
+    }
+
+    @Test
+    public void testWidgetsDrawnWithTheSkinTextureTakeASingleDrawCall() {
+        Texture skinTexture = mock(Texture.class);
+        Texture iconTexture = mock(Texture.class);
+        SpriteBatch spriteBatch = createSpriteBatch(skinTexture);
+        TextureRegionDrawable ninePatch = new TextureRegionDrawable(new TextureRegion(skinTexture, 0, 0, 1, 1));
+        TextureRegion icon = new TextureRegion(iconTexture, 0, 0, 1, 1);
+
+        // two widgets with a background, a border and a separator, the first one with an icon
+        for (int i = 0; i < 2; ++i) {
+            renderer.translate(0, i * 20);
+            renderer.setBrush(0x336699ff);
+            renderer.fillRect(0, 0, 40, 20);
+            renderer.setBrush(ninePatch);
+            renderer.fillRect(2, 2, 36, 16);
+            renderer.setPen(0x000000ff);
+            renderer.drawRect(0, 0, 40, 20);
+            renderer.drawLine(20, 2, 20, 18);
+            if (i == 0) {
+                batch.draw(icon, 50, 90, 10, 10);
+            }
+            renderer.translate(0, -i * 20);
+        }
+        renderer.endFrame();
+
+        verify(spriteBatch, times(1)).draw(eq(skinTexture), any(float[].class), eq(0), anyInt());
+        verify(spriteBatch, times(1)).draw(eq(iconTexture), any(float[].class), eq(0), anyInt());
+    }
+
+    @Test
+    public void testTranslatingDoesNotFlushTheBatch() {
+        Texture skinTexture = mock(Texture.class);
+        SpriteBatch spriteBatch = createSpriteBatch(skinTexture);
+
+        renderer.setBrush(0xffffffff);
+        renderer.translate(10, 20);
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.translate(5, 5);
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.translate(-5, -5);
+        renderer.translate(-10, -20);
+        renderer.fillRect(0, 0, 10, 10);
+
+        verify(spriteBatch, never()).flush();
+        verify(spriteBatch, never()).setTransformMatrix(any(Matrix4.class));
+
+        renderer.endFrame();
+        ArgumentCaptor<float[]> vertices = ArgumentCaptor.forClass(float[].class);
+        verify(spriteBatch).draw(eq(skinTexture), vertices.capture(), eq(0), eq(60));
+
+        // the bottom left corners of the quads, in batch coordinates where y goes up
+        assertCorner(vertices.getValue(), 0, 10, 70);
+        assertCorner(vertices.getValue(), 1, 15, 65);
+        assertCorner(vertices.getValue(), 2, 0, 90);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalancedPopThrows() {
+        renderer.pushState();
+        renderer.popState();
+        renderer.popState();
+    }
+
+    /**
+     * Makes the renderer draw with a real batch, which appends its quads to the returned sprite batch mock. The
+     * white texel of the skin is taken from the given texture.
+     */
+    private SpriteBatch createSpriteBatch(Texture skinTexture) {
+        SpriteBatch spriteBatch = mock(SpriteBatch.class);
+        when(spriteBatch.getProjectionMatrix()).thenReturn(new Matrix4());
+        TextureRegion whiteTexel = new TextureRegion(skinTexture, 0.5f, 0.5f, 0.5f, 0.5f);
+        when(getDefaultToolkit().getSkin().getWhiteTexel()).thenReturn(whiteTexel);
+
+        batch = new KrLwjgl3Batch(spriteBatch);
+        renderer = new KrLwjgl3Renderer(batch);
+        renderer.setViewportSize(100, 100);
+        renderer.beginFrame();
+        return spriteBatch;
+    }
+
+    private static void assertCorner(float[] vertices, int quad, float x, float y) {
+        assertThat(vertices[quad * 20], is(x));
+        assertThat(vertices[quad * 20 + 1], is(y));
+    }
+
+    private void assertState(int penColor, BitmapFont font, float opacity, float translationX, float translationY) {
+        assertThat(renderer.getPen().getColor().toFloatBits(), is(new Color(penColor).toFloatBits()));
+        assertThat(renderer.getFont(), is(font));
+        assertThat(renderer.getOpacity(), is(opacity));
+        assertTranslation(translationX, translationY);
+    }
+
+    private void assertTranslation(float x, float y) {
+        // clears are translated, in batch coordinates where y goes up
+        reset(batch);
+        renderer.clearRect(0, 0, 10, 10);
+        verify(batch).clear(x, 90 - y, x + 10, 100 - y);
+    }
+
+    private void assertDrawableBrush(Drawable brush, float opacity) {
+        reset(batch);
+        renderer.fillRect(0, 0, 10, 10);
+        verify(batch).setColor(1, 1, 1, opacity);
+        verify(brush).draw(batch, 0, 90, 10, 10);
+    }
+}
@@ -0,0 +1,192 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessBackend;
+import com.katzstudio.kreativity.ui.layout.KrBorderLayout;
+import com.katzstudio.kreativity.ui.model.KrItemModel;
+import com.katzstudio.kreativity.ui.model.KrListItemModel;
+import com.katzstudio.kreativity.ui.model.KrSelection;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeHeadlessToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for the row virtualization of {@link KrListView} and {@link KrTableView}
+ */
+public class KrAbstractItemViewTest {
+
+    private static final int ROW_COUNT = 100_000;
+
+    private static final int VIEW_HEIGHT = 200;
+
+    private KrHeadlessBackend backend;
+
+    private KrCanvas canvas;
+
+    private CountingModel model;
+
+    @Before
+    public void setUp() throws Exception {
+        backend = initializeHeadlessToolkit(300, VIEW_HEIGHT);
+        canvas = KrToolkit.getDefaultToolkit().getCanvas();
+        canvas.getRootPanel().setLayout(new KrBorderLayout());
+        // only the dirty regions are repainted, so views that don't repaint themselves aren't drawn
+        canvas.setPartialRepaintEnabled(true);
+        model = new CountingModel();
+    }
+
+    @Test
+    public void testListViewDrawsVisibleRowsOnly() {
+        KrListView listView = new KrListView(model);
+        show(listView);
+
+        assertThat(model.valueCount, is(VIEW_HEIGHT / KrAbstractItemView.ROW_HEIGHT));
+        assertThat(model.firstRow, is(0));
+
+        scrollTo(listView, 50_000 * KrAbstractItemView.ROW_HEIGHT + 10);
+
+        // the first and the last row are partially visible
+        assertThat(model.valueCount, is(VIEW_HEIGHT / KrAbstractItemView.ROW_HEIGHT + 1));
+        assertThat(model.firstRow, is(50_000));
+        assertThat(model.lastRow, is(50_010));
+    }
+
+    @Test
+    public void testTableViewDrawsVisibleRowsOnly() {
+        KrTableView tableView = new KrTableView(model);
+        show(tableView);
+
+        assertThat(model.valueCount, is(VIEW_HEIGHT / KrAbstractItemView.ROW_HEIGHT * model.getColumnCount()));
+
+        scrollTo(tableView, (ROW_COUNT - 10) * KrAbstractItemView.ROW_HEIGHT);
+
+        assertThat(model.valueCount, is(10 * model.getColumnCount()));
+        assertThat(model.firstRow, is(ROW_COUNT - 10));
+        assertThat(model.lastRow, is(ROW_COUNT - 1));
+    }
+
+    @Test
+    public void testVariableRowHeights() {
+        KrListView listView = new KrListView(model);
+        // every tenth row is a 60 pixels high group header
+        listView.setRowHeightProvider(row -> row % 10 == 0 ? 60 : 20);
+
+        float groupHeight = 60 + 9 * 20;
+        assertThat(listView.calculatePreferredSize().y, is(ROW_COUNT / 10 * groupHeight));
+        assertThat(listView.getRowHeight(30), is(60f));
+        assertThat(listView.findItemIndexAt(0, 59).getRow(), is(0));
+        assertThat(listView.findItemIndexAt(0, 60).getRow(), is(1));
+        assertThat(listView.findItemIndexAt(0, (int) groupHeight + 10).getRow(), is(10));
+
+        show(listView);
+
+        // a header and 7 rows fill the 200 pixels of the view
+        assertThat(model.firstRow, is(0));
+        assertThat(model.lastRow, is(7));
+
+        // the header of the group is partially visible, so the next row is too
+        scrollTo(listView, 5000 * groupHeight + 10);
+        assertThat(model.firstRow, is(50_000));
+        assertThat(model.lastRow, is(50_008));
+
+        listView.scrollToRow(50_010);
+        assertThat(listView.findItemIndexAt(0, 0).getRow(), is(50_010));
+    }
+
+    @Test
+    public void testRowHeightChanged() {
+        float[] heights = {20, 20, 20};
+        KrListView listView = new KrListView(new KrListItemModel<>(Arrays.asList("a", "b", "c")));
+        listView.setRowHeightProvider(row -> heights[row]);
+        assertThat(listView.calculatePreferredSize().y, is(60f));
+
+        heights[1] = 45;
+        listView.rowHeightChanged(1);
+
+        assertThat(listView.calculatePreferredSize().y, is(85f));
+        assertThat(listView.findItemIndexAt(0, 64).getRow(), is(1));
+        assertThat(listView.findItemIndexAt(0, 65).getRow(), is(2));
+    }
+
+    @Test
+    public void testSelectionChangesRepaintTheView() {
+        KrListView listView = new KrListView(model);
+        show(listView);
+        assertThat(canvas.isRepaintRequested(), is(false));
+
+        listView.getSelectionModel().setSelection(KrSelection.of(new KrItemModel.KrModelIndex(3)));
+        assertThat(canvas.isRepaintRequested(), is(true));
+
+        model.reset();
+        canvas.draw();
+        assertThat(model.firstRow, is(0));
+        assertThat(model.lastRow, is(9));
+    }
+
+    @Test
+    public void testScrollEventsScrollTheViewUnderTheMouse() {
+        KrListView listView = new KrListView(model);
+        show(listView);
+
+        backend.getInputSource().moveMouse(50, 50);
+        backend.getInputSource().scroll(3);
+        canvas.update(0);
+
+        assertThat(listView.verticalScrollBar.getCurrentValue(), is(3 * listView.verticalScrollBar.getScrollStep()));
+    }
+
+    private void show(KrWidget view) {
+        canvas.getRootPanel().add(view, KrBorderLayout.Constraint.CENTER);
+        canvas.update(0);
+        model.reset();
+        canvas.draw();
+    }
+
+    private void scrollTo(KrAbstractItemView view, float scrollOffset) {
+        view.verticalScrollBar.setValue(scrollOffset);
+        // the whole view is repainted, not only its scroll bar
+        assertThat(canvas.getDirtyRegions().getArea(), is(view.getWidth() * view.getHeight()));
+        canvas.update(0);
+        model.reset();
+        canvas.draw();
+    }
+
+    private static class CountingModel extends KrItemModel<String> {
+
+        int valueCount;
+
+        int firstRow;
+
+        int lastRow;
+
+        void reset() {
+            valueCount = 0;
+            firstRow = Integer.MAX_VALUE;
+            lastRow = -1;
+        }
+
+        @Override
+        public String getValue(int row, int column, KrModelIndex parent) {
+            valueCount += 1;
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+            return "Row " + row;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 3;
+        }
+
+        @Override
+        public int getRowCount() {
+            return ROW_COUNT;
+        }
+    }
+}
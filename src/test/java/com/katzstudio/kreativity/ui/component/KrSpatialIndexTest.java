@@ -0,0 +1,79 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.katzstudio.kreativity.ui.KrCanvas;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createWidget;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Unit tests for {@link KrSpatialIndex}
+ */
+public class KrSpatialIndexTest {
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+    }
+
+    @Test
+    public void testGridFindsTopmostChild() {
+        KrWidget parent = createWidget("parent", 0, 0, 1000, 1000);
+        for (int i = 0; i < 100; ++i) {
+            parent.add(createWidget("cell " + i, (i % 10) * 100, (i / 10) * 100, 100, 100));
+        }
+        KrWidget top = createWidget("top", 450, 450, 100, 100);
+        parent.add(top);
+
+        KrSpatialIndex index = parent.getChildIndex();
+
+        assertThat(index.findChildAt(10, 10), is(parent.getChild(0)));
+        assertThat(index.findChildAt(950, 950), is(parent.getChild(99)));
+        assertThat(index.findChildAt(500, 500), is(top));
+        assertThat(index.findChildAt(1500, 500), is(nullValue()));
+        assertThat(index.hasOverlappingChildren(), is(true));
+    }
+
+    @Test
+    public void testIndexFollowsChildChanges() {
+        KrWidget parent = createWidget("parent", 0, 0, 1000, 1000);
+        for (int i = 0; i < 20; ++i) {
+            parent.add(createWidget("row " + i, 0, i * 20, 100, 20));
+        }
+        KrWidget row = parent.getChild(5);
+
+        assertThat(parent.getChildIndex().findChildAt(50, 110), is(row));
+        assertThat(parent.getChildIndex().hasOverlappingChildren(), is(false));
+
+        row.setVisible(false);
+        assertThat(parent.getChildIndex().findChildAt(50, 110), is(nullValue()));
+
+        row.setVisible(true);
+        row.setPosition(500, 500);
+        assertThat(parent.getChildIndex().findChildAt(550, 510), is(row));
+
+        parent.remove(row);
+        assertThat(parent.getChildIndex().findChildAt(550, 510), is(nullValue()));
+    }
+
+    @Test
+    public void testCanvasLastHitIsInvalidatedWhenWidgetsMove() {
+        KrCanvas canvas = createCanvas();
+        KrWidget left = createWidget("left", 0, 0, 50, 50);
+        KrWidget right = createWidget("right", 50, 0, 50, 50);
+        canvas.getRootPanel().add(left);
+        canvas.getRootPanel().add(right);
+
+        assertThat(canvas.findWidgetAt(10, 10), is(left));
+        assertThat(canvas.findWidgetAt(20, 20), is(left));
+        assertThat(canvas.findWidgetAt(60, 20), is(right));
+
+        right.setPosition(0, 0);
+        assertThat(canvas.findWidgetAt(20, 20), is(right));
+    }
+}
@@ -1,5 +1,6 @@
 package com.katzstudio.kreativity.ui.component;
 
+import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.KrCanvas;
 import org.junit.Test;
 
@@ -61,4 +62,27 @@ public class KrWidgetTest {
         parent.remove(child);
         assertThat(child.isFocused(), is(false));
     }
+
+    @Test
+    public void testScreenPositionFollowsAncestors() throws Exception {
+        KrWidget root = new KrWidget();
+        KrWidget parent = new KrWidget();
+        KrWidget child = new KrWidget();
+        root.setPosition(5, 5);
+        parent.setPosition(10, 20);
+        child.setPosition(1, 2);
+
+        parent.add(child);
+        root.add(parent);
+        assertThat(child.getScreenX(), is(16f));
+        assertThat(child.getScreenY(), is(27f));
+
+        root.setPosition(0, 0);
+        assertThat(child.getScreenX(), is(11f));
+        assertThat(child.screenToLocal(20, 30, new Vector2()), is(new Vector2(9, 8)));
+
+        root.remove(parent);
+        assertThat(child.getScreenX(), is(11f));
+        assertThat(child.localToScreen(1, 1, new Vector2()), is(new Vector2(12, 23)));
+    }
 }
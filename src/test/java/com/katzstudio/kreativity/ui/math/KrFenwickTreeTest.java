@@ -0,0 +1,118 @@
+package com.katzstudio.kreativity.ui.math;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Unit tests for {@link KrFenwickTree}
+ */
+public class KrFenwickTreeTest {
+
+    @Test
+    public void testSumBefore() {
+        KrFenwickTree tree = new KrFenwickTree();
+        tree.setAll(new float[]{10, 20, 30, 40, 50});
+
+        assertThat(tree.size(), is(5));
+        assertThat(tree.sumBefore(0), is(0.0));
+        assertThat(tree.sumBefore(1), is(10.0));
+        assertThat(tree.sumBefore(3), is(60.0));
+        assertThat(tree.total(), is(150.0));
+    }
+
+    @Test
+    public void testSetUpdatesSums() {
+        KrFenwickTree tree = new KrFenwickTree(6, 20);
+        tree.set(2, 50);
+
+        assertThat(tree.get(2), is(50f));
+        assertThat(tree.sumBefore(2), is(40.0));
+        assertThat(tree.sumBefore(3), is(90.0));
+        assertThat(tree.total(), is(150.0));
+    }
+
+    @Test
+    public void testFindIndex() {
+        KrFenwickTree tree = new KrFenwickTree();
+        tree.setAll(new float[]{10, 0, 20, 30});
+
+        assertThat(tree.findIndex(-5), is(0));
+        assertThat(tree.findIndex(0), is(0));
+        assertThat(tree.findIndex(9.5f), is(0));
+        // the empty value at index 1 never spans an offset
+        assertThat(tree.findIndex(10), is(2));
+        assertThat(tree.findIndex(29), is(2));
+        assertThat(tree.findIndex(30), is(3));
+        assertThat(tree.findIndex(59), is(3));
+        assertThat(tree.findIndex(60), is(4));
+    }
+
+    @Test
+    public void testFillResizes() {
+        KrFenwickTree tree = new KrFenwickTree(3, 10);
+        tree.fill(100, 2);
+        assertThat(tree.total(), is(200.0));
+
+        tree.fill(4, 5);
+        assertThat(tree.size(), is(4));
+        assertThat(tree.total(), is(20.0));
+        assertThat(tree.findIndex(19), is(3));
+    }
+
+    @Test
+    public void testMatchesNaiveSums() {
+        Random random = new Random(42);
+        float[] values = new float[1000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = random.nextInt(50);
+        }
+        KrFenwickTree tree = new KrFenwickTree();
+        tree.setAll(values);
+
+        for (int i = 0; i < 200; ++i) {
+            int index = random.nextInt(values.length);
+            values[index] = random.nextInt(50);
+            tree.set(index, values[index]);
+        }
+
+        double sum = 0;
+        for (int i = 0; i < values.length; ++i) {
+            assertThat(tree.sumBefore(i), is(sum));
+            if (values[i] > 0) {
+                assertThat(tree.findIndex(sum), is(i));
+                assertThat(tree.findIndex(sum + values[i] - 1), is(i));
+            }
+            sum += values[i];
+        }
+        assertThat(tree.total(), is(sum));
+    }
+
+    @Test
+    public void testFillFromFunction() {
+        KrFenwickTree tree = new KrFenwickTree();
+        tree.fill(4, index -> index * 10);
+
+        assertThat(tree.get(3), is(30f));
+        assertThat(tree.sumBefore(3), is(30.0));
+        assertThat(tree.total(), is(60.0));
+    }
+
+    @Test
+    public void testSumsStayExactForManyValues() {
+        float height = 20.1f;
+        int size = 1_000_000;
+        KrFenwickTree tree = new KrFenwickTree(size, height);
+
+        assertThat(tree.total(), is(size * (double) height));
+        for (int index = 1; index < size; index += 99_991) {
+            double sum = index * (double) height;
+            assertThat(tree.sumBefore(index), is(sum));
+            assertThat(tree.findIndex(sum), is(index));
+            assertThat(tree.findIndex(sum - 0.01), is(index - 1));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.katzstudio.kreativity.ui.profiler;
+
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.KrToolkit;
+import com.katzstudio.kreativity.ui.component.KrLabel;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeHeadlessToolkit;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Phase.DRAW;
+import static com.katzstudio.kreativity.ui.profiler.KrProfiler.Phase.TIMERS;
+import static org.hamcrest.CoreMatchers.hasItems;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Unit tests for {@link KrProfiler}
+ */
+public class KrProfilerTest {
+
+    private static final long BUSY_NANOS = 2_000_000;
+
+    private KrToolkit toolkit;
+
+    private KrProfiler profiler;
+
+    private KrCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeHeadlessToolkit(800, 600);
+        toolkit = KrToolkit.getDefaultToolkit();
+        profiler = toolkit.getProfiler();
+        canvas = toolkit.getCanvas();
+    }
+
+    @Test
+    public void testDisabledProfilerRecordsNothing() {
+        runFrames(3);
+
+        assertThat(profiler.getRecordedFrameCount(), is(0));
+        assertThat(profiler.getWidgetClasses().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testPhasesAreRecordedPerFrame() {
+        profiler.setEnabled(true);
+        toolkit.registerUpdateListener(deltaSeconds -> busyWait(BUSY_NANOS));
+        runFrames(3);
+        toolkit.update(0);
+
+        assertThat(profiler.getRecordedFrameCount(), is(3));
+        for (int framesAgo = 0; framesAgo < 3; ++framesAgo) {
+            assertThat(profiler.getPhaseNanos(framesAgo, TIMERS), greaterThanOrEqualTo(BUSY_NANOS));
+            assertThat(profiler.getPhaseNanos(framesAgo, DRAW), greaterThan(0L));
+            assertThat(profiler.getFrameNanos(framesAgo), greaterThan(profiler.getPhaseNanos(framesAgo, TIMERS)));
+        }
+    }
+
+    @Test
+    public void testDrawIsSampledByWidgetClassAndName() {
+        profiler.setEnabled(true);
+        KrPanel panel = new KrPanel();
+        panel.setName("panel");
+        panel.add(new BusyWidget("busy"));
+        canvas.getRootPanel().add(panel);
+        runFrames(2);
+        toolkit.update(0);
+
+        long busyNanos = profiler.getWidgetClassNanos(BusyWidget.class, KrProfiler.Sample.DRAW, 0);
+        assertThat(busyNanos, greaterThanOrEqualTo(BUSY_NANOS));
+        assertThat(profiler.getWidgetNanos("busy", KrProfiler.Sample.DRAW, 0), is(busyNanos));
+
+        // the panel is sampled without its children
+        assertThat(profiler.getWidgetNanos("panel", KrProfiler.Sample.DRAW, 0), lessThan(BUSY_NANOS));
+        assertThat(profiler.getWidgetClasses(), hasItems(BusyWidget.class, KrPanel.class));
+        assertThat(profiler.getWidgetNames(), hasItems("busy", "panel"));
+    }
+
+    @Test
+    public void testNestedSamplesAreExcluded() {
+        profiler.setEnabled(true);
+        KrWidget list = new KrWidget("list");
+        KrWidget cell = new KrLabel("cell");
+
+        profiler.beginFrame();
+        profiler.beginSample();
+        profiler.beginSample();
+        busyWait(BUSY_NANOS);
+        profiler.endSample(cell, KrProfiler.Sample.DRAW);
+        profiler.endSample(list, KrProfiler.Sample.DRAW);
+        profiler.beginFrame();
+
+        assertThat(profiler.getWidgetClassNanos(KrLabel.class, KrProfiler.Sample.DRAW, 0), greaterThanOrEqualTo(BUSY_NANOS));
+        assertThat(profiler.getWidgetNanos("list", KrProfiler.Sample.DRAW, 0), lessThan(BUSY_NANOS));
+    }
+
+    @Test
+    public void testHistoryIsARingBuffer() {
+        profiler.setEnabled(true);
+        runFrames(KrProfiler.HISTORY_SIZE * 2);
+
+        assertThat(profiler.getRecordedFrameCount(), is(KrProfiler.HISTORY_SIZE - 1));
+        assertThat(profiler.getFrameNanos(KrProfiler.HISTORY_SIZE - 2), greaterThan(0L));
+    }
+
+    private void runFrames(int frameCount) {
+        for (int i = 0; i < frameCount; ++i) {
+            toolkit.update(1 / 60f);
+            canvas.repaint();
+            canvas.draw();
+        }
+    }
+
+    private static void busyWait(long nanos) {
+        long start = System.nanoTime();
+        //noinspection StatementWithEmptyBody
+        while (System.nanoTime() - start < nanos) {
+        }
+    }
+
+    private static class BusyWidget extends KrWidget {
+
+        BusyWidget(String name) {
+            super(name);
+            setSize(10, 10);
+        }
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            busyWait(BUSY_NANOS);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.katzstudio.kreativity.ui.component.KrListView;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.model.KrItemModel;
+import com.katzstudio.kreativity.ui.model.KrListItemModel;
+import com.katzstudio.kreativity.ui.model.KrSelection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Collections;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrDisplayList}
+ */
+public class KrDisplayListTest {
+
+    private KrRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        renderer = mock(KrRenderer.class);
+        when(renderer.getOpacity()).thenReturn(1f);
+    }
+
+    @Test
+    public void testRecordedCommandsAreForwardedAndReplayed() {
+        KrDisplayList displayList = new KrDisplayList();
+        Color color = new Color(1, 0, 0, 1);
+
+        KrRenderer recorder = displayList.beginRecording(renderer);
+        recorder.translate(10, 20);
+        recorder.setBrush(color);
+        recorder.fillRect(0, 0, 30, 40);
+        recorder.drawText("text", 5, 6);
+        recorder.translate(-10, -20);
+        displayList.endRecording();
+
+        // later changes to the color don't affect the recorded command
+        color.set(0, 1, 0, 1);
+
+        KrRenderer target = mock(KrRenderer.class);
+        when(target.getOpacity()).thenReturn(1f);
+        displayList.replay(target);
+
+        assertThat(displayList.isValid(), is(true));
+        assertThat(displayList.getSize(), is(5));
+        verify(renderer).fillRect(0, 0, 30, 40);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).translate(10, 20);
+        inOrder.verify(target).setBrush(0xff0000ff);
+        inOrder.verify(target).fillRect(0, 0, 30, 40);
+        inOrder.verify(target).drawText("text", 5, 6);
+        inOrder.verify(target).translate(-10, -20);
+    }
+
+    @Test
+    public void testOpacityIsComposedWithTheReplayOpacity() {
+        KrDisplayList displayList = new KrDisplayList();
+        when(renderer.getOpacity()).thenReturn(0.5f);
+
+        KrRenderer recorder = displayList.beginRecording(renderer);
+        recorder.setOpacity(0.25f);
+        recorder.setOpacity(0.5f);
+        displayList.endRecording();
+
+        KrRenderer target = mock(KrRenderer.class);
+        when(target.getOpacity()).thenReturn(0.8f);
+        displayList.replay(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).setOpacity(0.4f);
+        inOrder.verify(target).setOpacity(0.8f);
+    }
+
+    @Test
+    public void testWidgetReplaysItsDisplayList() {
+        CountingWidget parent = new CountingWidget();
+        CountingWidget child = new CountingWidget();
+        parent.add(child);
+        parent.setDisplayListEnabled(true);
+
+        parent.draw(renderer);
+        parent.draw(renderer);
+
+        assertThat(parent.drawCount, is(1));
+        assertThat(child.drawCount, is(1));
+        verify(renderer, times(4)).drawLine(anyFloat(), anyFloat(), anyFloat(), anyFloat());
+    }
+
+    @Test
+    public void testRepaintingAChildRecordsTheDisplayListAgain() {
+        CountingWidget parent = new CountingWidget();
+        CountingWidget child = new CountingWidget();
+        parent.add(child);
+        parent.setDisplayListEnabled(true);
+
+        parent.draw(renderer);
+        child.repaint();
+        parent.draw(renderer);
+
+        assertThat(parent.drawCount, is(2));
+        assertThat(child.drawCount, is(2));
+    }
+
+    @Test
+    public void testScrollingAListRecordsTheDisplayListAgain() {
+        CountingWidget parent = new CountingWidget();
+        CountingListView list = new CountingListView();
+        list.setGeometry(0, 0, 100, 50);
+        parent.add(list);
+        parent.setDisplayListEnabled(true);
+
+        parent.draw(renderer);
+        list.scrollToRow(10);
+        parent.draw(renderer);
+
+        assertThat(list.drawCount, is(2));
+    }
+
+    @Test
+    public void testSelectingAListItemRecordsTheDisplayListAgain() {
+        CountingWidget parent = new CountingWidget();
+        CountingListView list = new CountingListView();
+        parent.add(list);
+        parent.setDisplayListEnabled(true);
+
+        parent.draw(renderer);
+        list.getSelectionModel().setSelection(KrSelection.of(new KrItemModel.KrModelIndex(1)));
+        parent.draw(renderer);
+
+        assertThat(list.drawCount, is(2));
+    }
+
+    private static class CountingListView extends KrListView {
+
+        private int drawCount;
+
+        CountingListView() {
+            super(new KrListItemModel<>(Collections.nCopies(100, "item")));
+        }
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            drawCount += 1;
+        }
+    }
+
+    private static class CountingWidget extends KrWidget {
+
+        private int drawCount;
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            drawCount += 1;
+            renderer.drawLine(0, 0, 10, 0);
+        }
+    }
+}
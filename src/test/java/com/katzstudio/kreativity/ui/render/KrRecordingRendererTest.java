@@ -0,0 +1,133 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.katzstudio.kreativity.ui.backend.headless.KrHeadlessRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrRecordingRenderer}
+ */
+public class KrRecordingRendererTest {
+
+    private KrRecordingRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        renderer = new KrRecordingRenderer(new KrHeadlessRenderer());
+        renderer.setViewportSize(100, 100);
+    }
+
+    @Test
+    public void testTextureSwitchesBreakTheBatch() {
+        TextureRegion fontRegion = new TextureRegion(mock(Texture.class));
+        BitmapFont font = mock(BitmapFont.class);
+        when(font.getRegion()).thenReturn(fontRegion);
+
+        renderer.beginFrame();
+        renderer.setFont(font);
+        renderer.setBrush(0xff0000ff);
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.drawLine(0, 0, 10, 0);
+        renderer.drawText("text", 0, 0);
+        renderer.setBrush(new TextureRegionDrawable(new TextureRegion(mock(Texture.class))));
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.endFrame();
+
+        KrRenderStats stats = renderer.getLastFrame();
+        assertThat(stats.getDrawCount(), is(4));
+        assertThat(stats.getStateChangeCount(), is(3));
+        assertThat(stats.getTextureSwitchCount(), is(2));
+        assertThat(stats.getBatchBreakCount(), is(3));
+    }
+
+    @Test
+    public void testPaintedAreaIsClipped() {
+        renderer.beginFrame();
+        renderer.fillRect(0, 0, 100, 100);
+        renderer.pushState();
+        renderer.translate(25, 25);
+        renderer.beginClip(0, 0, 50, 50);
+        renderer.fillRect(-10, -10, 100, 100);
+        renderer.popState();
+        renderer.endFrame();
+
+        KrRenderStats stats = renderer.getLastFrame();
+        assertThat(stats.getPaintedArea(), is(12500f));
+        assertThat(stats.getOverdraw(), is(1.25f));
+        assertThat(stats.getClipCount(), is(1));
+        assertThat(stats.getBatchBreakCount(), is(2));
+    }
+
+    @Test
+    public void testStatisticsAreCollectedPerFrame() {
+        renderer.beginFrame();
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.endFrame();
+
+        renderer.beginFrame();
+        renderer.fillRect(0, 0, 10, 10);
+
+        assertThat(renderer.getLastFrame().getFillRectCount(), is(1));
+
+        renderer.fillRect(0, 0, 10, 10);
+        renderer.endFrame();
+
+        assertThat(renderer.getLastFrame().getFillRectCount(), is(2));
+    }
+
+    @Test
+    public void testShadowsAreCountedOnlyIfDrawn() {
+        renderer.beginFrame();
+        renderer.drawTextWithShadow("text", new Vector2(0, 0), new Vector2(0, 0), Color.BLACK);
+        renderer.endFrame();
+
+        assertThat(renderer.getLastFrame().getTextCount(), is(1));
+
+        renderer.beginFrame();
+        renderer.drawTextWithShadow("text", new Vector2(0, 0), new Vector2(1, 1), Color.BLACK);
+        renderer.endFrame();
+
+        assertThat(renderer.getLastFrame().getTextCount(), is(2));
+    }
+
+    @Test
+    public void testCountersOfTheTargetAreForwarded() {
+        KrRenderer target = mock(KrRenderer.class);
+        when(target.getViewportSize()).thenReturn(new Vector2(100, 100));
+        when(target.getRenderCalls()).thenReturn(4);
+        when(target.getClipCount()).thenReturn(3);
+        when(target.getElidedClipCount()).thenReturn(2);
+        when(target.getScissorFlushCount()).thenReturn(1);
+        renderer = new KrRecordingRenderer(target);
+
+        renderer.beginFrame();
+        renderer.endFrame();
+
+        KrRenderStats stats = renderer.getLastFrame();
+        assertThat(stats.getRenderCalls(), is(4));
+        assertThat(stats.getAppliedClipCount(), is(3));
+        assertThat(stats.getElidedClipCount(), is(2));
+        assertThat(stats.getScissorFlushCount(), is(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalancedPopThrows() {
+        renderer.beginFrame();
+        renderer.pushState();
+        renderer.popState();
+        renderer.popState();
+    }
+}
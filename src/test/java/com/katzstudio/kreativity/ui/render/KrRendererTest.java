@@ -0,0 +1,25 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import org.junit.Test;
+
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Unit tests for {@link KrRenderer}
+ */
+public class KrRendererTest {
+
+    @Test
+    public void testPackedColorsAreForwardedToTheColorSetters() {
+        KrRenderer renderer = mock(KrRenderer.class, CALLS_REAL_METHODS);
+
+        renderer.setBrush(0xff000080);
+        renderer.setPen(0x00ff00ff);
+
+        verify(renderer).setBrush(new Color(1, 0, 0, 128 / 255f));
+        verify(renderer).setPen(1, new Color(0, 1, 0, 1));
+    }
+}